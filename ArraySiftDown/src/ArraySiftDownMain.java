@@ -10,7 +10,8 @@ import components.simplewriter.SimpleWriter;
 import components.simplewriter.SimpleWriter1L;
 
 /**
- * Program to test {@code siftDown} on int array.
+ * Program to test {@code IntHeaps.heapify}, built on {@code siftDown},
+ * {@code IntHeaps.heapsort} on int array, and {@code IndexedIntHeap}.
  *
  * @mathdefinitions <pre>
  * SUBTREE_IS_HEAP (
@@ -49,6 +50,11 @@ public final class ArraySiftDownMain {
      */
     private static final int JUNK_SIZE = 5;
 
+    /**
+     * Number of children of each node of a 4-ary heap.
+     */
+    private static final int QUATERNARY = 4;
+
     /**
      * Checks if the subtree of the given {@code array} rooted at the given
      * {@code top} is a heap.
@@ -123,86 +129,63 @@ public final class ArraySiftDownMain {
     }
 
     /**
-     * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
+     * Checks {@code IndexedIntHeap}, with the given {@code arity}, on
+     * {@code keys}: item i is added with key keys[i], the item with the
+     * largest key then has its key lowered below every other key, so that it
+     * must move to the root, and the items are removed in order of their keys.
      *
-     * @param array
-     *            the array whose entries are to be exchanged
-     * @param i
-     *            one index
-     * @param j
-     *            the other index
-     * @updates array
-     * @requires 0 <= i < |array| and 0 <= j < |array|
-     * @ensures array = [#array with entries at indices i and j exchanged]
+     * @param keys
+     *            the keys of the items
+     * @param arity
+     *            the number of children of each node of the heap
+     * @requires arity >= 2  and  [every entry of keys is at least JUNK_SIZE]
      */
-    private static void exchangeEntries(int[] array, int i, int j) {
-        assert array != null : "Violation of: array is not null";
-        assert 0 <= i : "Violation of: 0 <= i";
-        assert i < array.length : "Violation of: i < |array|";
-        assert 0 <= j : "Violation of: 0 <= j";
-        assert j < array.length : "Violation of: j < |array|";
-
-        if (i != j) {
-            int tmp = array[i];
-            array[i] = array[j];
-            array[j] = tmp;
+    private static void checkIndexedIntHeap(int[] keys, int arity) {
+        IndexedIntHeap q = new IndexedIntHeap(keys.length + 1, arity);
+        for (int i = 0; i < keys.length; i++) {
+            q.insert(i, keys[i]);
         }
-    }
-
-    /**
-     * Given an array that represents a complete binary tree and an index
-     * referring to the root of a subtree that would be a heap except for its
-     * root, sifts the root down to turn that whole subtree into a heap.
-     *
-     * @param array
-     *            the complete binary tree
-     * @param top
-     *            the index of the root of the "subtree"
-     * @param last
-     *            the index of the last entry in the heap
-     * @updates array
-     * @requires <pre>
-     * 0 <= top  and  last < |array.entries|  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 1, last, <=)  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 2, last, <=)
-     * [subtree rooted at {@code top} is a complete binary tree]
-     * </pre>
-     * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, last, <=)  and
-     * perms(array, #array)  and
-     * SUBTREE_ARRAY_ENTRIES(array, top, last) =
-     *  SUBTREE_ARRAY_ENTRIES(#array, top, last)  and
-     * [the other entries in array are the same as in #array]
-     * </pre>
-     */
-    private static void siftDown(int[] array, int top, int last) {
-        assert array != null : "Violation of: array is not null";
-        assert 0 <= top : "Violation of: 0 <= top";
-        assert last < array.length : "Violation of: last < |array|";
-        assert isHeap(array, 2 * top + 1, last) : ""
-                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last, <=)";
-        assert isHeap(array, 2 * top + 2, last) : ""
-                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 2, last, <=)";
-        /*
-         * No need to check the other requires clause, because it must be true
-         * when using the array representation for a complete binary tree.
-         */
-        int left = 2 * top + 1;
-        int right = 2 * top + 2;
-        int newRoot = top;
-        if (array.length > 1) {
-            if (left < last && array[newRoot] > array[left]) {
-                exchangeEntries(array, left, newRoot);
-                newRoot = left;
-            }
-            if (right < last && array[newRoot] > array[right]) {
-                exchangeEntries(array, right, newRoot);
-                newRoot = right;
-            }
-            if (newRoot == left || newRoot == right) {
-                siftDown(array, newRoot, last);
+        assert q.size() == keys.length : ""
+                + "Method insert left " + q.size() + " items in the heap "
+                + "instead of " + keys.length;
+        int largest = 0;
+        for (int i = 0; i < keys.length; i++) {
+            assert q.contains(i) : ""
+                    + "Method contains did not report item " + i;
+            assert q.key(i) == keys[i] : "Method key reported " + q.key(i)
+                    + " for item " + i + " instead of " + keys[i];
+            if (keys[i] > keys[largest]) {
+                largest = i;
             }
         }
+        assert !q.contains(keys.length) : "Method contains reported item "
+                + keys.length + ", which was never added";
+        if (keys.length > 0) {
+            q.decreaseKey(largest, JUNK_SIZE - 1);
+            assert q.key(largest) == JUNK_SIZE - 1 : ""
+                    + "Method decreaseKey did not lower the key of item "
+                    + largest;
+            assert q.min() == largest : ""
+                    + "Method decreaseKey did not move item " + largest
+                    + " to the root";
+        }
+        int removed = 0;
+        int previous = Integer.MIN_VALUE;
+        while (q.size() > 0) {
+            int item = q.min();
+            int k = q.key(item);
+            assert previous <= k : ""
+                    + "Method removeMin removed keys out of order: " + k
+                    + " after " + previous;
+            assert q.removeMin() == item : ""
+                    + "Method removeMin did not remove the item min reported";
+            assert !q.contains(item) : ""
+                    + "Method contains reported removed item " + item;
+            previous = k;
+            removed++;
+        }
+        assert removed == keys.length : "Method removeMin removed " + removed
+                + " items instead of " + keys.length;
     }
 
     /**
@@ -246,14 +229,10 @@ public final class ArraySiftDownMain {
          */
         out.println("              initial array: " + Arrays.toString(array));
         /*
-         * Heapify the heapSize-length prefix of array by repeatedly calling
-         * siftDown (this is an iterative implementation of heapify--it should
-         * start with i = heapSize / 2 - 1, but since it is intended to test
-         * siftDown, we call it on the leaves as well)
+         * Heapify the heapSize-length prefix of array bottom up, calling
+         * siftDown on each internal node, starting with i = heapSize / 2 - 1
          */
-        for (int i = heapSize - 1; i >= 0; i--) {
-            siftDown(array, i, heapSize - 1);
-        }
+        IntHeaps.heapify(array, heapSize - 1);
         /*
          * Make sure the heapSize-length prefix of array is now a heap
          */
@@ -268,17 +247,17 @@ public final class ArraySiftDownMain {
             incrementCountFor(array[i], current);
         }
         assert current.equals(original) : ""
-                + "Method siftDown caused different values to be in the heap "
+                + "Method heapify caused different values to be in the heap "
                 + "than were in the original complete binary tree, "
                 + "perhaps by failing to ignore the junk at "
                 + "the far end of the array.";
         /*
          * Make sure the junk at the far end of array was not changed by
-         * siftDown
+         * heapify
          */
         for (int i = heapSize; i < heapSize + JUNK_SIZE; i++) {
             assert heapSize + JUNK_SIZE - i - 1 == array[i] : ""
-                    + "Method siftDown changed the junk at "
+                    + "Method heapify changed the junk at "
                     + "the far end of the array: Expected "
                     + (heapSize + JUNK_SIZE - i - 1) + " but was " + array[i];
         }
@@ -286,6 +265,28 @@ public final class ArraySiftDownMain {
          * If everything worked, output the array with a heapified prefix
          */
         out.println("array with heapified prefix: " + Arrays.toString(array));
+        /*
+         * Heapsort the heapSize-length prefix of array and make sure it is now
+         * sorted and holds the same values
+         */
+        int[] prefix = Arrays.copyOf(array, heapSize);
+        IntHeaps.heapsort(prefix);
+        for (int i = 1; i < heapSize; i++) {
+            assert prefix[i - 1] <= prefix[i] : ""
+                    + "Method heapsort left entries out of order at index " + i;
+        }
+        current.clear();
+        for (int i = 0; i < heapSize; i++) {
+            incrementCountFor(prefix[i], current);
+        }
+        assert current.equals(original) : ""
+                + "Method heapsort caused different values to be in the array";
+        out.println("              sorted prefix: " + Arrays.toString(prefix));
+        /*
+         * Check IndexedIntHeap, binary and 4-ary, on the same values
+         */
+        checkIndexedIntHeap(prefix, IntHeaps.BINARY);
+        checkIndexedIntHeap(prefix, QUATERNARY);
         /*
          * Close streams
          */
@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the {@code int} heaps of {@code IntHeaps} and
+ * {@code IndexedIntHeap}, binary and 4-ary, with
+ * {@code java.util.PriorityQueue<Integer>}: the time to add n random keys and
+ * remove them all in order, and the time to sort n random keys with heapsort.
+ * {@code IndexedIntHeap} keeps keys apart from the heap of items, so that
+ * {@code decreaseKey} can find an item, and pays for it with one more memory
+ * access per comparison.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class HeapBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HeapBenchmark() {
+    }
+
+    /**
+     * Smallest number of keys measured.
+     */
+    private static final int MIN_KEYS = 10_000;
+
+    /**
+     * Largest number of keys measured.
+     */
+    private static final int MAX_KEYS = 1_000_000;
+
+    /**
+     * Factor by which the number of keys grows between measurements.
+     */
+    private static final int GROWTH = 10;
+
+    /**
+     * Number of children of each node of the wider heap.
+     */
+    private static final int QUATERNARY = 4;
+
+    /**
+     * Seed of the random keys, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns the time, in milliseconds, elapsed since {@code start}.
+     *
+     * @param start
+     *            the start time, from {@code System.nanoTime}
+     * @return the elapsed milliseconds
+     */
+    private static String millisSince(long start) {
+        return String.format("%.1f",
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Adds every key to a {@code PriorityQueue<Integer>}, removes them all,
+     * and returns a checksum of the order in which they came out.
+     *
+     * @param keys
+     *            the keys
+     * @return the checksum
+     */
+    private static long drainPriorityQueue(int[] keys) {
+        PriorityQueue<Integer> q = new PriorityQueue<>();
+        for (int k : keys) {
+            q.add(k);
+        }
+        long checksum = 0;
+        long i = 0;
+        while (!q.isEmpty()) {
+            checksum += i * q.poll();
+            i++;
+        }
+        return checksum;
+    }
+
+    /**
+     * Adds every key to an {@code IndexedIntHeap} of the given {@code arity},
+     * removes them all, and returns a checksum of the order in which their
+     * keys came out.
+     *
+     * @param keys
+     *            the keys
+     * @param arity
+     *            the number of children of each node of the heap
+     * @return the checksum
+     * @requires arity >= 2
+     */
+    private static long drainIndexedIntHeap(int[] keys, int arity) {
+        IndexedIntHeap q = new IndexedIntHeap(keys.length, arity);
+        for (int i = 0; i < keys.length; i++) {
+            q.insert(i, keys[i]);
+        }
+        long checksum = 0;
+        long i = 0;
+        while (q.size() > 0) {
+            checksum += i * keys[q.removeMin()];
+            i++;
+        }
+        return checksum;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Random random = new Random(SEED);
+        out.println("Keys\tPriorityQueue\tIndexed 2-ary\tIndexed 4-ary\t"
+                + "Arrays.sort\tHeapsort 2-ary\tHeapsort 4-ary");
+        for (int n = MIN_KEYS; n <= MAX_KEYS; n *= GROWTH) {
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            /*
+             * Priority queues: add all keys, then remove them in order
+             */
+            long start = System.nanoTime();
+            long expected = drainPriorityQueue(keys);
+            String priorityQueueTime = millisSince(start);
+            start = System.nanoTime();
+            long binary = drainIndexedIntHeap(keys, IntHeaps.BINARY);
+            String binaryTime = millisSince(start);
+            start = System.nanoTime();
+            long quaternary = drainIndexedIntHeap(keys, QUATERNARY);
+            String quaternaryTime = millisSince(start);
+            if (binary != expected || quaternary != expected) {
+                throw new AssertionError("Keys removed out of order");
+            }
+            /*
+             * Sorting
+             */
+            int[] sorted = Arrays.copyOf(keys, n);
+            start = System.nanoTime();
+            Arrays.sort(sorted);
+            String arraysSortTime = millisSince(start);
+            int[] binarySorted = Arrays.copyOf(keys, n);
+            start = System.nanoTime();
+            IntHeaps.heapsort(binarySorted);
+            String binarySortTime = millisSince(start);
+            int[] quaternarySorted = Arrays.copyOf(keys, n);
+            start = System.nanoTime();
+            IntHeaps.heapsort(quaternarySorted, QUATERNARY);
+            String quaternarySortTime = millisSince(start);
+            if (!Arrays.equals(sorted, binarySorted)
+                    || !Arrays.equals(sorted, quaternarySorted)) {
+                throw new AssertionError("Heapsort result not sorted");
+            }
+            out.println(n + "\t" + priorityQueueTime + "\t" + binaryTime + "\t"
+                    + quaternaryTime + "\t" + arraysSortTime + "\t"
+                    + binarySortTime + "\t" + quaternarySortTime);
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,279 @@
+import java.util.Arrays;
+
+/**
+ * Min-priority queue of items {@code 0} through {@code capacity - 1}, each
+ * with an {@code int} key, kept in a d-ary heap on primitive arrays. Because
+ * the heap also records where each item is, the key of an item already in
+ * the queue can be lowered in place with {@code decreaseKey}, as needed by
+ * Dijkstra's and Prim's algorithms.
+ *
+ * @mathmodel <pre>
+ * type IndexedIntHeap is modeled by (
+ *   capacity: integer,
+ *   entries: finite set of (item: integer, key: integer)
+ *  )
+ *  exemplar q
+ *  constraint
+ *   [no two entries of q.entries have the same item]  and
+ *   for all (i, k) in q.entries (0 <= i < q.capacity)
+ * </pre>
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class IndexedIntHeap {
+
+    /**
+     * Number of children of each node of the heap.
+     */
+    private final int arity;
+
+    /**
+     * Items in the queue, in heap order of their keys.
+     */
+    private final int[] heap;
+
+    /**
+     * Position of each item in {@code heap}, or -1 if it is not in the queue.
+     */
+    private final int[] position;
+
+    /**
+     * Key of each item in the queue.
+     */
+    private final int[] key;
+
+    /**
+     * Number of items in the queue.
+     */
+    private int size;
+
+    /**
+     * Constructor for a binary heap.
+     *
+     * @param capacity
+     *            the number of possible items
+     * @requires capacity >= 0
+     * @ensures this = (capacity, {})
+     */
+    public IndexedIntHeap(int capacity) {
+        this(capacity, IntHeaps.BINARY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity
+     *            the number of possible items
+     * @param arity
+     *            the number of children of each node of the heap
+     * @requires capacity >= 0  and  arity >= 2
+     * @ensures this = (capacity, {})
+     */
+    public IndexedIntHeap(int capacity, int arity) {
+        assert capacity >= 0 : "Violation of: capacity >= 0";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(this.position, -1);
+        this.key = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Moves the item at heap position {@code hole} up until its parent's key
+     * is not larger.
+     *
+     * @param hole
+     *            the heap position of the item
+     * @updates this
+     * @requires 0 <= hole < $this.size
+     */
+    private void siftUp(int hole) {
+        int item = this.heap[hole];
+        int k = this.key[item];
+        boolean done = false;
+        while (!done && hole > 0) {
+            int parent = (hole - 1) / this.arity;
+            if (this.key[this.heap[parent]] > k) {
+                this.heap[hole] = this.heap[parent];
+                this.position[this.heap[hole]] = hole;
+                hole = parent;
+            } else {
+                done = true;
+            }
+        }
+        this.heap[hole] = item;
+        this.position[item] = hole;
+    }
+
+    /**
+     * Moves the item at heap position {@code hole} down until no child's key
+     * is smaller, as {@code IntHeaps.siftDown} does.
+     *
+     * @param hole
+     *            the heap position of the item
+     * @updates this
+     * @requires 0 <= hole < $this.size
+     */
+    private void siftDown(int hole) {
+        int item = this.heap[hole];
+        int k = this.key[item];
+        int last = this.size - 1;
+        boolean done = false;
+        while (!done && last > 0 && hole <= (last - 1) / this.arity) {
+            int firstChild = this.arity * hole + 1;
+            int lastChild = firstChild
+                    + Math.min(this.arity - 1, last - firstChild);
+            int smallest = firstChild;
+            int smallestKey = this.key[this.heap[firstChild]];
+            for (int child = firstChild + 1; child <= lastChild; child++) {
+                int childKey = this.key[this.heap[child]];
+                if (childKey < smallestKey) {
+                    smallest = child;
+                    smallestKey = childKey;
+                }
+            }
+            if (smallestKey < k) {
+                this.heap[hole] = this.heap[smallest];
+                this.position[this.heap[hole]] = hole;
+                hole = smallest;
+            } else {
+                done = true;
+            }
+        }
+        this.heap[hole] = item;
+        this.position[item] = hole;
+    }
+
+    /**
+     * Adds {@code item} with key {@code k} to {@code this}.
+     *
+     * @param item
+     *            the item to add
+     * @param k
+     *            its key
+     * @updates this.entries
+     * @requires 0 <= item < this.capacity  and  item is not in this
+     * @ensures this.entries = #this.entries union {(item, k)}
+     */
+    public void insert(int item, int k) {
+        assert 0 <= item && item < this.heap.length : ""
+                + "Violation of: 0 <= item < this.capacity";
+        assert !this.contains(item) : "Violation of: item is not in this";
+        this.key[item] = k;
+        this.heap[this.size] = item;
+        this.size++;
+        this.siftUp(this.size - 1);
+    }
+
+    /**
+     * Lowers the key of {@code item} to {@code k}.
+     *
+     * @param item
+     *            the item whose key is lowered
+     * @param k
+     *            its new key
+     * @updates this.entries
+     * @requires item is in this  and  k <= this.key(item)
+     * @ensures this.entries = (#this.entries \ {(item, #this.key(item))})
+     *          union {(item, k)}
+     */
+    public void decreaseKey(int item, int k) {
+        assert this.contains(item) : "Violation of: item is in this";
+        assert k <= this.key[item] : "Violation of: k <= this.key(item)";
+        this.key[item] = k;
+        this.siftUp(this.position[item]);
+    }
+
+    /**
+     * Removes an item with the smallest key from {@code this} and returns it.
+     *
+     * @return the item removed
+     * @updates this.entries
+     * @requires this.entries /= {}
+     * @ensures <pre>
+     * (removeMin, k) is in #this.entries  and
+     * this.entries = #this.entries \ {(removeMin, k)}  and
+     * for all (i, j) in this.entries (k <= j)
+     * </pre>
+     */
+    public int removeMin() {
+        assert this.size > 0 : "Violation of: this.entries /= {}";
+        int min = this.heap[0];
+        this.position[min] = -1;
+        this.size--;
+        if (this.size > 0) {
+            this.heap[0] = this.heap[this.size];
+            this.siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Reports an item with the smallest key in {@code this}.
+     *
+     * @return an item with the smallest key
+     * @requires this.entries /= {}
+     * @ensures <pre>
+     * (min, k) is in this.entries  and
+     * for all (i, j) in this.entries (k <= j)
+     * </pre>
+     */
+    public int min() {
+        assert this.size > 0 : "Violation of: this.entries /= {}";
+        return this.heap[0];
+    }
+
+    /**
+     * Reports whether {@code item} is in {@code this}.
+     *
+     * @param item
+     *            the item to look for
+     * @return true if {@code item} is in {@code this}; false otherwise
+     * @requires 0 <= item < this.capacity
+     * @ensures contains = there exists k: integer ((item, k) is in
+     *          this.entries)
+     */
+    public boolean contains(int item) {
+        assert 0 <= item && item < this.heap.length : ""
+                + "Violation of: 0 <= item < this.capacity";
+        return this.position[item] >= 0;
+    }
+
+    /**
+     * Reports the key of {@code item}.
+     *
+     * @param item
+     *            the item whose key is reported
+     * @return the key of {@code item}
+     * @requires item is in this
+     * @ensures (item, key) is in this.entries
+     */
+    public int key(int item) {
+        assert this.contains(item) : "Violation of: item is in this";
+        return this.key[item];
+    }
+
+    /**
+     * Reports the number of items in {@code this}.
+     *
+     * @return the number of items in {@code this}
+     * @ensures size = |this.entries|
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Reports the number of possible items of {@code this}.
+     *
+     * @return the capacity of {@code this}
+     * @ensures capacity = this.capacity
+     */
+    public int capacity() {
+        return this.heap.length;
+    }
+
+}
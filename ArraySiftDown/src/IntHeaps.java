@@ -0,0 +1,254 @@
+/**
+ * Utility class with heap operations on {@code int} arrays: {@code siftDown},
+ * bottom-up heap construction, and in-place heapsort, for binary heaps and,
+ * more generally, d-ary heaps, in which every node has up to {@code arity}
+ * children (a wider, shallower tree, so fewer levels to sift through and
+ * children that sit next to each other in memory).
+ *
+ * <p>
+ * The array representation of a complete d-ary tree puts the children of the
+ * node at index i at indices arity * i + 1 through arity * i + arity, and its
+ * parent at index (i - 1) / arity.
+ *
+ * @mathdefinitions <pre>
+ * IS_HEAP (
+ *   a: string of integer,
+ *   last: integer,
+ *   arity: integer
+ *  ) : boolean is
+ *  for all i: integer where (0 < i <= last)
+ *   (a[(i - 1) / arity] <= a[i])
+ * </pre>
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class IntHeaps {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private IntHeaps() {
+    }
+
+    /**
+     * Number of children of each node of a binary heap.
+     */
+    public static final int BINARY = 2;
+
+    /**
+     * Reports whether the entries of {@code array} through index {@code last}
+     * form a heap of the given {@code arity}.
+     *
+     * @param array
+     *            the complete tree
+     * @param last
+     *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each node
+     * @return true if {@code array[0, last]} is a heap; false otherwise
+     * @requires last < |array|  and  arity >= 2
+     * @ensures isHeap = IS_HEAP(array, last, arity)
+     */
+    public static boolean isHeap(int[] array, int last, int arity) {
+        assert array != null : "Violation of: array is not null";
+        assert last < array.length : "Violation of: last < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        boolean isHeap = true;
+        for (int i = 1; isHeap && i <= last; i++) {
+            isHeap = array[(i - 1) / arity] <= array[i];
+        }
+        return isHeap;
+    }
+
+    /**
+     * Given an array that represents a complete tree of the given
+     * {@code arity} and an index referring to the root of a subtree that would
+     * be a heap except for its root, sifts the root down to turn that whole
+     * subtree into a heap.
+     *
+     * <p>
+     * The root is held aside while each smaller child moves up into the hole
+     * it leaves, and is written once, into the final position of the hole.
+     *
+     * @param array
+     *            the complete tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each node
+     * @updates array
+     * @requires <pre>
+     * 0 <= top <= last < |array|  and  arity >= 2  and
+     * [the subtrees rooted at the children of top, through entry last,
+     *  are heaps]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top, through entry last, is a heap]  and
+     * perms(array, #array)  and
+     * [the entries of array outside that subtree are the same as in #array]
+     * </pre>
+     */
+    public static void siftDown(int[] array, int top, int last, int arity) {
+        assert array != null : "Violation of: array is not null";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert top <= last : "Violation of: top <= last";
+        assert last < array.length : "Violation of: last < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        int root = array[top];
+        int hole = top;
+        boolean done = false;
+        /*
+         * The hole has a child if arity * hole + 1 <= last, written so that it
+         * cannot overflow
+         */
+        while (!done && last > 0 && hole <= (last - 1) / arity) {
+            int firstChild = arity * hole + 1;
+            int lastChild = firstChild + Math.min(arity - 1, last - firstChild);
+            int smallest = firstChild;
+            for (int child = firstChild + 1; child <= lastChild; child++) {
+                if (array[child] < array[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (array[smallest] < root) {
+                array[hole] = array[smallest];
+                hole = smallest;
+            } else {
+                done = true;
+            }
+        }
+        array[hole] = root;
+    }
+
+    /**
+     * Binary-heap version of {@link #siftDown(int[], int, int, int)}.
+     *
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @updates array
+     * @requires <pre>
+     * 0 <= top <= last < |array|  and
+     * [the subtrees rooted at 2 * top + 1 and 2 * top + 2, through entry
+     *  last, are heaps]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top, through entry last, is a heap]  and
+     * perms(array, #array)  and
+     * [the entries of array outside that subtree are the same as in #array]
+     * </pre>
+     */
+    public static void siftDown(int[] array, int top, int last) {
+        siftDown(array, top, last, BINARY);
+    }
+
+    /**
+     * Rearranges {@code array[0, last]} into a heap of the given
+     * {@code arity}, bottom up: every subtree rooted at an internal node is
+     * made a heap with {@code siftDown}, starting from the last internal node.
+     * Leaves are already heaps and are skipped. This takes O(last) time,
+     * since most nodes are near the bottom and are sifted only a short way.
+     *
+     * @param array
+     *            the complete tree
+     * @param last
+     *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each node
+     * @updates array
+     * @requires last < |array|  and  arity >= 2
+     * @ensures <pre>
+     * IS_HEAP(array, last, arity)  and  perms(array, #array)  and
+     * [the entries of array after index last are the same as in #array]
+     * </pre>
+     */
+    public static void heapify(int[] array, int last, int arity) {
+        assert array != null : "Violation of: array is not null";
+        assert last < array.length : "Violation of: last < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        if (last > 0) {
+            for (int i = (last - 1) / arity; i >= 0; i--) {
+                siftDown(array, i, last, arity);
+            }
+        }
+        assert isHeap(array, last, arity) : ""
+                + "Violation of: IS_HEAP(array, last, arity)";
+    }
+
+    /**
+     * Binary-heap version of {@link #heapify(int[], int, int)}.
+     *
+     * @param array
+     *            the complete binary tree
+     * @param last
+     *            the index of the last entry in the heap
+     * @updates array
+     * @requires last < |array|
+     * @ensures <pre>
+     * IS_HEAP(array, last, 2)  and  perms(array, #array)  and
+     * [the entries of array after index last are the same as in #array]
+     * </pre>
+     */
+    public static void heapify(int[] array, int last) {
+        heapify(array, last, BINARY);
+    }
+
+    /**
+     * Sorts {@code array} into non-decreasing order, in place, with a heap of
+     * the given {@code arity}: after {@code heapify}, the smallest entry is
+     * repeatedly exchanged with the last entry of the heap, which then shrinks
+     * by one and has its new root sifted down. That leaves the array in
+     * non-increasing order, which is finally reversed.
+     *
+     * @param array
+     *            the array to sort
+     * @param arity
+     *            the number of children of each node
+     * @updates array
+     * @requires arity >= 2
+     * @ensures <pre>
+     * perms(array, #array)  and
+     * [array is in non-decreasing order]
+     * </pre>
+     */
+    public static void heapsort(int[] array, int arity) {
+        assert array != null : "Violation of: array is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        heapify(array, array.length - 1, arity);
+        for (int last = array.length - 1; last > 0; last--) {
+            int smallest = array[0];
+            array[0] = array[last];
+            array[last] = smallest;
+            if (last > 1) {
+                siftDown(array, 0, last - 1, arity);
+            }
+        }
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Binary-heap version of {@link #heapsort(int[], int)}.
+     *
+     * @param array
+     *            the array to sort
+     * @updates array
+     * @ensures <pre>
+     * perms(array, #array)  and
+     * [array is in non-decreasing order]
+     * </pre>
+     */
+    public static void heapsort(int[] array) {
+        heapsort(array, BINARY);
+    }
+
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 import components.binarytree.BinaryTree;
 import components.binarytree.BinaryTree1;
 import components.simplereader.SimpleReader;
@@ -29,6 +31,131 @@ public final class BinarySearchTreeMethods {
     private BinarySearchTreeMethods() {
     }
 
+    /**
+     * Record of the trees disassembled while walking down a {@code BinaryTree}
+     * without recursion, so that they can all be reassembled, deepest first,
+     * once the walk is over.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     */
+    private static final class Disassembly<T> {
+
+        /**
+         * Number of trees the arrays can hold before they first grow.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Trees disassembled so far, in order, in entries [0, length).
+         */
+        private BinaryTree<T>[] trees;
+
+        /**
+         * Roots of {@code trees}.
+         */
+        private T[] roots;
+
+        /**
+         * Left subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] lefts;
+
+        /**
+         * Right subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] rights;
+
+        /**
+         * Number of trees disassembled so far.
+         */
+        private int length;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        Disassembly() {
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.trees = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.roots = (T[]) (new Object[INITIAL_CAPACITY]);
+            this.lefts = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.rights = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.length = 0;
+        }
+
+        /**
+         * Disassembles {@code t} into {@code left} and {@code right},
+         * remembering to reassemble it, and returns its root.
+         *
+         * @param t
+         *            the tree to disassemble
+         * @param left
+         *            the left subtree
+         * @param right
+         *            the right subtree
+         * @return the root of {@code t}
+         * @updates t
+         * @replaces left, right
+         * @requires |t| > 0
+         */
+        T disassemble(BinaryTree<T> t, BinaryTree<T> left,
+                BinaryTree<T> right) {
+            if (this.length == this.trees.length) {
+                int capacity = 2 * this.length;
+                this.trees = Arrays.copyOf(this.trees, capacity);
+                this.roots = Arrays.copyOf(this.roots, capacity);
+                this.lefts = Arrays.copyOf(this.lefts, capacity);
+                this.rights = Arrays.copyOf(this.rights, capacity);
+            }
+            T root = t.disassemble(left, right);
+            this.trees[this.length] = t;
+            this.roots[this.length] = root;
+            this.lefts[this.length] = left;
+            this.rights[this.length] = right;
+            this.length++;
+            return root;
+        }
+
+        /**
+         * Forgets the last tree disassembled, which the caller will rebuild
+         * itself.
+         *
+         * @updates this
+         * @requires [at least one tree has been disassembled]
+         */
+        void forgetLast() {
+            this.length--;
+            this.trees[this.length] = null;
+            this.roots[this.length] = null;
+            this.lefts[this.length] = null;
+            this.rights[this.length] = null;
+        }
+
+        /**
+         * Reassembles every tree disassembled, from the last one to the
+         * first, so each is reassembled after its own subtrees.
+         *
+         * @clears this
+         */
+        void reassemble() {
+            while (this.length > 0) {
+                this.length--;
+                int i = this.length;
+                this.trees[i].assemble(this.roots[i], this.lefts[i],
+                        this.rights[i]);
+                this.trees[i] = null;
+                this.roots[i] = null;
+                this.lefts[i] = null;
+                this.rights[i] = null;
+            }
+        }
+
+    }
+
     /**
      * Returns a copy of the the given {@code BinaryTree}.
      *
@@ -64,13 +191,25 @@ public final class BinarySearchTreeMethods {
      */
     public static <T extends Comparable<T>> boolean isInTree(BinaryTree<T> t,
             T x) {
+        assert t != null : "Violation of: t is not null";
+        assert x != null : "Violation of: x is not null";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
         boolean inTree = false;
-        for (T y : t) {
-            if (y.equals(x)) {
+        while (!inTree && subtree.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            int cmp = x.compareTo(root);
+            if (cmp < 0) {
+                subtree = left;
+            } else if (cmp > 0) {
+                subtree = right;
+            } else {
                 inTree = true;
-                break;
             }
         }
+        path.reassemble();
         return inTree;
     }
 
@@ -90,16 +229,26 @@ public final class BinarySearchTreeMethods {
      * </pre>
      */
     public static <T> T removeSmallest(BinaryTree<T> t) {
+        assert t != null : "Violation of: t is not null";
+        assert t.size() > 0 : "Violation of: |t| > 0";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
-        T smallest = t.root();
-        T root = t.disassemble(left, right);
-        if (left.height() > 0) {
-            smallest = removeSmallest(left);
-            t.assemble(root, left, right);
-        } else {
-            t.transferFrom(right);
+        T smallest = path.disassemble(subtree, left, right);
+        while (left.size() > 0) {
+            subtree = left;
+            left = t.newInstance();
+            right = t.newInstance();
+            smallest = path.disassemble(subtree, left, right);
         }
+        /*
+         * subtree's root is the smallest label: replace subtree by its right
+         * subtree instead of reassembling it
+         */
+        path.forgetLast();
+        subtree.transferFrom(right);
+        path.reassemble();
         return smallest;
     }
 
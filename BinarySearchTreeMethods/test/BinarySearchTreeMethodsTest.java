@@ -11,6 +11,33 @@ import components.binarytree.BinaryTree1;
  */
 public final class BinarySearchTreeMethodsTest {
 
+    /**
+     * Number of nodes in the degenerate BSTs, deep enough that walking them
+     * recursively would overflow the stack.
+     */
+    private static final int DEEP = 1_000_000;
+
+    /**
+     * Returns a BST of the {@code Integer}s 0 to n - 1 in which every node has
+     * an empty right subtree, so that 0 is the deepest node.
+     *
+     * @param n
+     *            the number of nodes
+     * @return the BST
+     * @requires n >= 0
+     * @ensures IS_BST(leftChain)  and  |leftChain| = n  and
+     *          ht(leftChain) = n
+     */
+    private static BinaryTree<Integer> leftChain(int n) {
+        BinaryTree<Integer> t = new BinaryTree1<Integer>();
+        for (int i = 0; i < n; i++) {
+            BinaryTree<Integer> parent = new BinaryTree1<Integer>();
+            parent.assemble(i, t, new BinaryTree1<Integer>());
+            t = parent;
+        }
+        return t;
+    }
+
     /**
      * Constructs and return a BST created by inserting the given {@code args}
      * into an empty tree in the order in which they are provided.
@@ -212,4 +239,38 @@ public final class BinarySearchTreeMethodsTest {
         assertEquals(t2, t1);
     }
 
+    @Test
+    public void inTreeTrueDeep() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<Integer> t1 = leftChain(DEEP);
+        /*
+         * Call method under test
+         */
+        boolean inTree = BinarySearchTreeMethods.isInTree(t1, 0);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(true, inTree);
+        assertEquals(DEEP, t1.size());
+    }
+
+    @Test
+    public void removeSmallestTestDeep() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<Integer> t1 = leftChain(DEEP);
+        /*
+         * Call method under test
+         */
+        int smallest = BinarySearchTreeMethods.removeSmallest(t1);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, smallest);
+        assertEquals(DEEP - 1, t1.size());
+    }
+
 }
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 import components.binarytree.BinaryTree;
 import components.binarytree.BinaryTree1;
 import components.simplereader.SimpleReader;
@@ -20,6 +22,212 @@ public final class BinaryTreeMethods {
     private BinaryTreeMethods() {
     }
 
+    /**
+     * Record of the trees disassembled while walking down a {@code BinaryTree}
+     * without recursion, so that they can all be reassembled, deepest first,
+     * once the walk is over.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     */
+    private static final class Disassembly<T> {
+
+        /**
+         * Number of trees the arrays can hold before they first grow.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Trees disassembled so far, in order, in entries [0, length).
+         */
+        private BinaryTree<T>[] trees;
+
+        /**
+         * Roots of {@code trees}.
+         */
+        private T[] roots;
+
+        /**
+         * Left subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] lefts;
+
+        /**
+         * Right subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] rights;
+
+        /**
+         * Number of trees disassembled so far.
+         */
+        private int length;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        Disassembly() {
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.trees = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.roots = (T[]) (new Object[INITIAL_CAPACITY]);
+            this.lefts = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.rights = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.length = 0;
+        }
+
+        /**
+         * Disassembles {@code t} into {@code left} and {@code right},
+         * remembering to reassemble it, and returns its root.
+         *
+         * @param t
+         *            the tree to disassemble
+         * @param left
+         *            the left subtree
+         * @param right
+         *            the right subtree
+         * @return the root of {@code t}
+         * @updates t
+         * @replaces left, right
+         * @requires |t| > 0
+         */
+        T disassemble(BinaryTree<T> t, BinaryTree<T> left,
+                BinaryTree<T> right) {
+            if (this.length == this.trees.length) {
+                int capacity = 2 * this.length;
+                this.trees = Arrays.copyOf(this.trees, capacity);
+                this.roots = Arrays.copyOf(this.roots, capacity);
+                this.lefts = Arrays.copyOf(this.lefts, capacity);
+                this.rights = Arrays.copyOf(this.rights, capacity);
+            }
+            T root = t.disassemble(left, right);
+            this.trees[this.length] = t;
+            this.roots[this.length] = root;
+            this.lefts[this.length] = left;
+            this.rights[this.length] = right;
+            this.length++;
+            return root;
+        }
+
+        /**
+         * Reassembles every tree disassembled, from the last one to the
+         * first, so each is reassembled after its own subtrees.
+         *
+         * @clears this
+         */
+        void reassemble() {
+            while (this.length > 0) {
+                this.length--;
+                int i = this.length;
+                this.trees[i].assemble(this.roots[i], this.lefts[i],
+                        this.rights[i]);
+                this.trees[i] = null;
+                this.roots[i] = null;
+                this.lefts[i] = null;
+                this.rights[i] = null;
+            }
+        }
+
+    }
+
+    /**
+     * Stack of the subtrees still to be visited while walking a
+     * {@code BinaryTree} without recursion, each with its depth (0 in walks
+     * that do not need it).
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     */
+    private static final class Pending<T> {
+
+        /**
+         * Number of subtrees the arrays can hold before they first grow.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Subtrees still to be visited, the top of the stack last, in entries
+         * [0, length).
+         */
+        private BinaryTree<T>[] trees;
+
+        /**
+         * Depths of {@code trees}.
+         */
+        private int[] depths;
+
+        /**
+         * Number of subtrees on the stack.
+         */
+        private int length;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        Pending() {
+            this.trees = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.depths = new int[INITIAL_CAPACITY];
+            this.length = 0;
+        }
+
+        /**
+         * Reports whether the stack is empty.
+         *
+         * @return true iff the stack is empty
+         */
+        boolean isEmpty() {
+            return this.length == 0;
+        }
+
+        /**
+         * Pushes {@code t}, at depth {@code depth}, onto the stack.
+         *
+         * @param t
+         *            the subtree to push
+         * @param depth
+         *            the depth of {@code t}
+         * @updates this
+         */
+        void push(BinaryTree<T> t, int depth) {
+            if (this.length == this.trees.length) {
+                int capacity = 2 * this.length;
+                this.trees = Arrays.copyOf(this.trees, capacity);
+                this.depths = Arrays.copyOf(this.depths, capacity);
+            }
+            this.trees[this.length] = t;
+            this.depths[this.length] = depth;
+            this.length++;
+        }
+
+        /**
+         * Returns the depth of the subtree on top of the stack.
+         *
+         * @return the depth of the top subtree
+         * @requires the stack is not empty
+         */
+        int topDepth() {
+            return this.depths[this.length - 1];
+        }
+
+        /**
+         * Pops the subtree on top of the stack and returns it.
+         *
+         * @return the top subtree
+         * @updates this
+         * @requires the stack is not empty
+         */
+        BinaryTree<T> pop() {
+            this.length--;
+            BinaryTree<T> t = this.trees[this.length];
+            this.trees[this.length] = null;
+            return t;
+        }
+
+    }
+
     /**
      * Returns the size of the given {@code BinaryTree<T>}.
      *
@@ -31,15 +239,23 @@ public final class BinaryTreeMethods {
      * @ensures size = |t|
      */
     public static <T> int size(BinaryTree<T> t) {
-        BinaryTree<T> left = new BinaryTree1<T>();
-        BinaryTree<T> right = new BinaryTree1<T>();
+        assert t != null : "Violation of: t is not null";
+        Disassembly<T> visited = new Disassembly<T>();
+        Pending<T> pending = new Pending<T>();
+        pending.push(t, 0);
         int nodes = 0;
-        if (t.height() > 0) {
-            T root = t.disassemble(left, right);
-            nodes++;
-            nodes = nodes + size(left) + size(right);
-            t.assemble(root, left, right);
+        while (!pending.isEmpty()) {
+            BinaryTree<T> subtree = pending.pop();
+            if (subtree.size() > 0) {
+                BinaryTree<T> left = new BinaryTree1<T>();
+                BinaryTree<T> right = new BinaryTree1<T>();
+                visited.disassemble(subtree, left, right);
+                nodes++;
+                pending.push(left, 0);
+                pending.push(right, 0);
+            }
         }
+        visited.reassemble();
         return nodes;
     }
 
@@ -73,19 +289,23 @@ public final class BinaryTreeMethods {
      */
     public static <T> int height(BinaryTree<T> t) {
         assert t != null : "Violation of: t is not null";
+        Disassembly<T> visited = new Disassembly<T>();
+        Pending<T> pending = new Pending<T>();
+        pending.push(t, 1);
         int height = 0;
-        BinaryTree<T> left = new BinaryTree1<T>();
-        BinaryTree<T> right = new BinaryTree1<T>();
-        if (t.size() != 0) {
-            T root = t.disassemble(left, right);
-            height++;
-            if (left.size() < right.size()) {
-                height = height + height(right);
-            } else {
-                height = height + height(left);
+        while (!pending.isEmpty()) {
+            int depth = pending.topDepth();
+            BinaryTree<T> subtree = pending.pop();
+            if (subtree.size() > 0) {
+                BinaryTree<T> left = new BinaryTree1<T>();
+                BinaryTree<T> right = new BinaryTree1<T>();
+                visited.disassemble(subtree, left, right);
+                height = Math.max(height, depth);
+                pending.push(left, depth + 1);
+                pending.push(right, depth + 1);
             }
-            t.assemble(root, left, right);
         }
+        visited.reassemble();
         return height;
     }
 
@@ -132,18 +352,25 @@ public final class BinaryTreeMethods {
     public static <T> boolean isInTree(BinaryTree<T> t, T x) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
+        Disassembly<T> visited = new Disassembly<T>();
+        Pending<T> pending = new Pending<T>();
+        pending.push(t, 0);
         boolean tree = false;
-        BinaryTree<T> left = new BinaryTree1<T>();
-        BinaryTree<T> right = new BinaryTree1<T>();
-        if (t.size() != 0) {
-            T root = t.disassemble(left, right);
-            if (root.equals(x)) {
-                tree = true;
-            } else {
-                tree = isInTree(left, x) || isInTree(right, x);
+        while (!tree && !pending.isEmpty()) {
+            BinaryTree<T> subtree = pending.pop();
+            if (subtree.size() > 0) {
+                BinaryTree<T> left = new BinaryTree1<T>();
+                BinaryTree<T> right = new BinaryTree1<T>();
+                T root = visited.disassemble(subtree, left, right);
+                if (root.equals(x)) {
+                    tree = true;
+                } else {
+                    pending.push(left, 0);
+                    pending.push(right, 0);
+                }
             }
-            t.assemble(root, left, right);
         }
+        visited.reassemble();
         return tree;
     }
 
@@ -3,6 +3,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 import components.binarytree.BinaryTree;
+import components.binarytree.BinaryTree1;
 
 /**
  * JUnit test fixture for {@code BinaryTree<String>}'s methods.
@@ -12,6 +13,32 @@ import components.binarytree.BinaryTree;
  */
 public final class BinaryTreeMethodsTest {
 
+    /**
+     * Number of nodes in the degenerate trees, deep enough that walking them
+     * recursively would overflow the stack.
+     */
+    private static final int DEEP = 1_000_000;
+
+    /**
+     * Returns a tree of {@code n} nodes labelled 0 to n - 1 from the root
+     * down, in which every node has an empty left subtree.
+     *
+     * @param n
+     *            the number of nodes
+     * @return the tree
+     * @requires n >= 0
+     * @ensures |rightChain| = n  and  ht(rightChain) = n
+     */
+    private static BinaryTree<Integer> rightChain(int n) {
+        BinaryTree<Integer> t = new BinaryTree1<Integer>();
+        for (int i = n - 1; i >= 0; i--) {
+            BinaryTree<Integer> parent = new BinaryTree1<Integer>();
+            parent.assemble(i, new BinaryTree1<Integer>(), t);
+            t = parent;
+        }
+        return t;
+    }
+
     @Test
     public void testHeightEmpty() {
         /*
@@ -264,4 +291,80 @@ public final class BinaryTreeMethodsTest {
         assertEquals(tExpected, t);
     }
 
+    @Test
+    public void testHeightLargerSubtreeShorter() {
+        /*
+         * Set up variables: the left subtree has more nodes (7) but the right
+         * one is taller (4)
+         */
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(
+                "a(b(c(d(()())e(()()))f(g(()())h(()())))"
+                        + "i(j(k(l(()())())())()))");
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(
+                "a(b(c(d(()())e(()()))f(g(()())h(()())))"
+                        + "i(j(k(l(()())())())()))");
+        /*
+         * Call method under test
+         */
+        int h = BinaryTreeMethods.height(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(5, h);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public void testHeightDeep() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<Integer> t = rightChain(DEEP);
+        /*
+         * Call method under test
+         */
+        int h = BinaryTreeMethods.height(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(DEEP, h);
+        assertEquals(DEEP, t.size());
+    }
+
+    @Test
+    public void testSizeDeep() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<Integer> t = rightChain(DEEP);
+        /*
+         * Call method under test
+         */
+        int size = BinaryTreeMethods.size(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(DEEP, size);
+        assertEquals(DEEP, t.size());
+        assertEquals(DEEP, BinaryTreeMethods.height(t));
+    }
+
+    @Test
+    public void testIsInTreeDeepLeafTrue() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<Integer> t = rightChain(DEEP);
+        /*
+         * Call method under test
+         */
+        boolean inTree = BinaryTreeMethods.isInTree(t, DEEP - 1);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(true, inTree);
+        assertEquals(DEEP, t.size());
+        assertEquals(DEEP, BinaryTreeMethods.height(t));
+    }
+
 }
@@ -0,0 +1,417 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import components.program.Program.Instruction;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Headless simulation of many bugs all running the same compiled BL program.
+ * The state of the bugs is kept as a structure of arrays (one program counter
+ * per bug), what each bug sees comes from a pluggable {@code World}, and each
+ * tick every bug executes exactly one primitive instruction, found with
+ * {@code BugsWorldVMInterpreter.nextPrimitiveInstructionAddress} and the
+ * program's dispatch table. Programs whose jumps can loop forever without
+ * reaching a primitive instruction are rejected up front.
+ *
+ * <p>
+ * Bugs are split into fixed blocks, each with its own random number generator
+ * split from the seed, and every block is always advanced by the same thread.
+ * Hence the same seed gives the same simulation no matter how many threads are
+ * used.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class BugsWorldSimulation {
+
+    /**
+     * Model of the world in which the bugs live. During a tick,
+     * {@code whatBugSees} and {@code perform} may be called concurrently from
+     * different threads, but never concurrently for the same bug; between two
+     * ticks, {@code tickFinished} is called on one thread while no bug is
+     * running.
+     */
+    interface World {
+
+        /**
+         * Reports what {@code bug} sees in the cell in front of it.
+         *
+         * @param bug
+         *            the number of the bug
+         * @return what {@code bug} sees
+         */
+        BugsWorldVMInterpreter.CellState whatBugSees(int bug);
+
+        /**
+         * Carries out, for {@code bug}, the primitive instruction with byte
+         * code {@code byteCode}.
+         *
+         * @param bug
+         *            the number of the bug
+         * @param byteCode
+         *            the byte code of a primitive instruction
+         */
+        void perform(int bug, int byteCode);
+
+        /**
+         * Called after every bug has executed one instruction in a tick.
+         */
+        void tickFinished();
+
+    }
+
+    /**
+     * Number of bugs in a block sharing one random number generator.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The compiled program.
+     */
+    private final int[] cp;
+
+    /**
+     * Dispatch table of {@code cp}.
+     */
+    private final int[] dispatch;
+
+    /**
+     * Program counter of each bug.
+     */
+    private final int[] pcs;
+
+    /**
+     * Random conditions of each block of bugs.
+     */
+    private final BooleanSupplier[] coins;
+
+    /**
+     * The world the bugs live in.
+     */
+    private final World world;
+
+    /**
+     * Total number of primitive instructions executed.
+     */
+    private long steps;
+
+    /**
+     * Constructor resulting in {@code bugCount} bugs at the start of program
+     * {@code cp} in {@code world}, with random conditions drawn from
+     * generators split from {@code seed}.
+     *
+     * @param cp
+     *            the compiled program
+     * @param bugCount
+     *            the number of bugs
+     * @param world
+     *            the world the bugs live in
+     * @param seed
+     *            the seed of the random conditions
+     * @throws IllegalArgumentException
+     *             if the jumps of {@code cp} can loop forever without reaching
+     *             a primitive instruction
+     * @requires [cp is a valid compiled BL program]  and  bugCount > 0
+     */
+    BugsWorldSimulation(int[] cp, int bugCount, World world, long seed) {
+        assert cp != null : "Violation of: cp is not null";
+        assert bugCount > 0 : "Violation of: bugCount > 0";
+        assert world != null : "Violation of: world is not null";
+        this.cp = cp;
+        this.dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        if (!BugsWorldVMInterpreter.alwaysReachesPrimitive(cp,
+                this.dispatch)) {
+            throw new IllegalArgumentException("The jumps of the program can "
+                    + "loop forever without reaching a primitive instruction");
+        }
+        this.pcs = new int[bugCount];
+        this.world = world;
+        int blocks = (bugCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.coins = new BooleanSupplier[blocks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int b = 0; b < blocks; b++) {
+            this.coins[b] = root.split()::nextBoolean;
+        }
+        this.steps = 0;
+    }
+
+    /**
+     * Advances every bug in block {@code block} by one primitive instruction
+     * and returns the number of instructions executed. A bug whose search for
+     * its next primitive instruction runs out of step budget (which the check
+     * in the constructor makes vanishingly unlikely) executes nothing and
+     * keeps its program counter for the next tick.
+     *
+     * @param block
+     *            the block of bugs
+     * @return the number of primitive instructions executed
+     * @requires 0 <= block < |this.coins|
+     */
+    private int stepBlock(int block) {
+        BooleanSupplier coin = this.coins[block];
+        int halt = Instruction.HALT.byteCode();
+        int end = Math.min(this.pcs.length, (block + 1) * BLOCK_SIZE);
+        int executed = 0;
+        for (int bug = block * BLOCK_SIZE; bug < end; bug++) {
+            int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(
+                    this.cp, this.dispatch, this.world.whatBugSees(bug),
+                    this.pcs[bug], coin,
+                    BugsWorldVMInterpreter.DEFAULT_STEP_BUDGET);
+            if (pc >= 0) {
+                this.world.perform(bug, this.cp[pc]);
+                if (this.cp[pc] != halt) {
+                    pc++;
+                }
+                this.pcs[bug] = pc;
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Runs {@code ticks} ticks of the simulation on {@code threads} threads.
+     * If any worker fails, the others are stopped at the end of their current
+     * tick and the failure is rethrown once all of them have finished.
+     *
+     * @param ticks
+     *            the number of ticks
+     * @param threads
+     *            the number of threads
+     * @updates this
+     * @requires ticks >= 0  and  threads > 0
+     * @ensures <pre>
+     * [every bug has executed up to ticks more primitive instructions, all
+     *  of them unless a worker thread failed or was interrupted]  and
+     * this.steps = #this.steps + [number of instructions executed]
+     * </pre>
+     */
+    public void run(int ticks, int threads) {
+        assert ticks >= 0 : "Violation of: ticks >= 0";
+        assert threads > 0 : "Violation of: threads > 0";
+        int workers = Math.min(threads, this.coins.length);
+        CyclicBarrier barrier = new CyclicBarrier(workers,
+                this.world::tickFinished);
+        Thread[] pool = new Thread[workers];
+        /*
+         * Each worker counts the instructions it executes in a local variable
+         * and stores the total in its own slot only once, when it finishes,
+         * so that workers do not keep writing to the same cache line
+         */
+        long[] executed = new long[workers];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int w = 0; w < workers; w++) {
+            final int first = w;
+            pool[w] = new Thread(() -> {
+                long count = 0;
+                try {
+                    for (int t = 0; t < ticks; t++) {
+                        for (int b = first; b < this.coins.length; b += workers) {
+                            count += this.stepBlock(b);
+                        }
+                        barrier.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    /*
+                     * Wake up the workers waiting at the barrier, and interrupt
+                     * all of them so that those still stepping do not wait
+                     * forever for this one at the end of the tick
+                     */
+                    failure.compareAndSet(null, e);
+                    barrier.reset();
+                    for (Thread other : pool) {
+                        other.interrupt();
+                    }
+                } finally {
+                    executed[first] = count;
+                }
+            });
+        }
+        for (Thread worker : pool) {
+            worker.start();
+        }
+        boolean interrupted = false;
+        for (Thread worker : pool) {
+            boolean joined = false;
+            while (!joined) {
+                try {
+                    worker.join();
+                    joined = true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        for (long count : executed) {
+            this.steps += count;
+        }
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reports the total number of primitive instructions executed.
+     *
+     * @return the number of steps executed
+     */
+    public long steps() {
+        return this.steps;
+    }
+
+    /**
+     * Reports the program counter of {@code bug}.
+     *
+     * @param bug
+     *            the number of the bug
+     * @return the program counter of {@code bug}
+     * @requires 0 <= bug < [number of bugs]
+     */
+    public int pc(int bug) {
+        return this.pcs[bug];
+    }
+
+    /**
+     * Simple world for benchmarking: each bug walks along its own row of
+     * cells whose contents are a fixed pseudo-random function of the bug and
+     * its position, which changes when the bug moves or turns.
+     */
+    private static final class HashedWorld implements World {
+
+        /**
+         * Multiplier used to scramble bug and position into a cell.
+         */
+        private static final long SCRAMBLE = 0x9E3779B97F4A7C15L;
+
+        /**
+         * Number of bits to shift when scrambling.
+         */
+        private static final int SHIFT = 62;
+
+        /**
+         * Position of each bug.
+         */
+        private final long[] positions;
+
+        /**
+         * Constructor.
+         *
+         * @param bugCount
+         *            the number of bugs
+         */
+        HashedWorld(int bugCount) {
+            this.positions = new long[bugCount];
+        }
+
+        @Override
+        public BugsWorldVMInterpreter.CellState whatBugSees(int bug) {
+            long cell = (this.positions[bug] * SCRAMBLE + bug) * SCRAMBLE;
+            return BugsWorldVMInterpreter.CellState.values()[(int) (cell >>> SHIFT)];
+        }
+
+        @Override
+        public void perform(int bug, int byteCode) {
+            if (byteCode != Instruction.SKIP.byteCode()
+                    && byteCode != Instruction.HALT.byteCode()) {
+                this.positions[bug]++;
+            }
+        }
+
+        @Override
+        public void tickFinished() {
+            // nothing to do between ticks
+        }
+
+    }
+
+    /**
+     * Loads a BL compiled program from the given file and returns an array
+     * containing the compiled program.
+     *
+     * @param fileName
+     *            the name of the input file
+     * @return the compiled BL program loaded from the given file
+     * @requires <pre>
+     * [fileName is the name of a file containing a valid compiled BL program]
+     * </pre>
+     * @ensures loadProgram = [compiled BL program loaded from given file]
+     */
+    private static int[] loadProgram(String fileName) {
+        int[] cp;
+        SimpleReader file = new SimpleReader1L(fileName);
+        int length = file.nextInteger();
+        cp = new int[length];
+        for (int i = 0; i < length; i++) {
+            cp[i] = file.nextInteger();
+        }
+        file.close();
+        return cp;
+    }
+
+    /**
+     * Main method: runs a simulation and reports its speed.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Enter compiled BL program file name: ");
+        int[] cp = loadProgram(in.nextLine());
+        out.print("Number of bugs: ");
+        int bugCount = in.nextInteger();
+        out.print("Number of ticks: ");
+        int ticks = in.nextInteger();
+        out.print("Number of threads (Enter => all cores): ");
+        String threadsInput = in.nextLine();
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (threadsInput.length() > 0) {
+            threads = Integer.parseInt(threadsInput);
+        }
+        out.print("Seed: ");
+        long seed = in.nextInteger();
+
+        BugsWorldSimulation simulation = new BugsWorldSimulation(cp, bugCount,
+                new HashedWorld(bugCount), seed);
+        long start = System.nanoTime();
+        simulation.run(ticks, threads);
+        long elapsed = System.nanoTime() - start;
+
+        long checksum = 0;
+        for (int bug = 0; bug < bugCount; bug++) {
+            checksum = checksum * 31 + simulation.pc(bug);
+        }
+        out.println();
+        out.println("Steps:        " + simulation.steps());
+        out.println("Steps/second: " + String.format("%.0f",
+                simulation.steps() * NANOS_PER_SECOND / elapsed));
+        out.println("Checksum:     " + checksum);
+
+        in.close();
+        out.close();
+    }
+
+}
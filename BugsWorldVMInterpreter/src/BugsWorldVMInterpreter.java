@@ -1,3 +1,5 @@
+import java.util.function.BooleanSupplier;
+
 import components.program.Program;
 import components.program.Program.Instruction;
 import components.program.Program1;
@@ -26,6 +28,36 @@ public final class BugsWorldVMInterpreter {
         EMPTY, WALL, FRIEND, ENEMY;
     }
 
+    /**
+     * Number of possible cell states, i.e., entries per address in a dispatch
+     * table.
+     */
+    private static final int NUMBER_OF_CELL_STATES = CellState.values().length;
+
+    /**
+     * Dispatch table entry for an address that holds a jump target rather
+     * than an instruction byte code.
+     */
+    private static final int NOT_INSTRUCTION = Integer.MIN_VALUE;
+
+    /**
+     * Dispatch table entry for an instruction from which jumps loop forever
+     * without reaching a primitive instruction.
+     */
+    private static final int NO_PRIMITIVE = Integer.MIN_VALUE + 1;
+
+    /**
+     * Dispatch table entry, while the table is built, for an instruction not
+     * yet resolved.
+     */
+    private static final int UNRESOLVED = Integer.MIN_VALUE + 2;
+
+    /**
+     * Dispatch table entry, while the table is built, for an instruction on
+     * the chain of jumps being resolved.
+     */
+    private static final int IN_PROGRESS = Integer.MIN_VALUE + 3;
+
     /**
      * Private constructor so this utility class cannot be instantiated.
      */
@@ -143,48 +175,86 @@ public final class BugsWorldVMInterpreter {
     }
 
     /**
-     * Checks whether the given location {@code loc} is the location of an
-     * instruction byte code in the given program {@code cp}.
+     * Returns the map of which locations of the given program {@code cp} hold
+     * instruction byte codes (rather than jump targets), built with a single
+     * scan of the program.
      *
      * @param cp
-     *            the compiler program
-     * @param loc
-     *            the location to check
-     * @return true iff {@code loc} is the address of an instruction byte code
+     *            the compiled program
+     * @return the instruction-start map of {@code cp}
      * @requires [cp is a valid compiled BL program]
      * @ensures <pre>
-     * isValidInstructionLocation =
-     *  [true iff loc is the address of an instruction byte code in cp]
+     * |instructionStarts| = |cp|  and
+     * for all loc: integer where (0 <= loc < |cp|)
+     *  (instructionStarts[loc] =
+     *   [loc is the address of an instruction byte code in cp])
      * </pre>
      */
-    private static boolean isValidInstructionLocation(int[] cp, int loc) {
-        boolean found = false;
+    private static boolean[] instructionStarts(int[] cp) {
+        boolean[] isStart = new boolean[cp.length];
         int pos = 0;
-        while ((pos < cp.length) && !found) {
-            if (pos == loc) {
-                found = true;
-            } else {
-                if (!isPrimitiveInstructionByteCode(cp[pos])) {
-                    /*
-                     * It must be a jump instruction, increment pos one extra
-                     * time
-                     */
-                    pos++;
-                }
+        while (pos < cp.length) {
+            isStart[pos] = true;
+            if (!isPrimitiveInstructionByteCode(cp[pos])) {
+                /*
+                 * It must be a jump instruction, increment pos one extra time
+                 */
                 pos++;
             }
+            pos++;
         }
-        return found;
+        return isStart;
+    }
+
+    /**
+     * Checks whether the given location {@code loc} is the location of an
+     * instruction byte code in the program whose dispatch table is
+     * {@code dispatch}, with a single lookup in the table.
+     *
+     * @param dispatch
+     *            the dispatch table of a compiled program
+     * @param loc
+     *            the location to check
+     * @return true iff {@code loc} is the address of an instruction byte code
+     * @requires [dispatch = dispatchTable(cp) for some compiled program cp]
+     * @ensures <pre>
+     * isInstructionLocation =
+     *  [true iff loc is the address of an instruction byte code in cp]
+     * </pre>
+     */
+    private static boolean isInstructionLocation(int[] dispatch, int loc) {
+        return 0 <= loc && loc < dispatch.length / NUMBER_OF_CELL_STATES
+                && dispatch[loc * NUMBER_OF_CELL_STATES] != NOT_INSTRUCTION;
     }
 
     /*
      * Public members ---------------------------------------------------------
      */
 
+    /**
+     * Result of {@code nextPrimitiveInstructionAddress} when the jumps loop
+     * forever without reaching a primitive instruction.
+     */
+    public static final int NO_PRIMITIVE_REACHABLE = -1;
+
+    /**
+     * Result of {@code nextPrimitiveInstructionAddress} when the step budget
+     * runs out (following JUMP_IF_NOT_RANDOM instructions) before a primitive
+     * instruction is reached.
+     */
+    public static final int STEP_BUDGET_EXHAUSTED = -2;
+
+    /**
+     * Default maximum number of JUMP_IF_NOT_RANDOM instructions followed when
+     * looking for the next primitive instruction.
+     */
+    public static final int DEFAULT_STEP_BUDGET = 1 << 20;
+
     /**
      * Returns the location of the next primitive instruction to execute in
      * compiled program {@code cp} given what the bug sees {@code wbs} and
-     * starting from location {@code pc}.
+     * starting from location {@code pc}, following at most
+     * {@code DEFAULT_STEP_BUDGET} JUMP_IF_NOT_RANDOM instructions.
      *
      * @param cp
      *            the compiled program
@@ -192,7 +262,8 @@ public final class BugsWorldVMInterpreter {
      *            the {@code CellState} indicating what the bug sees
      * @param pc
      *            the program counter
-     * @return the location of the next primitive instruction to execute
+     * @return the location of the next primitive instruction to execute, or
+     *         {@code NO_PRIMITIVE_REACHABLE} or {@code STEP_BUDGET_EXHAUSTED}
      * @requires <pre>
      * [cp is a valid compiled BL program]  and
      * 0 <= pc < cp.length  and
@@ -202,27 +273,373 @@ public final class BugsWorldVMInterpreter {
      * @ensures <pre>
      * [return the address of the next primitive instruction that
      *  should be executed in program cp given what the bug sees wbs and
-     *  starting execution at address pc in program cp]
+     *  starting execution at address pc in program cp, or
+     *  NO_PRIMITIVE_REACHABLE if the jumps from pc loop forever, or
+     *  STEP_BUDGET_EXHAUSTED if no primitive instruction was reached
+     *  within DEFAULT_STEP_BUDGET JUMP_IF_NOT_RANDOM instructions]
      * </pre>
      */
     public static int nextPrimitiveInstructionAddress(int[] cp, CellState wbs,
             int pc) {
+        return nextPrimitiveInstructionAddress(cp, wbs, pc,
+                DEFAULT_STEP_BUDGET);
+    }
+
+    /**
+     * Returns the location of the next primitive instruction to execute in
+     * compiled program {@code cp} given what the bug sees {@code wbs} and
+     * starting from location {@code pc}, following at most {@code budget}
+     * JUMP_IF_NOT_RANDOM instructions. The search follows the jumps one at a
+     * time, iteratively, so long chains of jumps cannot overflow the stack. It
+     * stops with {@code NO_PRIMITIVE_REACHABLE} after more jumps without a
+     * JUMP_IF_NOT_RANDOM than {@code cp} has jump instructions, since one of
+     * them must then have been followed twice with the same outcome. Callers
+     * that search the same program many times should build its
+     * {@code dispatchTable} once and use the overloads that take it. Even
+     * with assertion checking enabled, this method does not check that
+     * {@code pc} is the location of an instruction byte code, since that
+     * would take a scan of {@code cp} on every call; the overloads that take
+     * the dispatch table check it with a single lookup.
+     *
+     * @param cp
+     *            the compiled program
+     * @param wbs
+     *            the {@code CellState} indicating what the bug sees
+     * @param pc
+     *            the program counter
+     * @param budget
+     *            the maximum number of JUMP_IF_NOT_RANDOM instructions to
+     *            follow
+     * @return the location of the next primitive instruction to execute, or
+     *         {@code NO_PRIMITIVE_REACHABLE} or {@code STEP_BUDGET_EXHAUSTED}
+     * @requires <pre>
+     * [cp is a valid compiled BL program]  and
+     * 0 <= pc < cp.length  and
+     * [pc is the location of an instruction byte code in cp, that is, pc
+     *  cannot be the location of an address]  and
+     * budget >= 0
+     * </pre>
+     * @ensures <pre>
+     * [return the address of the next primitive instruction that
+     *  should be executed in program cp given what the bug sees wbs and
+     *  starting execution at address pc in program cp, or
+     *  NO_PRIMITIVE_REACHABLE if the jumps from pc loop forever, or
+     *  STEP_BUDGET_EXHAUSTED if no primitive instruction was reached
+     *  within budget JUMP_IF_NOT_RANDOM instructions]
+     * </pre>
+     */
+    public static int nextPrimitiveInstructionAddress(int[] cp, CellState wbs,
+            int pc, int budget) {
         assert cp != null : "Violation of: cp is not null";
         assert wbs != null : "Violation of: wbs is not null";
         assert cp.length > 0 : "Violation of: cp is a valid compiled BL program";
         assert 0 <= pc : "Violation of: 0 <= pc";
         assert pc < cp.length : "Violation of: pc < cp.length";
-        assert isValidInstructionLocation(cp, pc) : ""
+        assert budget >= 0 : "Violation of: budget >= 0";
+        int next = pc;
+        int steps = 0;
+        int jumps = 0;
+        boolean done = false;
+        while (!done) {
+            if (isPrimitiveInstructionByteCode(cp[next])) {
+                done = true;
+            } else if (2 * jumps > cp.length) {
+                /*
+                 * More jumps in a row than cp has jump instructions: some jump
+                 * was reached twice with nothing random in between, so the
+                 * jumps loop forever
+                 */
+                next = NO_PRIMITIVE_REACHABLE;
+                done = true;
+            } else if (cp[next] == Instruction.JUMP_IF_NOT_RANDOM.byteCode()
+                    && steps == budget) {
+                next = STEP_BUDGET_EXHAUSTED;
+                done = true;
+            } else {
+                if (cp[next] == Instruction.JUMP_IF_NOT_RANDOM.byteCode()) {
+                    steps++;
+                    jumps = 0;
+                } else {
+                    jumps++;
+                }
+                if (cp[next] == Instruction.JUMP.byteCode()
+                        || !conditionalJumpCondition(wbs, cp[next])) {
+                    next = cp[next + 1];
+                } else {
+                    next = next + 2;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the dispatch table of compiled program {@code cp}: for every
+     * instruction location {@code pc} and every {@code CellState} {@code wbs},
+     * the entry at {@code pc * NUMBER_OF_CELL_STATES + wbs.ordinal()} is the
+     * address of the next primitive instruction to execute, found by following
+     * every jump whose outcome depends only on {@code wbs}. A chain that
+     * reaches a JUMP_IF_NOT_RANDOM instruction at address {@code r} stops there
+     * and stores {@code -(r + 1)} instead, since its outcome can only be
+     * decided when the program runs.
+     *
+     * @param cp
+     *            the compiled program
+     * @return the dispatch table of {@code cp}
+     * @requires [cp is a valid compiled BL program]
+     * @ensures <pre>
+     * |dispatchTable| = |cp| * NUMBER_OF_CELL_STATES  and
+     * for all pc: integer, wbs: CellState
+     *     where (pc is the location of an instruction byte code in cp)
+     *   (dispatchTable[pc * NUMBER_OF_CELL_STATES + wbs.ordinal()] =
+     *    [the address of the next primitive instruction from pc given wbs,
+     *     or -(r + 1) if the jumps from pc given wbs first reach the
+     *     JUMP_IF_NOT_RANDOM at address r, or NO_PRIMITIVE if they loop
+     *     forever])
+     * </pre>
+     */
+    public static int[] dispatchTable(int[] cp) {
+        assert cp != null : "Violation of: cp is not null";
+        assert cp.length > 0 : "Violation of: cp is a valid compiled BL program";
+
+        int[] table = new int[cp.length * NUMBER_OF_CELL_STATES];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = NOT_INSTRUCTION;
+        }
+        boolean[] isStart = instructionStarts(cp);
+        for (int pos = 0; pos < cp.length; pos++) {
+            if (isStart[pos]) {
+                for (int state = 0; state < NUMBER_OF_CELL_STATES; state++) {
+                    table[pos * NUMBER_OF_CELL_STATES + state] = UNRESOLVED;
+                }
+            }
+        }
+        /*
+         * Resolve each chain of jumps once, then record the result for every
+         * instruction on the chain, so each entry is computed only once.
+         */
+        int[] chain = new int[cp.length];
+        for (CellState wbs : CellState.values()) {
+            int state = wbs.ordinal();
+            for (int start = 0; start < cp.length; start++) {
+                int chainLength = 0;
+                int pc = start;
+                int result = table[pc * NUMBER_OF_CELL_STATES + state];
+                while (result == UNRESOLVED) {
+                    table[pc * NUMBER_OF_CELL_STATES + state] = IN_PROGRESS;
+                    chain[chainLength] = pc;
+                    chainLength++;
+                    if (isPrimitiveInstructionByteCode(cp[pc])) {
+                        result = pc;
+                    } else if (cp[pc] == Instruction.JUMP_IF_NOT_RANDOM
+                            .byteCode()) {
+                        result = -(pc + 1);
+                    } else {
+                        if (cp[pc] == Instruction.JUMP.byteCode()
+                                || !conditionalJumpCondition(wbs, cp[pc])) {
+                            pc = cp[pc + 1];
+                        } else {
+                            pc = pc + 2;
+                        }
+                        result = table[pc * NUMBER_OF_CELL_STATES + state];
+                        if (result == IN_PROGRESS) {
+                            result = NO_PRIMITIVE;
+                        }
+                    }
+                }
+                for (int i = 0; i < chainLength; i++) {
+                    table[chain[i] * NUMBER_OF_CELL_STATES + state] = result;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Reports whether the jumps of compiled program {@code cp} always leave a
+     * way to reach a primitive instruction: from every instruction, given
+     * every {@code CellState}, and whatever the outcomes of the
+     * JUMP_IF_NOT_RANDOM instructions followed so far. When it holds, a search
+     * for the next primitive instruction with fair random conditions ends with
+     * probability 1. Each JUMP_IF_NOT_RANDOM is marked as leading to a
+     * primitive once one of its outcomes does, directly or through another
+     * marked JUMP_IF_NOT_RANDOM, until no more can be marked.
+     *
+     * @param cp
+     *            the compiled program
+     * @param dispatch
+     *            the dispatch table of {@code cp}
+     * @return true iff a primitive instruction can always be reached
+     * @requires <pre>
+     * [cp is a valid compiled BL program]  and
+     * dispatch = dispatchTable(cp)
+     * </pre>
+     * @ensures <pre>
+     * alwaysReachesPrimitive =
+     *  [for every instruction pc of cp, every wbs: CellState, and every
+     *   JUMP_IF_NOT_RANDOM at address r that the jumps from pc given wbs
+     *   can reach, some outcomes of the JUMP_IF_NOT_RANDOM instructions
+     *   from r on lead to a primitive instruction]
+     * </pre>
+     */
+    public static boolean alwaysReachesPrimitive(int[] cp, int[] dispatch) {
+        assert cp != null : "Violation of: cp is not null";
+        assert dispatch != null : "Violation of: dispatch is not null";
+        assert dispatch.length == cp.length * NUMBER_OF_CELL_STATES : ""
+                + "Violation of: dispatch = dispatchTable(cp)";
+        boolean reaches = true;
+        for (int i = 0; i < dispatch.length; i++) {
+            if (dispatch[i] == NO_PRIMITIVE) {
+                reaches = false;
+            }
+        }
+        int random = Instruction.JUMP_IF_NOT_RANDOM.byteCode();
+        boolean[] leadsToPrimitive = new boolean[cp.length];
+        for (int state = 0; reaches
+                && state < NUMBER_OF_CELL_STATES; state++) {
+            for (int r = 0; r < cp.length; r++) {
+                leadsToPrimitive[r] = false;
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int r = 0; r < cp.length; r++) {
+                    if (!leadsToPrimitive[r]
+                            && isInstructionLocation(dispatch, r)
+                            && cp[r] == random) {
+                        int taken = dispatch[cp[r + 1] * NUMBER_OF_CELL_STATES
+                                + state];
+                        int notTaken = dispatch[(r + 2) * NUMBER_OF_CELL_STATES
+                                + state];
+                        if (taken >= 0 || notTaken >= 0
+                                || leadsToPrimitive[-(taken + 1)]
+                                || leadsToPrimitive[-(notTaken + 1)]) {
+                            leadsToPrimitive[r] = true;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            for (int pc = 0; pc < cp.length; pc++) {
+                int next = dispatch[pc * NUMBER_OF_CELL_STATES + state];
+                if (next != NOT_INSTRUCTION && next < 0
+                        && !leadsToPrimitive[-(next + 1)]) {
+                    reaches = false;
+                }
+            }
+        }
+        return reaches;
+    }
+
+    /**
+     * Returns the location of the next primitive instruction to execute in
+     * compiled program {@code cp} given what the bug sees {@code wbs} and
+     * starting from location {@code pc}, using the dispatch table
+     * {@code dispatch} of {@code cp} so that, except for JUMP_IF_NOT_RANDOM
+     * instructions, no jump needs to be followed, and following at most
+     * {@code DEFAULT_STEP_BUDGET} JUMP_IF_NOT_RANDOM instructions.
+     *
+     * @param cp
+     *            the compiled program
+     * @param dispatch
+     *            the dispatch table of {@code cp}
+     * @param wbs
+     *            the {@code CellState} indicating what the bug sees
+     * @param pc
+     *            the program counter
+     * @return the location of the next primitive instruction to execute, or
+     *         {@code NO_PRIMITIVE_REACHABLE} or {@code STEP_BUDGET_EXHAUSTED}
+     * @requires <pre>
+     * [cp is a valid compiled BL program]  and
+     * dispatch = dispatchTable(cp)  and
+     * 0 <= pc < cp.length  and
+     * [pc is the location of an instruction byte code in cp]
+     * </pre>
+     * @ensures <pre>
+     * [return the address of the next primitive instruction that
+     *  should be executed in program cp given what the bug sees wbs and
+     *  starting execution at address pc in program cp, or
+     *  NO_PRIMITIVE_REACHABLE if the jumps from pc loop forever, or
+     *  STEP_BUDGET_EXHAUSTED if no primitive instruction was reached
+     *  within DEFAULT_STEP_BUDGET JUMP_IF_NOT_RANDOM instructions]
+     * </pre>
+     */
+    public static int nextPrimitiveInstructionAddress(int[] cp, int[] dispatch,
+            CellState wbs, int pc) {
+        final double half = 0.5;
+        return nextPrimitiveInstructionAddress(cp, dispatch, wbs, pc,
+                () -> Math.random() < half, DEFAULT_STEP_BUDGET);
+    }
+
+    /**
+     * Returns the location of the next primitive instruction to execute in
+     * compiled program {@code cp} given what the bug sees {@code wbs} and
+     * starting from location {@code pc}, using the dispatch table
+     * {@code dispatch} of {@code cp}, asking {@code coin} for the value of the
+     * condition of each JUMP_IF_NOT_RANDOM instruction reached, and following
+     * at most {@code budget} of them.
+     *
+     * @param cp
+     *            the compiled program
+     * @param dispatch
+     *            the dispatch table of {@code cp}
+     * @param wbs
+     *            the {@code CellState} indicating what the bug sees
+     * @param pc
+     *            the program counter
+     * @param coin
+     *            the source of random conditions
+     * @param budget
+     *            the maximum number of JUMP_IF_NOT_RANDOM instructions to
+     *            follow
+     * @return the location of the next primitive instruction to execute, or
+     *         {@code NO_PRIMITIVE_REACHABLE} or {@code STEP_BUDGET_EXHAUSTED}
+     * @requires <pre>
+     * [cp is a valid compiled BL program]  and
+     * dispatch = dispatchTable(cp)  and
+     * 0 <= pc < cp.length  and
+     * [pc is the location of an instruction byte code in cp]  and
+     * budget >= 0
+     * </pre>
+     * @ensures <pre>
+     * [return the address of the next primitive instruction that
+     *  should be executed in program cp given what the bug sees wbs,
+     *  the random conditions given by coin, and starting execution at
+     *  address pc in program cp, or NO_PRIMITIVE_REACHABLE if the jumps
+     *  from pc loop forever, or STEP_BUDGET_EXHAUSTED if no primitive
+     *  instruction was reached within budget JUMP_IF_NOT_RANDOM
+     *  instructions]
+     * </pre>
+     */
+    public static int nextPrimitiveInstructionAddress(int[] cp, int[] dispatch,
+            CellState wbs, int pc, BooleanSupplier coin, int budget) {
+        assert cp != null : "Violation of: cp is not null";
+        assert dispatch != null : "Violation of: dispatch is not null";
+        assert wbs != null : "Violation of: wbs is not null";
+        assert coin != null : "Violation of: coin is not null";
+        assert dispatch.length == cp.length * NUMBER_OF_CELL_STATES : ""
+                + "Violation of: dispatch = dispatchTable(cp)";
+        assert 0 <= pc : "Violation of: 0 <= pc";
+        assert pc < cp.length : "Violation of: pc < cp.length";
+        assert budget >= 0 : "Violation of: budget >= 0";
+        assert isInstructionLocation(dispatch, pc) : ""
                 + "Violation of: pc is the location of an instruction byte code in cp";
-        int next = 0;
-        if (isPrimitiveInstructionByteCode(cp[pc])) {
-            next = pc;
-        } else if (cp[pc] == Instruction.JUMP.byteCode()) {
-            next = nextPrimitiveInstructionAddress(cp, wbs, cp[pc + 1]);
-        } else if (conditionalJumpCondition(wbs, cp[pc])) {
-            next = nextPrimitiveInstructionAddress(cp, wbs, pc + 2);
-        } else {
-            next = nextPrimitiveInstructionAddress(cp, wbs, cp[pc + 1]);
+        int state = wbs.ordinal();
+        int next = dispatch[pc * NUMBER_OF_CELL_STATES + state];
+        int steps = 0;
+        while (next < 0 && next != NO_PRIMITIVE && steps < budget) {
+            int randomJump = -(next + 1);
+            int target = cp[randomJump + 1];
+            if (coin.getAsBoolean()) {
+                target = randomJump + 2;
+            }
+            next = dispatch[target * NUMBER_OF_CELL_STATES + state];
+            steps++;
+        }
+        if (next == NO_PRIMITIVE) {
+            next = NO_PRIMITIVE_REACHABLE;
+        } else if (next < 0) {
+            next = STEP_BUDGET_EXHAUSTED;
         }
         return next;
     }
@@ -241,6 +658,7 @@ public final class BugsWorldVMInterpreter {
          * Load compiled BL program
          */
         int[] cp = loadProgram(in, out);
+        int[] dispatch = dispatchTable(cp);
 
         int pc = 0;
         out.println();
@@ -266,7 +684,7 @@ public final class BugsWorldVMInterpreter {
                 int pcCandidate = Integer.parseInt(input);
                 if (pcCandidate < 0 || pcCandidate >= cp.length) {
                     break;
-                } else if (!isValidInstructionLocation(cp, pcCandidate)) {
+                } else if (!isInstructionLocation(dispatch, pcCandidate)) {
                     out.println("Program counter must be the location of an "
                             + "instruction byte code in the program");
                     continue;
@@ -307,20 +725,30 @@ public final class BugsWorldVMInterpreter {
             /*
              * Interpret program to find next primitive instruction
              */
-            pc = nextPrimitiveInstructionAddress(cp, cs, pc);
+            int next = nextPrimitiveInstructionAddress(cp, dispatch, cs, pc);
             out.println();
-            out.println("  Next primitive instruction: "
-                    + Program.Instruction.values()[cp[pc]].toString()
-                    + " at address " + pc);
-            /*
-             * Output disassembled program with marked address
-             */
-            out.println();
-            Program1.disassembleProgram(out, cp, pc);
-            /*
-             * Increment program counter pc to make progress
-             */
-            pc++;
+            if (next == NO_PRIMITIVE_REACHABLE) {
+                out.println("  No primitive instruction is reachable: the "
+                        + "jumps from address " + pc + " loop forever");
+            } else if (next == STEP_BUDGET_EXHAUSTED) {
+                out.println("  No primitive instruction reached within "
+                        + DEFAULT_STEP_BUDGET
+                        + " random jumps from address " + pc);
+            } else {
+                pc = next;
+                out.println("  Next primitive instruction: "
+                        + Program.Instruction.values()[cp[pc]].toString()
+                        + " at address " + pc);
+                /*
+                 * Output disassembled program with marked address
+                 */
+                out.println();
+                Program1.disassembleProgram(out, cp, pc);
+                /*
+                 * Increment program counter pc to make progress
+                 */
+                pc++;
+            }
         }
         out.println("Goodbye!");
 
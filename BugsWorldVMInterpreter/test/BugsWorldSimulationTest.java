@@ -0,0 +1,261 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.program.Program.Instruction;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+
+/**
+ * JUnit test fixture for {@code BugsWorldSimulation}.
+ */
+public final class BugsWorldSimulationTest {
+
+    /**
+     * The name of a file containing a valid compiled BL program.
+     */
+    private static final String FILE_NAME = "data/TestProgram.bo";
+
+    /**
+     * Loads a BL compiled program from the given file and returns an array
+     * containing the compiled program.
+     *
+     * @param fileName
+     *            the name of the input file
+     * @return the compiled BL program loaded from the given file
+     * @requires <pre>
+     * [fileName is the name of a file containing a valid compiled BL program]
+     * </pre>
+     * @ensures loadProgram = [compiled BL program loaded from given file]
+     */
+    private static int[] loadProgram(String fileName) {
+        int[] cp;
+        SimpleReader file = new SimpleReader1L(fileName);
+        int length = file.nextInteger();
+        cp = new int[length];
+        for (int i = 0; i < length; i++) {
+            cp[i] = file.nextInteger();
+        }
+        file.close();
+        return cp;
+    }
+
+    /**
+     * World in which what each bug sees is a fixed function of the bug and
+     * of the number of instructions it has performed, so that it does not
+     * depend on how bugs are spread over threads.
+     */
+    private static final class CountingWorld
+            implements BugsWorldSimulation.World {
+
+        /**
+         * Number of instructions performed by each bug.
+         */
+        private final int[] performed;
+
+        /**
+         * Constructor.
+         *
+         * @param bugCount
+         *            the number of bugs
+         */
+        CountingWorld(int bugCount) {
+            this.performed = new int[bugCount];
+        }
+
+        @Override
+        public BugsWorldVMInterpreter.CellState whatBugSees(int bug) {
+            BugsWorldVMInterpreter.CellState[] states = BugsWorldVMInterpreter.CellState
+                    .values();
+            return states[(bug + this.performed[bug] * 7) % states.length];
+        }
+
+        @Override
+        public void perform(int bug, int byteCode) {
+            this.performed[bug]++;
+        }
+
+        @Override
+        public void tickFinished() {
+            // nothing to do between ticks
+        }
+
+    }
+
+    /**
+     * World that fails when a given bug performs its first instruction on a
+     * given tick.
+     */
+    private static final class FailingWorld
+            implements BugsWorldSimulation.World {
+
+        /**
+         * The bug whose instruction fails.
+         */
+        private final int failingBug;
+
+        /**
+         * The tick on which it fails.
+         */
+        private final int failingTick;
+
+        /**
+         * Number of ticks finished so far.
+         */
+        private int tick;
+
+        /**
+         * Constructor.
+         *
+         * @param failingBug
+         *            the bug whose instruction fails
+         * @param failingTick
+         *            the tick on which it fails
+         */
+        FailingWorld(int failingBug, int failingTick) {
+            this.failingBug = failingBug;
+            this.failingTick = failingTick;
+            this.tick = 0;
+        }
+
+        @Override
+        public BugsWorldVMInterpreter.CellState whatBugSees(int bug) {
+            return BugsWorldVMInterpreter.CellState.EMPTY;
+        }
+
+        @Override
+        public void perform(int bug, int byteCode) {
+            if (bug == this.failingBug && this.tick == this.failingTick) {
+                throw new IllegalStateException("bug " + bug + " failed");
+            }
+        }
+
+        @Override
+        public void tickFinished() {
+            this.tick++;
+        }
+
+    }
+
+    /**
+     * Runs {@code ticks} ticks of a simulation of {@code bugCount} bugs with
+     * the given seed on {@code threads} threads, and returns it.
+     *
+     * @param bugCount
+     *            the number of bugs
+     * @param ticks
+     *            the number of ticks
+     * @param threads
+     *            the number of threads
+     * @param seed
+     *            the seed of the random conditions
+     * @return the simulation after running
+     */
+    private static BugsWorldSimulation simulate(int bugCount, int ticks,
+            int threads, long seed) {
+        BugsWorldSimulation simulation = new BugsWorldSimulation(
+                loadProgram(FILE_NAME), bugCount, new CountingWorld(bugCount),
+                seed);
+        simulation.run(ticks, threads);
+        return simulation;
+    }
+
+    @Test
+    public void testSameSeedSameResultOnAnyNumberOfThreads() {
+        /*
+         * More bugs than fit in one block, so that the blocks are split over
+         * the threads
+         */
+        final int bugCount = 5000;
+        final int ticks = 40;
+        final int threads = 4;
+        final long seed = 2231;
+        BugsWorldSimulation single = simulate(bugCount, ticks, 1, seed);
+        BugsWorldSimulation multi = simulate(bugCount, ticks, threads, seed);
+        assertEquals((long) bugCount * ticks, single.steps());
+        assertEquals(single.steps(), multi.steps());
+        for (int bug = 0; bug < bugCount; bug++) {
+            assertEquals(single.pc(bug), multi.pc(bug));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsWhileTrueLoop() {
+        /*
+         * WHILE TRUE DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_TRUE.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        new BugsWorldSimulation(cp, 1, new CountingWorld(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRandomOnlyLoop() {
+        /*
+         * Both outcomes of the random jump lead back to it
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 0,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        new BugsWorldSimulation(cp, 1, new CountingWorld(1), 0);
+    }
+
+    @Test
+    public void testAcceptsRandomLoopWithExit() {
+        /*
+         * WHILE RANDOM DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        BugsWorldSimulation simulation = new BugsWorldSimulation(cp, 1,
+                new CountingWorld(1), 0);
+        simulation.run(1, 1);
+        assertEquals(4, simulation.pc(0));
+        assertEquals(1, simulation.steps());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRunRethrowsWorkerFailureOnOneThread() {
+        final int bugCount = 10;
+        BugsWorldSimulation simulation = new BugsWorldSimulation(
+                loadProgram(FILE_NAME), bugCount, new FailingWorld(3, 2), 0);
+        simulation.run(5, 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRunRethrowsWorkerFailureOnManyThreads() {
+        /*
+         * The failing bug is in the last block, so the other workers are
+         * already waiting at the barrier, or about to, when it fails
+         */
+        final int bugCount = 5000;
+        final int threads = 4;
+        BugsWorldSimulation simulation = new BugsWorldSimulation(
+                loadProgram(FILE_NAME), bugCount,
+                new FailingWorld(bugCount - 1, 3), 0);
+        simulation.run(10, threads);
+    }
+
+    @Test
+    public void testRunCountsStepsBeforeFailure() {
+        final int bugCount = 5000;
+        final int threads = 4;
+        final int ticks = 10;
+        final int failingTick = 3;
+        BugsWorldSimulation simulation = new BugsWorldSimulation(
+                loadProgram(FILE_NAME), bugCount, new FailingWorld(0,
+                        failingTick), 0);
+        boolean failed = false;
+        try {
+            simulation.run(ticks, threads);
+        } catch (IllegalStateException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertTrue(simulation.steps() >= (long) bugCount * failingTick);
+        assertTrue(simulation.steps() < (long) bugCount * ticks);
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 
 import org.junit.Test;
 
+import components.program.Program.Instruction;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 
@@ -23,6 +24,11 @@ public final class BugsWorldVMInterpreterTest {
      */
     private static final String FILE_NAME = "data/TestProgram.bo";
 
+    /**
+     * Milliseconds allowed for stepping through a long program.
+     */
+    private static final long STEPPING_TIMEOUT = 10_000;
+
     /**
      * Loads a BL compiled program from the given file and returns an array
      * containing the compiled program.
@@ -347,4 +353,289 @@ public final class BugsWorldVMInterpreterTest {
         assertArrayEquals(cpExpected, cp);
     }
 
+    @Test
+    public void testDispatch0Empty() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.EMPTY, 0);
+        assertEquals(4, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch0Wall() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.WALL, 0);
+        assertTrue(pc == 16 || pc == 19);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch0Friend() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.FRIEND, 0);
+        assertEquals(22, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch0Enemy() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.ENEMY, 0);
+        assertEquals(9, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch14Friend() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.FRIEND, 14);
+        assertTrue(pc == 16 || pc == 19);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch20Enemy() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.ENEMY, 20);
+        assertEquals(9, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testDispatch25Wall() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.WALL, 25);
+        assertEquals(25, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    /**
+     * Reference for {@code nextPrimitiveInstructionAddress}: the original
+     * recursive walk of the jumps, one jump per call.
+     *
+     * @param cp
+     *            the compiled program
+     * @param wbs
+     *            the {@code CellState} indicating what the bug sees
+     * @param pc
+     *            the program counter
+     * @return the location of the next primitive instruction to execute
+     * @requires <pre>
+     * [cp is a valid compiled BL program]  and
+     * [pc is the location of an instruction byte code in cp]  and
+     * [the jumps from pc given wbs reach a primitive instruction without
+     *  a JUMP_IF_NOT_RANDOM]
+     * </pre>
+     */
+    private static int referenceNext(int[] cp,
+            BugsWorldVMInterpreter.CellState wbs, int pc) {
+        int next = pc;
+        if (cp[pc] == Instruction.JUMP.byteCode()) {
+            next = referenceNext(cp, wbs, cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_EMPTY.byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs == BugsWorldVMInterpreter.CellState.EMPTY ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_NOT_EMPTY
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs != BugsWorldVMInterpreter.CellState.EMPTY ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_WALL.byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs == BugsWorldVMInterpreter.CellState.WALL ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_NOT_WALL
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs != BugsWorldVMInterpreter.CellState.WALL ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_FRIEND
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs == BugsWorldVMInterpreter.CellState.FRIEND ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_NOT_FRIEND
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs != BugsWorldVMInterpreter.CellState.FRIEND ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_ENEMY
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs == BugsWorldVMInterpreter.CellState.ENEMY ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_NEXT_IS_NOT_ENEMY
+                .byteCode()) {
+            next = referenceNext(cp, wbs,
+                    wbs != BugsWorldVMInterpreter.CellState.ENEMY ? pc + 2
+                            : cp[pc + 1]);
+        } else if (cp[pc] == Instruction.JUMP_IF_NOT_TRUE.byteCode()) {
+            next = referenceNext(cp, wbs, pc + 2);
+        }
+        return next;
+    }
+
+    @Test
+    public void testMatchesReferenceInterpreter() {
+        int[] cp = loadProgram(FILE_NAME);
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int[] deterministicPcs = { 0, 2, 4, 5, 7, 9, 10, 16, 17, 19, 20, 22,
+                23, 25 };
+        for (int pc : deterministicPcs) {
+            for (BugsWorldVMInterpreter.CellState wbs : new BugsWorldVMInterpreter.CellState[] {
+                    BugsWorldVMInterpreter.CellState.EMPTY,
+                    BugsWorldVMInterpreter.CellState.FRIEND,
+                    BugsWorldVMInterpreter.CellState.ENEMY }) {
+                int expected = referenceNext(cp, wbs, pc);
+                assertEquals(expected,
+                        BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(
+                                cp, wbs, pc));
+                assertEquals(expected,
+                        BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(
+                                cp, dispatch, wbs, pc));
+            }
+        }
+    }
+
+    @Test
+    public void testWhileTrueLoop() {
+        /*
+         * WHILE TRUE DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_TRUE.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int[] cpExpected = Arrays.copyOf(cp, cp.length);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                BugsWorldVMInterpreter.CellState.EMPTY, 0);
+        assertEquals(BugsWorldVMInterpreter.NO_PRIMITIVE_REACHABLE, pc);
+        assertArrayEquals(cpExpected, cp);
+    }
+
+    @Test
+    public void testLongJumpChain() {
+        final int jumps = 100000;
+        int[] cp = new int[2 * jumps + 1];
+        for (int i = 0; i < jumps; i++) {
+            cp[2 * i] = Instruction.JUMP.byteCode();
+            cp[2 * i + 1] = 2 * i + 2;
+        }
+        cp[2 * jumps] = Instruction.MOVE.byteCode();
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                BugsWorldVMInterpreter.CellState.WALL, 0);
+        assertEquals(2 * jumps, pc);
+    }
+
+    @Test(timeout = STEPPING_TIMEOUT)
+    public void testSteppingLongProgramWithoutDispatchTable() {
+        /*
+         * One search per instruction of a long program, each of which must
+         * not scan the whole program, even with assertion checking enabled
+         */
+        final int length = 200000;
+        int[] cp = new int[length];
+        Arrays.fill(cp, Instruction.MOVE.byteCode());
+        for (int pc = 0; pc < length; pc++) {
+            assertEquals(pc,
+                    BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                            BugsWorldVMInterpreter.CellState.EMPTY, pc));
+        }
+    }
+
+    @Test
+    public void testRandomLoopBudget() {
+        /*
+         * WHILE RANDOM DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                BugsWorldVMInterpreter.CellState.FRIEND, 0, 0);
+        assertEquals(BugsWorldVMInterpreter.STEP_BUDGET_EXHAUSTED, pc);
+        pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                BugsWorldVMInterpreter.CellState.FRIEND, 0);
+        assertEquals(4, pc);
+    }
+
+    @Test
+    public void testRandomLoopNoPrimitive() {
+        /*
+         * Both outcomes of the random jump lead back to it
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 0,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                BugsWorldVMInterpreter.CellState.ENEMY, 0, 1000);
+        assertEquals(BugsWorldVMInterpreter.STEP_BUDGET_EXHAUSTED, pc);
+    }
+
+    @Test
+    public void testDispatchWhileTrueLoop() {
+        /*
+         * WHILE TRUE DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_TRUE.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.EMPTY, 0);
+        assertEquals(BugsWorldVMInterpreter.NO_PRIMITIVE_REACHABLE, pc);
+    }
+
+    @Test
+    public void testDispatchRandomLoopBudget() {
+        /*
+         * WHILE RANDOM DO END
+         * HALT
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 4,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.FRIEND, 0,
+                () -> true, 0);
+        assertEquals(BugsWorldVMInterpreter.STEP_BUDGET_EXHAUSTED, pc);
+        pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.FRIEND, 0,
+                () -> false, 1);
+        assertEquals(4, pc);
+    }
+
+    @Test
+    public void testDispatchRandomLoopNoPrimitive() {
+        /*
+         * Both outcomes of the random jump lead back to it
+         */
+        int[] cp = { Instruction.JUMP_IF_NOT_RANDOM.byteCode(), 0,
+                Instruction.JUMP.byteCode(), 0, Instruction.HALT.byteCode() };
+        int[] dispatch = BugsWorldVMInterpreter.dispatchTable(cp);
+        int pc = BugsWorldVMInterpreter.nextPrimitiveInstructionAddress(cp,
+                dispatch, BugsWorldVMInterpreter.CellState.ENEMY, 0);
+        assertEquals(BugsWorldVMInterpreter.STEP_BUDGET_EXHAUSTED, pc);
+    }
+
 }
@@ -0,0 +1,426 @@
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a doubly linked list of pairs in the order in
+ * which they were added, done "bare-handed", together with a hash table
+ * indexing the nodes of that list by key, with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Iteration and {@code removeAny} follow insertion order. This is the cyclic
+ * order in which {@code Map2} keeps its {@code Queue} of pairs, but
+ * {@code Map2a} never rotates it. {@code add}, {@code remove}, {@code value},
+ * and {@code hasKey} find keys through the hash table, so their expected
+ * execution-time performance is O(1) instead of O(|this|).
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * [$this.smart is not null]  and
+ * [$this.smart is the "smart node" of a circular doubly linked list
+ *  containing $this.size + 1 nodes]  and
+ * [no two nodes of that list hold pairs with equal keys]  and
+ * |$this.hashTable| >= MIN_TABLE_SIZE  and
+ * $this.size <= |$this.hashTable| * MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR
+ *  and
+ * [every node of that list other than $this.smart is in exactly one bucket,
+ *  the chain starting at $this.hashTable[mod(hashCode(pair.key),
+ *  |$this.hashTable|)], and the buckets hold no other nodes]
+ * </pre>
+ * @correspondence <pre>
+ * this = [pairs in the nodes of the list starting at $this.smart.next and
+ *  running through $this.smart.previous]
+ * </pre>
+ */
+public class Map2a<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial, and minimum, number of buckets in the hash table.
+     */
+    private static final int MIN_TABLE_SIZE = 16;
+
+    /**
+     * Numerator of the maximum load factor.
+     */
+    private static final int MAX_LOAD_NUMERATOR = 3;
+
+    /**
+     * Denominator of the maximum load factor.
+     */
+    private static final int MAX_LOAD_DENOMINATOR = 4;
+
+    /**
+     * The hash table shrinks when fewer than 1/SHRINK_RATIO of its buckets
+     * would be used.
+     */
+    private static final int SHRINK_RATIO = 8;
+
+    /**
+     * Node class for doubly linked list nodes, also chained in a hash bucket.
+     */
+    private final class Node {
+
+        /**
+         * Pair in node.
+         */
+        private Pair<K, V> pair;
+
+        /**
+         * Previous node in doubly linked list.
+         */
+        private Node previous;
+
+        /**
+         * Next node in doubly linked list.
+         */
+        private Node next;
+
+        /**
+         * Next node in the same hash bucket, or null.
+         */
+        private Node nextInBucket;
+
+    }
+
+    /**
+     * "Smart node" before the first and after the last node of the circular
+     * doubly linked list.
+     */
+    private Node smart;
+
+    /**
+     * Buckets of the hash table.
+     */
+    private Node[] hashTable;
+
+    /**
+     * Number of pairs in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int mod = a % b;
+        if (mod < 0) {
+            mod = mod + b;
+        }
+        return mod;
+    }
+
+    /**
+     * Returns the index of the bucket of {@code key} in a hash table of
+     * {@code length} buckets.
+     *
+     * @param key
+     *            the key
+     * @param length
+     *            the number of buckets
+     * @return the index of the bucket of {@code key}
+     * @requires length > 0
+     * @ensures bucketIndex = mod(hashCode(key), length)
+     */
+    private static int bucketIndex(Object key, int length) {
+        return mod(key.hashCode(), length);
+    }
+
+    /**
+     * Returns the node holding the pair with key {@code key}, or null if there
+     * is none.
+     *
+     * @param key
+     *            the key to find
+     * @return the node holding {@code key}, or null
+     */
+    private Node find(K key) {
+        Node n = this.hashTable[bucketIndex(key, this.hashTable.length)];
+        while (n != null && !n.pair.key().equals(key)) {
+            n = n.nextInBucket;
+        }
+        return n;
+    }
+
+    /**
+     * Replaces the hash table with one of {@code length} buckets holding the
+     * same nodes.
+     *
+     * @param length
+     *            the new number of buckets
+     * @updates $this.hashTable
+     * @requires length >= MIN_TABLE_SIZE
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int length) {
+        Node[] table = (Node[]) Array.newInstance(Node.class, length);
+        for (Node n = this.smart.next; n != this.smart; n = n.next) {
+            int i = bucketIndex(n.pair.key(), length);
+            n.nextInBucket = table[i];
+            table[i] = n;
+        }
+        this.hashTable = table;
+    }
+
+    /**
+     * Unlinks {@code n} from the linked list and from its hash bucket.
+     *
+     * @param n
+     *            the node to unlink
+     * @updates this
+     * @requires [n is a node of the list other than $this.smart]
+     * @ensures this = #this \ {n.pair}
+     */
+    private void unlink(Node n) {
+        int i = bucketIndex(n.pair.key(), this.hashTable.length);
+        if (this.hashTable[i] == n) {
+            this.hashTable[i] = n.nextInBucket;
+        } else {
+            Node p = this.hashTable[i];
+            while (p.nextInBucket != n) {
+                p = p.nextInBucket;
+            }
+            p.nextInBucket = n.nextInBucket;
+        }
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+        this.size--;
+        if (this.hashTable.length > MIN_TABLE_SIZE
+                && this.size * SHRINK_RATIO < this.hashTable.length) {
+            this.resize(this.hashTable.length / 2);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.smart is not null]  and
+     * [$this.smart is the "smart node" of a circular doubly linked list
+     *  containing $this.size + 1 nodes]  and
+     * [every node of that list other than $this.smart is in its bucket]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.smart != null : "Violation of: $this.smart is not null";
+        int count = 0;
+        Node n = this.smart.next;
+        while (n != this.smart && count <= this.size) {
+            assert n.next.previous == n : ""
+                    + "Violation of: [the list is doubly linked]";
+            assert this.find(n.pair.key()) == n : ""
+                    + "Violation of: [every node is in its bucket]";
+            count++;
+            n = n.next;
+        }
+        assert count == this.size : "Violation of: [$this.smart is the smart "
+                + "node of a circular list containing $this.size + 1 nodes]";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.smart = new Node();
+        this.smart.next = this.smart;
+        this.smart.previous = this.smart;
+        this.size = 0;
+        this.resize(MIN_TABLE_SIZE);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map2a() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map2a<?, ?> : ""
+                + "Violation of: source is of dynamic type Map2a<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map2a<?,?>,
+         * and the ?,? must be K,V or the call would not have compiled.
+         */
+        Map2a<K, V> localSource = (Map2a<K, V>) source;
+        this.smart = localSource.smart;
+        this.hashTable = localSource.hashTable;
+        this.size = localSource.size;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        if ((this.size + 1) * MAX_LOAD_DENOMINATOR > this.hashTable.length
+                * MAX_LOAD_NUMERATOR) {
+            this.resize(2 * this.hashTable.length);
+        }
+        Node n = new Node();
+        n.pair = new SimplePair<K, V>(key, value);
+        n.next = this.smart;
+        n.previous = this.smart.previous;
+        this.smart.previous.next = n;
+        this.smart.previous = n;
+        int i = bucketIndex(key, this.hashTable.length);
+        n.nextInBucket = this.hashTable[i];
+        this.hashTable[i] = n;
+        this.size++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        Node n = this.find(key);
+        this.unlink(n);
+        assert this.conventionHolds();
+        return n.pair;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+        Node n = this.smart.next;
+        this.unlink(n);
+        assert this.conventionHolds();
+        return n.pair;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        return this.find(key).pair.value();
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+        return this.find(key) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map2aIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map2a}, visiting
+     * the pairs in the order in which they were added.
+     */
+    private final class Map2aIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Map2aIterator() {
+            this.current = Map2a.this.smart.next;
+            assert Map2a.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Map2a.this.smart;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Pair<K, V> p = this.current.pair;
+            this.current = this.current.next;
+            return p;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
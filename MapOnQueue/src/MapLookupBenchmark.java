@@ -0,0 +1,137 @@
+import components.map.Map;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the average latency of {@code value} in {@code Map2} (which finds
+ * keys by rotating its {@code Queue}) and in {@code Map2a} (which finds them
+ * through a hash table) as the number of entries grows. {@code Map2} is only
+ * measured on small sizes, since each of its lookups takes time linear in the
+ * number of entries.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class MapLookupBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private MapLookupBenchmark() {
+    }
+
+    /**
+     * Smallest number of entries measured.
+     */
+    private static final int MIN_ENTRIES = 100;
+
+    /**
+     * Largest number of entries measured for {@code Map2}.
+     */
+    private static final int MAX_ENTRIES_MAP2 = 10_000;
+
+    /**
+     * Largest number of entries measured for {@code Map2a}.
+     */
+    private static final int MAX_ENTRIES_MAP2A = 1_000_000;
+
+    /**
+     * Factor by which the number of entries grows between measurements.
+     */
+    private static final int GROWTH = 10;
+
+    /**
+     * Number of lookups timed at each size for {@code Map2}.
+     */
+    private static final int LOOKUPS_MAP2 = 200;
+
+    /**
+     * Number of lookups timed at each size for {@code Map2a}.
+     */
+    private static final int LOOKUPS_MAP2A = 1_000_000;
+
+    /**
+     * Multiplier used to scatter lookup keys over the domain.
+     */
+    private static final int SCATTER = 7919;
+
+    /**
+     * Returns the average time, in nanoseconds, of {@code lookups} calls to
+     * {@code m.value}.
+     *
+     * @param m
+     *            the map to measure
+     * @param n
+     *            the number of entries
+     * @param lookups
+     *            the number of lookups
+     * @return average nanoseconds per lookup
+     * @requires <pre>
+     * m = {(i, i): integer where 0 <= i < n}  and  n > 0  and  lookups > 0
+     * </pre>
+     */
+    private static double averageLookupNanos(Map<Integer, Integer> m, int n,
+            int lookups) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            int key = (int) (((long) i * SCATTER) % n);
+            checksum += m.value(key);
+        }
+        long elapsed = System.nanoTime() - start;
+        /*
+         * Use checksum so the lookups cannot be optimized away.
+         */
+        if (checksum < 0) {
+            throw new AssertionError("Impossible checksum");
+        }
+        return (double) elapsed / lookups;
+    }
+
+    /**
+     * Builds a map of the given type with {@code n} entries and outputs the
+     * average latency of its lookups.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            the name of the implementation
+     * @param m
+     *            the map to measure
+     * @param n
+     *            the number of entries
+     * @param lookups
+     *            the number of lookups
+     * @updates out.content, m
+     * @requires out.is_open  and  m = {}  and  n > 0  and  lookups > 0
+     */
+    private static void measure(SimpleWriter out, String name,
+            Map<Integer, Integer> m, int n, int lookups) {
+        for (int i = 0; i < n; i++) {
+            m.add(i, i);
+        }
+        out.println(name + "\t" + n + "\t"
+                + String.format("%.1f", averageLookupNanos(m, n, lookups)));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Map\tEntries\tLookup ns");
+        out.println("---\t-------\t---------");
+        for (int n = MIN_ENTRIES; n <= MAX_ENTRIES_MAP2; n *= GROWTH) {
+            measure(out, "Map2", new Map2<Integer, Integer>(), n, LOOKUPS_MAP2);
+        }
+        for (int n = MIN_ENTRIES; n <= MAX_ENTRIES_MAP2A; n *= GROWTH) {
+            measure(out, "Map2a", new Map2a<Integer, Integer>(), n,
+                    LOOKUPS_MAP2A);
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,19 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map2a}.
+ */
+public class Map2aTest extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map2a<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
@@ -7,7 +7,12 @@ import components.map.MapSecondary;
 
 /**
  * {@code Map} represented as a hash table using {@code Map}s for the buckets,
- * with implementations of primary methods.
+ * with implementations of primary methods. The hash table grows (and shrinks)
+ * automatically to keep the load factor at most a configurable maximum; the
+ * entries of the old table are moved to the new one a few buckets at a time
+ * by later calls to {@code add}, {@code remove}, and {@code removeAny}, so no
+ * single call pays for rehashing the whole table. Each call moves enough
+ * buckets that the rehash is over before the table can need to grow again.
  *
  * @param <K>
  *            type of {@code Map} domain (key) entries
@@ -17,27 +22,57 @@ import components.map.MapSecondary;
  *
  *             <pre>
  * |$this.hashTable| > 0  and
+ * 0 < $this.maxLoadFactor  and
+ * 0 < $this.minHashTableSize  and
  * for all i: integer, pf: PARTIAL_FUNCTION, x: K
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1)  and
  *            x is in DOMAIN(pf))
- *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ *   ([computed result of x.hashCode()] mod |$this.hashTable| = i  and
+ *    ($this.oldHashTable = null  or
+ *     [computed result of x.hashCode()] mod |$this.oldHashTable| <
+ *       $this.rehashIndex))  and
  * for all i: integer
  *     where (0 <= i  and  i < |$this.hashTable|)
  *   ([entry at position i in $this.hashTable is not null])  and
+ * 0 <= $this.scanIndex  and  $this.scanIndex < |$this.hashTable|  and
+ * $this.rehashBucketsPerCall >= REHASH_BUCKETS_PER_CALL  and
+ * if $this.oldHashTable /= null then
+ *  (0 <= $this.rehashIndex  and  $this.rehashIndex < |$this.oldHashTable|  and
+ *   0 <= $this.oldScanIndex  and  $this.oldScanIndex < |$this.oldHashTable|
+ *   and
+ *   for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *       where (0 <= i  and  i < |$this.oldHashTable|  and
+ *              <pf> = $this.oldHashTable[i, i+1)  and
+ *              x is in DOMAIN(pf))
+ *     ([computed result of x.hashCode()] mod |$this.oldHashTable| = i  and
+ *      $this.rehashIndex <= i)  and
+ *   for all i: integer
+ *       where (0 <= i  and  i < |$this.oldHashTable|)
+ *     ([entry at position i in $this.oldHashTable is not null]))  and
  * $this.size = sum i: integer, pf: PARTIAL_FUNCTION
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1))
+ *   (|pf|)  +
+ *   sum i: integer, pf: PARTIAL_FUNCTION
+ *     where ($this.oldHashTable /= null  and
+ *            0 <= i  and  i < |$this.oldHashTable|  and
+ *            <pf> = $this.oldHashTable[i, i+1))
  *   (|pf|)
  *             </pre>
  *
  * @correspondence
  *
  *                 <pre>
- * this = union i: integer, pf: PARTIAL_FUNCTION
+ * this = (union i: integer, pf: PARTIAL_FUNCTION
  *            where (0 <= i  and  i < |$this.hashTable|  and
  *                   <pf> = $this.hashTable[i, i+1))
- *          (pf)
+ *          (pf))  union
+ *        (union i: integer, pf: PARTIAL_FUNCTION
+ *            where ($this.oldHashTable /= null  and
+ *                   0 <= i  and  i < |$this.oldHashTable|  and
+ *                   <pf> = $this.oldHashTable[i, i+1))
+ *          (pf))
  *                 </pre>
  *
  * @author Elijah Bulluck
@@ -54,16 +89,73 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     private static final int DEFAULT_HASH_TABLE_SIZE = 101;
 
+    /**
+     * Default maximum load factor (average number of entries per bucket).
+     */
+    private static final double DEFAULT_MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Ratio between the maximum load factor and the load factor below which
+     * the hash table shrinks.
+     */
+    private static final int SHRINK_RATIO = 4;
+
+    /**
+     * Smallest number of old buckets moved to the new hash table by each call
+     * to {@code add}, {@code remove}, or {@code removeAny} while a rehash is
+     * in progress.
+     */
+    private static final int REHASH_BUCKETS_PER_CALL = 4;
+
     /**
      * Buckets for hashing.
      */
     private Map<K, V>[] hashTable;
 
+    /**
+     * Buckets of the hash table being rehashed into {@code hashTable}, or
+     * {@code null} if no rehash is in progress.
+     */
+    private Map<K, V>[] oldHashTable;
+
+    /**
+     * Index of the next bucket of {@code oldHashTable} to be rehashed.
+     */
+    private int rehashIndex;
+
+    /**
+     * Number of old buckets moved by each call while the current rehash is
+     * in progress.
+     */
+    private int rehashBucketsPerCall;
+
+    /**
+     * Index of the bucket of {@code hashTable} where {@code removeAny} starts
+     * looking for an entry.
+     */
+    private int scanIndex;
+
+    /**
+     * Index of the bucket of {@code oldHashTable} where {@code removeAny}
+     * starts looking for an entry.
+     */
+    private int oldScanIndex;
+
     /**
      * Total size of abstract {@code this}.
      */
     private int size;
 
+    /**
+     * Maximum load factor before the hash table grows.
+     */
+    private double maxLoadFactor;
+
+    /**
+     * Size below which the hash table never shrinks.
+     */
+    private int minHashTableSize;
+
     /**
      * Computes {@code a} mod {@code b} as % should have been defined to work.
      *
@@ -89,6 +181,83 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return mod;
     }
 
+    /**
+     * Creates and returns a new array of {@code length} empty buckets.
+     *
+     * @param <K>
+     *            type of {@code Map} domain (key) entries
+     * @param <V>
+     *            type of {@code Map} range (associated value) entries
+     * @param length
+     *            the number of buckets
+     * @return the new array of buckets
+     * @requires length > 0
+     * @ensures
+     *
+     *          <pre>
+     * |newBuckets| = length  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |newBuckets|)
+     *   (newBuckets[i, i+1) = <{}>)
+     *          </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newBuckets(int length) {
+        /*
+         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail.
+         */
+        Map<K, V>[] buckets = new Map[length];
+        for (int i = 0; i < length; i++) {
+            buckets[i] = new Map1L<K, V>();
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the index of the first non-empty bucket of {@code table} at or
+     * after {@code start}, going on from {@code low} past the end of
+     * {@code table}, or -1 if the buckets from {@code low} on are all empty.
+     *
+     * @param <K>
+     *            type of {@code Map} domain (key) entries
+     * @param <V>
+     *            type of {@code Map} range (associated value) entries
+     * @param table
+     *            the buckets
+     * @param low
+     *            the index of the first bucket to look at
+     * @param start
+     *            the index of the bucket to start from
+     * @return the index of a non-empty bucket, or -1
+     * @requires 0 <= low <= start < |table|
+     * @ensures <pre>
+     * if there exists i: integer
+     *     (low <= i < |table|  and  table[i, i+1) /= <{}>)
+     *  then (low <= nonEmptyBucket < |table|  and
+     *        table[nonEmptyBucket, nonEmptyBucket+1) /= <{}>)
+     *  else nonEmptyBucket = -1
+     * </pre>
+     */
+    private static <K, V> int nonEmptyBucket(Map<K, V>[] table, int low,
+            int start) {
+        int i = start;
+        int looked = 0;
+        int buckets = table.length - low;
+        while (looked < buckets && table[i].size() == 0) {
+            i++;
+            if (i == table.length) {
+                i = low;
+            }
+            looked++;
+        }
+        if (looked == buckets) {
+            i = -1;
+        }
+        return i;
+    }
+
     /**
      * Creator of initial representation.
      *
@@ -102,22 +271,127 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * for all i: integer
      *     where (0 <= i  and  i < |$this.hashTable|)
      *   ($this.hashTable[i, i+1) = <{}>)  and
-     * $this.size = 0
+     * $this.oldHashTable = null  and
+     * $this.size = 0  and
+     * $this.minHashTableSize = hashTableSize
      *          </pre>
      */
-    @SuppressWarnings("unchecked")
     private void createNewRep(int hashTableSize) {
-        /*
-         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
-         * compile; as shown, it results in a warning about an unchecked
-         * conversion, though it cannot fail.
-         */
-        this.hashTable = new Map[hashTableSize];
-        for (int i = 0; i < hashTableSize; i++) {
-            this.hashTable[i] = new Map1L<K, V>();
-        }
+        this.hashTable = newBuckets(hashTableSize);
+        this.oldHashTable = null;
+        this.rehashIndex = 0;
+        this.rehashBucketsPerCall = REHASH_BUCKETS_PER_CALL;
+        this.scanIndex = 0;
+        this.oldScanIndex = 0;
         this.size = 0;
+        this.minHashTableSize = hashTableSize;
+    }
+
+    /**
+     * Returns the bucket that contains, or would contain, {@code key}.
+     *
+     * @param key
+     *            the key
+     * @return the bucket for {@code key}
+     * @ensures
+     *
+     *          <pre>
+     * if $this.oldHashTable /= null  and
+     *    [computed result of key.hashCode()] mod |$this.oldHashTable| >=
+     *      $this.rehashIndex
+     *  then <bucketFor> = $this.oldHashTable[
+     *      [computed result of key.hashCode()] mod |$this.oldHashTable|,
+     *      [computed result of key.hashCode()] mod |$this.oldHashTable| + 1)
+     *  else <bucketFor> = $this.hashTable[
+     *      [computed result of key.hashCode()] mod |$this.hashTable|,
+     *      [computed result of key.hashCode()] mod |$this.hashTable| + 1)
+     *          </pre>
+     */
+    private Map<K, V> bucketFor(K key) {
+        int hash = key.hashCode();
+        if (this.oldHashTable != null) {
+            int oldIndex = mod(hash, this.oldHashTable.length);
+            if (oldIndex >= this.rehashIndex) {
+                return this.oldHashTable[oldIndex];
+            }
+        }
+        return this.hashTable[mod(hash, this.hashTable.length)];
+    }
+
+    /**
+     * Moves up to {@code bucketCount} buckets of {@code $this.oldHashTable}
+     * into {@code $this.hashTable}, ending the rehash once every old bucket
+     * has been moved.
+     *
+     * @param bucketCount
+     *            the maximum number of old buckets to move
+     * @updates this
+     * @requires bucketCount > 0
+     * @ensures this = #this
+     */
+    private void rehashStep(int bucketCount) {
+        int moved = 0;
+        while (this.oldHashTable != null && moved < bucketCount) {
+            Map<K, V> bucket = this.oldHashTable[this.rehashIndex];
+            while (bucket.size() > 0) {
+                Pair<K, V> p = bucket.removeAny();
+                this.hashTable[mod(p.key().hashCode(), this.hashTable.length)]
+                        .add(p.key(), p.value());
+            }
+            this.rehashIndex++;
+            moved++;
+            if (this.rehashIndex == this.oldHashTable.length) {
+                this.oldHashTable = null;
+                this.rehashIndex = 0;
+                this.oldScanIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Starts moving the entries of {@code this} into a new hash table with
+     * {@code newHashTableSize} buckets. The number of old buckets moved by
+     * each later call is set from the number of calls to {@code add} that
+     * must come before the new hash table can need to grow, so that the
+     * rehash is over by then. The hash table only shrinks when no rehash is
+     * in progress, so no call ever has to complete a rehash on its own.
+     *
+     * @param newHashTableSize
+     *            the size of the new hash table
+     * @updates this
+     * @requires newHashTableSize > 0  and  $this.oldHashTable = null
+     * @ensures this = #this  and  |$this.hashTable| = newHashTableSize
+     */
+    private void startRehash(int newHashTableSize) {
+        assert this.oldHashTable == null : ""
+                + "Violation of: $this.oldHashTable = null";
+        int growSize = (int) Math.floor(this.maxLoadFactor * newHashTableSize)
+                + 1;
+        int calls = Math.max(1, growSize - this.size);
+        this.rehashBucketsPerCall = Math.max(REHASH_BUCKETS_PER_CALL,
+                (this.hashTable.length + calls - 1) / calls);
+        this.oldHashTable = this.hashTable;
+        this.rehashIndex = 0;
+        this.oldScanIndex = 0;
+        this.hashTable = newBuckets(newHashTableSize);
+        this.scanIndex = 0;
+    }
 
+    /**
+     * Starts shrinking the hash table if no rehash is in progress and the
+     * load factor has dropped below {@code maxLoadFactor / SHRINK_RATIO}.
+     *
+     * @updates this
+     * @ensures this = #this
+     */
+    private void shrinkIfSparse() {
+        if (this.oldHashTable == null
+                && this.hashTable.length > this.minHashTableSize
+                && this.size < this.maxLoadFactor * this.hashTable.length
+                        / SHRINK_RATIO) {
+            this.startRehash(Math.max(this.minHashTableSize,
+                    this.hashTable.length / 2));
+        }
     }
 
     /*
@@ -128,6 +402,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * No-argument constructor.
      */
     public Map4() {
+        this.maxLoadFactor = DEFAULT_MAX_LOAD_FACTOR;
         this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
 
     }
@@ -141,6 +416,26 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * @ensures this = {}
      */
     public Map4(int hashTableSize) {
+        this.maxLoadFactor = DEFAULT_MAX_LOAD_FACTOR;
+        this.createNewRep(hashTableSize);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize} that grows whenever the average number of entries
+     * per bucket exceeds {@code maxLoadFactor}.
+     *
+     * @param hashTableSize
+     *            initial (and minimum) size of hash table
+     * @param maxLoadFactor
+     *            maximum load factor of hash table
+     * @requires hashTableSize > 0  and  maxLoadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double maxLoadFactor) {
+        assert maxLoadFactor > 0 : "Violation of: maxLoadFactor > 0";
+        this.maxLoadFactor = maxLoadFactor;
         this.createNewRep(hashTableSize);
 
     }
@@ -178,7 +473,14 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          */
         Map4<K, V> localSource = (Map4<K, V>) source;
         this.hashTable = localSource.hashTable;
+        this.oldHashTable = localSource.oldHashTable;
+        this.rehashIndex = localSource.rehashIndex;
+        this.rehashBucketsPerCall = localSource.rehashBucketsPerCall;
+        this.scanIndex = localSource.scanIndex;
+        this.oldScanIndex = localSource.oldScanIndex;
         this.size = localSource.size;
+        this.maxLoadFactor = localSource.maxLoadFactor;
+        this.minHashTableSize = localSource.minHashTableSize;
         localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
     }
 
@@ -192,9 +494,12 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert value != null : "Violation of: value is not null";
         assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
 
-        int addVa = key.hashCode();
-        this.hashTable[mod(addVa, this.hashTable.length)].add(key, value);
+        this.rehashStep(this.rehashBucketsPerCall);
+        this.bucketFor(key).add(key, value);
         this.size++;
+        if (this.size > this.maxLoadFactor * this.hashTable.length) {
+            this.startRehash(2 * this.hashTable.length + 1);
+        }
 
     }
 
@@ -203,9 +508,10 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int hash = mod(key.hashCode(), this.hashTable.length);
-        Pair<K, V> remVal = this.hashTable[hash].remove(key);
+        this.rehashStep(this.rehashBucketsPerCall);
+        Pair<K, V> remVal = this.bucketFor(key).remove(key);
         this.size--;
+        this.shrinkIfSparse();
         return remVal;
     }
 
@@ -213,12 +519,33 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final Pair<K, V> removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        int i = 0;
-        while (this.hashTable[i].size() == 0) {
-            i++;
+        this.rehashStep(this.rehashBucketsPerCall);
+        /*
+         * Look for an entry from where the last call found one: buckets are
+         * only emptied there, so in a drain each bucket is looked at once per
+         * hash table. If the old buckets left are all empty, the rest of the
+         * rehash costs no more than looking at them did, so finish it.
+         */
+        Map<K, V> bucket = null;
+        if (this.oldHashTable != null) {
+            this.oldScanIndex = Math.max(this.oldScanIndex, this.rehashIndex);
+            int i = nonEmptyBucket(this.oldHashTable, this.rehashIndex,
+                    this.oldScanIndex);
+            if (i >= 0) {
+                this.oldScanIndex = i;
+                bucket = this.oldHashTable[i];
+            } else {
+                this.rehashStep(this.oldHashTable.length);
+            }
+        }
+        if (bucket == null) {
+            this.scanIndex = nonEmptyBucket(this.hashTable, 0,
+                    this.scanIndex);
+            bucket = this.hashTable[this.scanIndex];
         }
-        Pair<K, V> remVal = this.hashTable[i].removeAny();
+        Pair<K, V> remVal = bucket.removeAny();
         this.size--;
+        this.shrinkIfSparse();
         return remVal;
 
     }
@@ -228,16 +555,14 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int val = mod(key.hashCode(), this.hashTable.length);
-        return this.hashTable[val].value(key);
+        return this.bucketFor(key).value(key);
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
 
-        int hasK = mod(key.hashCode(), this.hashTable.length);
-        return this.hashTable[hasK].hasKey(key);
+        return this.bucketFor(key).hasKey(key);
     }
 
     @Override
@@ -261,7 +586,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         private int numberSeen;
 
         /**
-         * Bucket from which current bucket iterator comes.
+         * Bucket from which current bucket iterator comes; buckets of the old
+         * hash table (if any) are numbered before those of the hash table.
          */
         private int currentBucket;
 
@@ -276,7 +602,28 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         Map4Iterator() {
             this.numberSeen = 0;
             this.currentBucket = 0;
-            this.bucketIterator = Map4.this.hashTable[0].iterator();
+            this.bucketIterator = this.bucket(0).iterator();
+        }
+
+        /**
+         * Returns the bucket numbered {@code i}, counting the buckets of the
+         * old hash table (if any) first.
+         *
+         * @param i
+         *            the bucket number
+         * @return the bucket numbered {@code i}
+         */
+        private Map<K, V> bucket(int i) {
+            Map<K, V> bucket;
+            if (Map4.this.oldHashTable == null) {
+                bucket = Map4.this.hashTable[i];
+            } else if (i < Map4.this.oldHashTable.length) {
+                bucket = Map4.this.oldHashTable[i];
+            } else {
+                bucket = Map4.this.hashTable[i
+                        - Map4.this.oldHashTable.length];
+            }
+            return bucket;
         }
 
         @Override
@@ -298,7 +645,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
             this.numberSeen++;
             while (!this.bucketIterator.hasNext()) {
                 this.currentBucket++;
-                this.bucketIterator = Map4.this.hashTable[this.currentBucket]
+                this.bucketIterator = this.bucket(this.currentBucket)
                         .iterator();
             }
             return this.bucketIterator.next();
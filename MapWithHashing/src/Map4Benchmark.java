@@ -0,0 +1,104 @@
+import components.map.Map;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the average latency of {@code Map4.value} as the number of entries
+ * grows from 1K to 10M, to check that the automatically resized hash table
+ * keeps lookups from degrading into long bucket scans. Run with a large heap
+ * (e.g., {@code -Xmx8g}) for the biggest sizes.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class Map4Benchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4Benchmark() {
+    }
+
+    /**
+     * Smallest number of entries measured.
+     */
+    private static final int MIN_ENTRIES = 1_000;
+
+    /**
+     * Largest number of entries measured.
+     */
+    private static final int MAX_ENTRIES = 10_000_000;
+
+    /**
+     * Factor by which the number of entries grows between measurements.
+     */
+    private static final int GROWTH = 10;
+
+    /**
+     * Number of lookups timed at each size.
+     */
+    private static final int LOOKUPS = 1_000_000;
+
+    /**
+     * Multiplier used to scatter lookup keys over the domain.
+     */
+    private static final int SCATTER = 7919;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns the average time, in nanoseconds, of {@code LOOKUPS} calls to
+     * {@code m.value}.
+     *
+     * @param m
+     *            the map to measure
+     * @param n
+     *            the number of entries
+     * @return average nanoseconds per lookup
+     * @requires m = {(i, i): integer where 0 <= i < n}  and  n > 0
+     */
+    private static double averageLookupNanos(Map<Integer, Integer> m, int n) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int key = (int) (((long) i * SCATTER) % n);
+            checksum += m.value(key);
+        }
+        long elapsed = System.nanoTime() - start;
+        /*
+         * Use checksum so the lookups cannot be optimized away.
+         */
+        if (checksum < 0) {
+            throw new AssertionError("Impossible checksum");
+        }
+        return (double) elapsed / LOOKUPS;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Entries\tBuild ms\tLookup ns");
+        out.println("-------\t--------\t---------");
+        for (int n = MIN_ENTRIES; n <= MAX_ENTRIES; n *= GROWTH) {
+            Map<Integer, Integer> m = new Map4<Integer, Integer>();
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                m.add(i, i);
+            }
+            double buildMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            double lookupNanos = averageLookupNanos(m, n);
+            out.println(n + "\t" + String.format("%.1f", buildMillis) + "\t"
+                    + String.format("%.1f", lookupNanos));
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,468 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table with linear
+ * probing, keeping keys and values in parallel arrays, with implementations of
+ * primary methods. Removal shifts later entries of the probe sequence back
+ * into the freed slot, so the table never contains "deleted" markers. Each
+ * table mixes hash codes with a seed of its own, so the order of the slots
+ * of the keys changes when the table is resized: otherwise removing entries
+ * in slot order and then shrinking would pack the keys left into ever longer
+ * probe sequences.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention
+ *
+ *             <pre>
+ * |$this.keys| = |$this.values|  and
+ * [|$this.keys| is a power of 2]  and
+ * $this.mask = |$this.keys| - 1  and
+ * 0 <= $this.scanIndex  and  $this.scanIndex < |$this.keys|  and
+ * 4 * $this.size <= 3 * |$this.keys|  and
+ * $this.size = |{i: integer where (0 <= i  and  i < |$this.keys|  and
+ *                                  $this.keys[i] /= null)}|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|)
+ *   (($this.keys[i] = null) = ($this.values[i] = null))  and
+ * for all i, j: integer
+ *     where (0 <= i  and  i < j  and  j < |$this.keys|  and
+ *            $this.keys[i] /= null  and  $this.keys[j] /= null)
+ *   ($this.keys[i] /= $this.keys[j])  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|  and  $this.keys[i] /= null)
+ *   (for all d: integer
+ *        where (0 <= d  and
+ *               d < (i - [home slot of $this.keys[i]]) mod |$this.keys|)
+ *      ($this.keys[([home slot of $this.keys[i]] + d) mod |$this.keys|]
+ *         /= null))
+ *             </pre>
+ *
+ * @correspondence
+ *
+ *                 <pre>
+ * this = {(k, v): (K, V) where there exists i: integer
+ *                   (0 <= i  and  i < |$this.keys|  and
+ *                    $this.keys[i] = k  and  $this.values[i] = v)}
+ *                 </pre>
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public class Map5<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default (and minimum) capacity of hash table; must be a power of 2.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Numerator of the maximum load factor (3/4).
+     */
+    private static final int MAX_LOAD_NUMERATOR = 3;
+
+    /**
+     * Denominator of the maximum load factor (3/4).
+     */
+    private static final int MAX_LOAD_DENOMINATOR = 4;
+
+    /**
+     * Inverse of the load factor below which the hash table shrinks.
+     */
+    private static final int MIN_LOAD_INVERSE = 8;
+
+    /**
+     * Odd constant used to spread hash codes over all bits (2^32 divided by
+     * the golden ratio).
+     */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /**
+     * Number of bits in an {@code int}.
+     */
+    private static final int INT_BITS = 32;
+
+    /**
+     * Number of bits to shift when mixing a hash.
+     */
+    private static final int MIX_SHIFT = 16;
+
+    /**
+     * Keys, one per slot, or {@code null} for an empty slot.
+     */
+    private Object[] keys;
+
+    /**
+     * Values, one per slot, parallel to {@code keys}.
+     */
+    private Object[] values;
+
+    /**
+     * Bit mask giving a slot index from a hash; {@code |keys| - 1}.
+     */
+    private int mask;
+
+    /**
+     * Number of bits to shift a spread hash right to get a slot index.
+     */
+    private int shift;
+
+    /**
+     * Seed mixed into hash codes, different for each number of slots.
+     */
+    private int seed;
+
+    /**
+     * Slot where {@code removeAny} starts looking for an entry.
+     */
+    private int scanIndex;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Returns the home slot of {@code key}, i.e., the first slot of its probe
+     * sequence.
+     *
+     * @param key
+     *            the key
+     * @return the home slot of {@code key}
+     * @ensures 0 <= homeSlot  and  homeSlot < |$this.keys|
+     */
+    private int homeSlot(Object key) {
+        int h = (key.hashCode() ^ this.seed) * SPREAD;
+        h ^= h >>> MIX_SHIFT;
+        return (h * SPREAD) >>> this.shift;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or, if {@code key} is not in
+     * {@code DOMAIN(this)}, the empty slot that ends its probe sequence.
+     *
+     * @param key
+     *            the key to search for
+     * @return the slot for {@code key}
+     * @ensures
+     *
+     *          <pre>
+     * 0 <= slotFor  and  slotFor < |$this.keys|  and
+     * ($this.keys[slotFor] = key  or  $this.keys[slotFor] = null)
+     *          </pre>
+     */
+    private int slotFor(Object key) {
+        int i = this.homeSlot(key);
+        while (this.keys[i] != null && !this.keys[i].equals(key)) {
+            i = (i + 1) & this.mask;
+        }
+        return i;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            the number of slots
+     * @requires [capacity is a power of 2]  and  capacity > 1
+     * @ensures
+     *
+     *          <pre>
+     * |$this.keys| = capacity  and
+     * [every slot of $this.keys and $this.values is null]  and
+     * $this.scanIndex = 0  and  $this.size = 0
+     *          </pre>
+     */
+    private void createNewRep(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.shift = INT_BITS - Integer.numberOfTrailingZeros(capacity);
+        this.seed = capacity * SPREAD;
+        this.scanIndex = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Moves every entry of {@code this} into a table with {@code capacity}
+     * slots.
+     *
+     * @param capacity
+     *            the new number of slots
+     * @updates this
+     * @requires
+     *
+     *           <pre>
+     * [capacity is a power of 2]  and  capacity > 1  and
+     * MAX_LOAD_DENOMINATOR * |this| <= MAX_LOAD_NUMERATOR * capacity
+     *           </pre>
+     *
+     * @ensures this = #this  and  |$this.keys| = capacity
+     */
+    private void resize(int capacity) {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int oldSize = this.size;
+        this.createNewRep(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = this.slotFor(oldKeys[i]);
+                this.keys[j] = oldKeys[i];
+                this.values[j] = oldValues[i];
+            }
+        }
+        this.size = oldSize;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts later entries of the probe sequence
+     * back so that every remaining key is still reachable from its home slot.
+     *
+     * @param i
+     *            the slot to empty
+     * @updates this
+     * @requires 0 <= i  and  i < |$this.keys|  and  $this.keys[i] /= null
+     * @ensures this = #this \ {($this.keys[i], $this.values[i])}
+     */
+    private void deleteSlot(int i) {
+        int hole = i;
+        int j = (hole + 1) & this.mask;
+        while (this.keys[j] != null) {
+            int home = this.homeSlot(this.keys[j]);
+            /*
+             * The entry in slot j may move into the hole only if its home slot
+             * is not cyclically in (hole, j].
+             */
+            if (((j - home) & this.mask) >= ((j - hole) & this.mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+            j = (j + 1) & this.mask;
+        }
+        this.keys[hole] = null;
+        this.values[hole] = null;
+        this.size--;
+    }
+
+    /**
+     * Halves the number of slots if the load factor has dropped below
+     * {@code 1 / MIN_LOAD_INVERSE} and the table is larger than the default.
+     *
+     * @updates this
+     * @ensures this = #this
+     */
+    private void shrinkIfSparse() {
+        if (this.keys.length > DEFAULT_CAPACITY
+                && MIN_LOAD_INVERSE * this.size < this.keys.length) {
+            this.resize(this.keys.length / 2);
+        }
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map5() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map5<?, ?> : ""
+                + "Violation of: source is of dynamic type Map5<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map5<?,?>, and
+         * the ?,? must be K,V or the call would not have compiled.
+         */
+        Map5<K, V> localSource = (Map5<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.mask = localSource.mask;
+        this.shift = localSource.shift;
+        this.seed = localSource.seed;
+        this.scanIndex = localSource.scanIndex;
+        this.size = localSource.size;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        if (MAX_LOAD_DENOMINATOR * (this.size + 1) > MAX_LOAD_NUMERATOR
+                * this.keys.length) {
+            this.resize(2 * this.keys.length);
+        }
+        int i = this.slotFor(key);
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int i = this.slotFor(key);
+        Pair<K, V> remVal = new SimplePair<K, V>((K) this.keys[i],
+                (V) this.values[i]);
+        this.deleteSlot(i);
+        this.shrinkIfSparse();
+        return remVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        /*
+         * Look for an entry from where the last call found one: deleteSlot
+         * only moves entries back into the slot it empties or later ones, so
+         * in a drain each slot is looked at once per table; only entries
+         * added since can make the search wrap around
+         */
+        int i = this.scanIndex;
+        while (this.keys[i] == null) {
+            i = (i + 1) & this.mask;
+        }
+        this.scanIndex = i;
+        Pair<K, V> remVal = new SimplePair<K, V>((K) this.keys[i],
+                (V) this.values[i]);
+        this.deleteSlot(i);
+        this.shrinkIfSparse();
+        return remVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return (V) this.values[this.slotFor(key)];
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.keys[this.slotFor(key)] != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map5}.
+     */
+    private final class Map5Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Slot from which next element will come (or before it, if that slot
+         * is empty).
+         */
+        private int currentSlot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map5Iterator() {
+            this.numberSeen = 0;
+            this.currentSlot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map5.this.size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (Map5.this.keys[this.currentSlot] == null) {
+                this.currentSlot++;
+            }
+            Pair<K, V> p = new SimplePair<K, V>(
+                    (K) Map5.this.keys[this.currentSlot],
+                    (V) Map5.this.values[this.currentSlot]);
+            this.currentSlot++;
+            return p;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
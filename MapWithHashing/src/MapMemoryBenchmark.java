@@ -0,0 +1,132 @@
+import components.map.Map;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Reports the heap bytes used per entry by {@code Map4} and {@code Map5}, and
+ * the average latency of {@code value}, for maps of increasing size. Keys and
+ * values are created before measuring, so the numbers show only the overhead
+ * of each representation. Run with a large heap (e.g., {@code -Xmx8g}) for
+ * the biggest sizes.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class MapMemoryBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private MapMemoryBenchmark() {
+    }
+
+    /**
+     * Smallest number of entries measured.
+     */
+    private static final int MIN_ENTRIES = 10_000;
+
+    /**
+     * Largest number of entries measured.
+     */
+    private static final int MAX_ENTRIES = 10_000_000;
+
+    /**
+     * Factor by which the number of entries grows between measurements.
+     */
+    private static final int GROWTH = 10;
+
+    /**
+     * Number of lookups timed at each size.
+     */
+    private static final int LOOKUPS = 1_000_000;
+
+    /**
+     * Multiplier used to scatter lookup keys over the domain.
+     */
+    private static final int SCATTER = 7919;
+
+    /**
+     * Number of garbage collection requests made before reading the heap.
+     */
+    private static final int GC_ROUNDS = 5;
+
+    /**
+     * Returns the number of bytes currently in use on the heap, after asking
+     * for garbage collection.
+     *
+     * @return bytes in use
+     */
+    private static long usedBytes() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Fills {@code m} with the pairs (keys[i], keys[i]), and reports on
+     * {@code out} the bytes used per entry and the average nanoseconds per
+     * call to {@code value}.
+     *
+     * @param name
+     *            the name of the implementation
+     * @param m
+     *            the map to fill and measure
+     * @param keys
+     *            the keys (and values) to add
+     * @param out
+     *            the output stream
+     * @updates m, out.content
+     * @requires m = {}  and  [entries of keys are distinct]  and  out.is_open
+     * @ensures m = {(k, k): Integer where k is in entries(keys)}
+     */
+    private static void measure(String name, Map<Integer, Integer> m,
+            Integer[] keys, SimpleWriter out) {
+        long before = usedBytes();
+        for (int i = 0; i < keys.length; i++) {
+            m.add(keys[i], keys[i]);
+        }
+        long after = usedBytes();
+        double bytesPerEntry = (double) (after - before) / keys.length;
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            Integer key = keys[(int) (((long) i * SCATTER) % keys.length)];
+            checksum += m.value(key);
+        }
+        double lookupNanos = (double) (System.nanoTime() - start) / LOOKUPS;
+        /*
+         * Use checksum so the lookups cannot be optimized away.
+         */
+        if (checksum < 0) {
+            throw new AssertionError("Impossible checksum");
+        }
+        out.println(name + "\t" + keys.length + "\t"
+                + String.format("%.1f", bytesPerEntry) + "\t"
+                + String.format("%.1f", lookupNanos));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Map\tEntries\tBytes/entry\tLookup ns");
+        out.println("---\t-------\t-----------\t---------");
+        for (int n = MIN_ENTRIES; n <= MAX_ENTRIES; n *= GROWTH) {
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = Integer.valueOf(i);
+            }
+            measure("Map4", new Map4<Integer, Integer>(), keys, out);
+            measure("Map5", new Map5<Integer, Integer>(), keys, out);
+        }
+        out.close();
+    }
+
+}
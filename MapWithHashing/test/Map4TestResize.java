@@ -0,0 +1,139 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4} using non-default constructor
+ * with hash table size 1 and maximum load factor 1, so that the hash table
+ * grows and shrinks many times during the tests.
+ */
+public class Map4TestResize extends MapTest {
+
+    /**
+     * Initial size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    /**
+     * Maximum load factor to be used in tests.
+     */
+    private static final double TEST_MAX_LOAD_FACTOR = 1.0;
+
+    /**
+     * Number of entries used by the growing and shrinking tests.
+     */
+    private static final int MANY_ENTRIES = 5000;
+
+    /**
+     * Number of entries used by the draining test, enough that draining in
+     * time quadratic in the number of entries would take minutes.
+     */
+    private static final int DRAIN_ENTRIES = 200_000;
+
+    /**
+     * Time allowed for the draining test, in milliseconds.
+     */
+    private static final long DRAIN_TIMEOUT = 10_000;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4<String, String>(TEST_HASH_TABLE_SIZE,
+                TEST_MAX_LOAD_FACTOR);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Test for Add with enough entries to grow the hash table.
+     */
+    @Test
+    public final void testAddManyGrows() {
+        Map<String, String> m = this.constructorTest();
+        Map<String, String> mExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add("k" + i, "v" + i);
+            mExpected.add("k" + i, "v" + i);
+        }
+        assertEquals(mExpected, m);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            assertTrue(m.hasKey("k" + i));
+            assertEquals("v" + i, m.value("k" + i));
+        }
+        assertFalse(m.hasKey("k" + MANY_ENTRIES));
+    }
+
+    /**
+     * Test for Remove with enough entries to shrink the hash table.
+     */
+    @Test
+    public final void testRemoveManyShrinks() {
+        Map<String, String> m = this.constructorTest();
+        Map<String, String> mExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add("k" + i, "v" + i);
+            mExpected.add("k" + i, "v" + i);
+        }
+        for (int i = 0; i < MANY_ENTRIES - 1; i++) {
+            Pair<String, String> p = m.remove("k" + i);
+            Pair<String, String> pExpected = mExpected.remove("k" + i);
+            assertEquals(pExpected, p);
+        }
+        assertEquals(mExpected, m);
+        assertEquals(1, m.size());
+    }
+
+    /**
+     * Test for Remove-any while a rehash is in progress.
+     */
+    @Test
+    public final void testRemoveAnyDuringRehash() {
+        Map<String, String> m = this.constructorTest();
+        Map<String, String> mExpected = this.constructorRef();
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add("k" + i, "v" + i);
+            mExpected.add("k" + i, "v" + i);
+        }
+        while (m.size() > 0) {
+            Pair<String, String> p = m.removeAny();
+            assertTrue(mExpected.hasKey(p.key()));
+            Pair<String, String> pExpected = mExpected.remove(p.key());
+            assertEquals(pExpected, p);
+        }
+        assertEquals(mExpected, m);
+    }
+
+    /**
+     * Test for Remove-any draining a hash table grown to many buckets, which
+     * must shrink back as it empties.
+     */
+    @Test(timeout = DRAIN_TIMEOUT)
+    public final void testRemoveAnyDrainsManyEntries() {
+        Map<Integer, Integer> m = new Map4<Integer, Integer>(
+                TEST_HASH_TABLE_SIZE, TEST_MAX_LOAD_FACTOR);
+        for (int i = 0; i < DRAIN_ENTRIES; i++) {
+            m.add(i, i);
+        }
+        boolean[] removed = new boolean[DRAIN_ENTRIES];
+        while (m.size() > 0) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(p.key(), p.value());
+            assertFalse(removed[p.key()]);
+            removed[p.key()] = true;
+        }
+        for (int i = 0; i < DRAIN_ENTRIES; i++) {
+            assertTrue(removed[i]);
+        }
+        m.add(1, 1);
+        assertTrue(m.hasKey(1));
+    }
+
+}
@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map5} using default constructor.
+ */
+public class Map5Test extends MapTest {
+
+    /**
+     * Number of entries used by the draining test, enough that draining in
+     * time quadratic in the number of entries would take minutes.
+     */
+    private static final int DRAIN_ENTRIES = 400_000;
+
+    /**
+     * Time allowed for the draining test, in milliseconds.
+     */
+    private static final long DRAIN_TIMEOUT = 10_000;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map5<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Test for Remove-any draining a hash table grown to many slots, which
+     * must shrink back as it empties.
+     */
+    @Test(timeout = DRAIN_TIMEOUT)
+    public final void testRemoveAnyDrainsManyEntries() {
+        Map<Integer, Integer> m = new Map5<Integer, Integer>();
+        for (int i = 0; i < DRAIN_ENTRIES; i++) {
+            m.add(i, i);
+        }
+        boolean[] removed = new boolean[DRAIN_ENTRIES];
+        while (m.size() > 0) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(p.key(), p.value());
+            assertFalse(removed[p.key()]);
+            removed[p.key()] = true;
+        }
+        for (int i = 0; i < DRAIN_ENTRIES; i++) {
+            assertTrue(removed[i]);
+        }
+        m.add(1, 1);
+        assertTrue(m.hasKey(1));
+    }
+
+    /**
+     * Test for Remove-any interleaved with Add, so that entries are added
+     * before the slot where Remove-any last found one.
+     */
+    @Test
+    public final void testRemoveAnyAfterAdds() {
+        final int n = 1_000;
+        Map<Integer, Integer> m = new Map5<Integer, Integer>();
+        Map<Integer, Integer> mExpected = new Map1L<Integer, Integer>();
+        for (int i = 0; i < n; i++) {
+            m.add(i, i);
+            mExpected.add(i, i);
+        }
+        for (int i = 0; i < n; i++) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(mExpected.remove(p.key()), p);
+            m.add(n + i, i);
+            mExpected.add(n + i, i);
+        }
+        while (m.size() > 0) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(mExpected.remove(p.key()), p);
+        }
+        assertEquals(0, mExpected.size());
+    }
+
+}
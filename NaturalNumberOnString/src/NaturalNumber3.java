@@ -1,3 +1,4 @@
+import java.util.Arrays;
 
 import components.naturalnumber.NaturalNumber;
 import components.naturalnumber.NaturalNumberSecondary;
@@ -6,6 +7,13 @@ import components.naturalnumber.NaturalNumberSecondary;
  * {@code NaturalNumber} represented as a {@code String} with implementations of
  * primary methods.
  *
+ * <p>
+ * {@code compareTo}, {@code add}, {@code subtract}, {@code multiply}, and
+ * {@code divide} are overridden to work on the digits of the representation
+ * directly rather than one {@code divideBy10} at a time; {@code multiply} uses
+ * Karatsuba's method once both factors have at least
+ * {@code KARATSUBA_THRESHOLD} digits.
+ *
  * @convention
  *
  *             <pre>
@@ -29,11 +37,301 @@ public class NaturalNumber3 extends NaturalNumberSecondary {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Length, in digits, of the shorter factor below which {@code multiply}
+     * uses the schoolbook method instead of Karatsuba's.
+     */
+    private static final int KARATSUBA_THRESHOLD = 40;
+
     /**
      * Representation of {@code this}.
      */
     private String rep;
 
+    /**
+     * Returns the representation of {@code n}, computed from its
+     * {@code toString} unless {@code n} is a {@code NaturalNumber3}.
+     *
+     * @param n
+     *            the number
+     * @return the representation of {@code n}
+     * @ensures repOf = [$n.rep, for a NaturalNumber3 n with that value]
+     */
+    private static String repOf(NaturalNumber n) {
+        String r;
+        if (n instanceof NaturalNumber3) {
+            r = ((NaturalNumber3) n).rep;
+        } else if (n.isZero()) {
+            r = "";
+        } else {
+            r = n.toString();
+        }
+        return r;
+    }
+
+    /**
+     * Compares two representations.
+     *
+     * @param a
+     *            the first representation
+     * @param b
+     *            the second representation
+     * @return negative, zero, or positive as the number represented by
+     *         {@code a} is less than, equal to, or greater than the one
+     *         represented by {@code b}
+     * @requires [a and b satisfy the convention]
+     */
+    private static int compareReps(String a, String b) {
+        int result = Integer.compare(a.length(), b.length());
+        if (result == 0) {
+            result = a.compareTo(b);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the representation of the number whose digits, least
+     * significant first, are {@code digits[0, length)}.
+     *
+     * @param digits
+     *            the digits, least significant first
+     * @param length
+     *            the number of digits to use
+     * @return the representation, without leading zeros
+     * @requires 0 <= length <= |digits|  and  [digits are in 0..9]
+     */
+    private static String repFromDigits(int[] digits, int length) {
+        int top = length;
+        while (top > 0 && digits[top - 1] == 0) {
+            top--;
+        }
+        char[] chars = new char[top];
+        for (int i = 0; i < top; i++) {
+            chars[i] = (char) ('0' + digits[top - 1 - i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the digits of the number represented by {@code r}, least
+     * significant first.
+     *
+     * @param r
+     *            the representation
+     * @return the digits of {@code r}, least significant first
+     * @requires [r satisfies the convention]
+     * @ensures |digitsFromRep| = |r|
+     */
+    private static int[] digitsFromRep(String r) {
+        int[] digits = new int[r.length()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = r.charAt(r.length() - 1 - i) - '0';
+        }
+        return digits;
+    }
+
+    /**
+     * Returns the representation of the sum of the numbers represented by
+     * {@code a} and {@code b}.
+     *
+     * @param a
+     *            the first representation
+     * @param b
+     *            the second representation
+     * @return the representation of a + b
+     * @requires [a and b satisfy the convention]
+     */
+    private static String addReps(String a, String b) {
+        int length = Math.max(a.length(), b.length()) + 1;
+        int[] sum = new int[length];
+        int carry = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = carry;
+            if (i < a.length()) {
+                digit += a.charAt(a.length() - 1 - i) - '0';
+            }
+            if (i < b.length()) {
+                digit += b.charAt(b.length() - 1 - i) - '0';
+            }
+            sum[i] = digit % RADIX;
+            carry = digit / RADIX;
+        }
+        return repFromDigits(sum, length);
+    }
+
+    /**
+     * Returns the representation of the difference of the numbers
+     * represented by {@code a} and {@code b}.
+     *
+     * @param a
+     *            the first representation
+     * @param b
+     *            the second representation
+     * @return the representation of a - b
+     * @requires [a and b satisfy the convention]  and
+     *           [a represents a number >= the one b represents]
+     */
+    private static String subtractReps(String a, String b) {
+        int[] difference = new int[a.length()];
+        int borrow = 0;
+        for (int i = 0; i < difference.length; i++) {
+            int digit = a.charAt(a.length() - 1 - i) - '0' - borrow;
+            if (i < b.length()) {
+                digit -= b.charAt(b.length() - 1 - i) - '0';
+            }
+            borrow = 0;
+            if (digit < 0) {
+                digit += RADIX;
+                borrow = 1;
+            }
+            difference[i] = digit;
+        }
+        return repFromDigits(difference, difference.length);
+    }
+
+    /**
+     * Adds {@code x}, shifted left by {@code shift} digits, to {@code sum}.
+     *
+     * @param sum
+     *            the digits added to, least significant first
+     * @param x
+     *            the digits to add, least significant first
+     * @param shift
+     *            the number of digits to shift {@code x} by
+     * @updates sum
+     * @requires <pre>
+     * shift >= 0  and  [digits are in 0..9]  and
+     * [#sum + x * 10^shift fits in |sum| digits]
+     * </pre>
+     * @ensures sum = #sum + x * 10^shift
+     */
+    private static void addShifted(int[] sum, int[] x, int shift) {
+        int carry = 0;
+        int i = 0;
+        while (shift + i < sum.length && (i < x.length || carry > 0)) {
+            int digit = sum[shift + i] + carry;
+            if (i < x.length) {
+                digit += x[i];
+            }
+            sum[shift + i] = digit % RADIX;
+            carry = digit / RADIX;
+            i++;
+        }
+    }
+
+    /**
+     * Subtracts {@code x} from {@code difference}.
+     *
+     * @param difference
+     *            the digits subtracted from, least significant first
+     * @param x
+     *            the digits to subtract, least significant first
+     * @updates difference
+     * @requires [digits are in 0..9]  and  difference >= x
+     * @ensures difference = #difference - x
+     */
+    private static void subtractFrom(int[] difference, int[] x) {
+        int borrow = 0;
+        int i = 0;
+        while (i < difference.length && (i < x.length || borrow > 0)) {
+            int digit = difference[i] - borrow;
+            if (i < x.length) {
+                digit -= x[i];
+            }
+            borrow = 0;
+            if (digit < 0) {
+                digit += RADIX;
+                borrow = 1;
+            }
+            difference[i] = digit;
+            i++;
+        }
+    }
+
+    /**
+     * Returns the digits of the sum of the low part {@code a[0, split)} and
+     * the high part {@code a[split, |a|)} of {@code a}, least significant
+     * first.
+     *
+     * @param a
+     *            the digits, least significant first
+     * @param split
+     *            where {@code a} is split into low and high parts
+     * @return the digits of the sum of the two parts
+     * @requires 0 <= split <= |a|  and  [digits are in 0..9]
+     */
+    private static int[] sumOfHalves(int[] a, int split) {
+        int[] sum = new int[Math.max(split, a.length - split) + 1];
+        System.arraycopy(a, 0, sum, 0, split);
+        addShifted(sum, Arrays.copyOfRange(a, split, a.length), 0);
+        return sum;
+    }
+
+    /**
+     * Returns the digits of the product of {@code a} and {@code b}, by the
+     * schoolbook method.
+     *
+     * @param a
+     *            the first factor, least significant digit first
+     * @param b
+     *            the second factor, least significant digit first
+     * @return the digits of a * b, least significant first
+     * @requires [digits are in 0..9]
+     * @ensures |schoolbook| = |a| + |b|
+     */
+    private static int[] schoolbook(int[] a, int[] b) {
+        int[] product = new int[a.length + b.length];
+        for (int i = 0; i < a.length; i++) {
+            int carry = 0;
+            for (int j = 0; j < b.length; j++) {
+                int digit = product[i + j] + a[i] * b[j] + carry;
+                product[i + j] = digit % RADIX;
+                carry = digit / RADIX;
+            }
+            product[i + b.length] = carry;
+        }
+        return product;
+    }
+
+    /**
+     * Returns the digits of the product of {@code a} and {@code b}, by
+     * Karatsuba's method: with each factor split into high and low halves,
+     * the three products low * low, high * high, and (low + high) * (low +
+     * high) are enough to compute the whole product.
+     *
+     * @param a
+     *            the first factor, least significant digit first
+     * @param b
+     *            the second factor, least significant digit first
+     * @return the digits of a * b, least significant first
+     * @requires [digits are in 0..9]
+     * @ensures |karatsuba| = |a| + |b|
+     */
+    private static int[] karatsuba(int[] a, int[] b) {
+        int[] product;
+        if (Math.min(a.length, b.length) < KARATSUBA_THRESHOLD) {
+            product = schoolbook(a, b);
+        } else {
+            int split = Math.max(a.length, b.length) / 2;
+            int aSplit = Math.min(split, a.length);
+            int bSplit = Math.min(split, b.length);
+            int[] low = karatsuba(Arrays.copyOf(a, aSplit),
+                    Arrays.copyOf(b, bSplit));
+            int[] high = karatsuba(
+                    Arrays.copyOfRange(a, aSplit, a.length),
+                    Arrays.copyOfRange(b, bSplit, b.length));
+            int[] middle = karatsuba(sumOfHalves(a, aSplit),
+                    sumOfHalves(b, bSplit));
+            subtractFrom(middle, low);
+            subtractFrom(middle, high);
+            product = new int[a.length + b.length];
+            addShifted(product, low, 0);
+            addShifted(product, middle, split);
+            addShifted(product, high, 2 * split);
+        }
+        return product;
+    }
+
     /**
      *
      * Creator of initial representation.
@@ -170,4 +468,68 @@ public class NaturalNumber3 extends NaturalNumberSecondary {
         return this.rep.length() == 0;
     }
 
+    /*
+     * Secondary methods ------------------------------------------------------
+     */
+
+    @Override
+    public final int compareTo(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        return compareReps(this.rep, repOf(n));
+    }
+
+    @Override
+    public final void add(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        this.rep = addReps(this.rep, repOf(n));
+    }
+
+    @Override
+    public final void subtract(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        assert this.compareTo(n) >= 0 : "Violation of: this >= n";
+        this.rep = subtractReps(this.rep, repOf(n));
+    }
+
+    @Override
+    public final void multiply(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        int[] product = karatsuba(digitsFromRep(this.rep),
+                digitsFromRep(repOf(n)));
+        this.rep = repFromDigits(product, product.length);
+    }
+
+    @Override
+    public final NaturalNumber divide(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        assert !n.isZero() : "Violation of: n > 0";
+        String divisor = repOf(n);
+        /*
+         * Long division: bring down one digit of this at a time, and subtract
+         * the divisor from the running remainder at most nine times
+         */
+        char[] quotient = new char[this.rep.length()];
+        String remainder = "";
+        for (int i = 0; i < quotient.length; i++) {
+            remainder = remainder + this.rep.charAt(i);
+            if (remainder.equals("0")) {
+                remainder = "";
+            }
+            int digit = 0;
+            while (compareReps(remainder, divisor) >= 0) {
+                remainder = subtractReps(remainder, divisor);
+                digit++;
+            }
+            quotient[i] = (char) ('0' + digit);
+        }
+        int start = 0;
+        while (start < quotient.length && quotient[start] == '0') {
+            start++;
+        }
+        this.rep = new String(quotient, start, quotient.length - start);
+        NaturalNumber3 r = (NaturalNumber3) this.newInstance();
+        r.rep = remainder;
+        return r;
+    }
+
 }
@@ -0,0 +1,483 @@
+import java.util.Arrays;
+
+import components.naturalnumber.NaturalNumber;
+import components.naturalnumber.NaturalNumberSecondary;
+
+/**
+ * {@code NaturalNumber} represented as an array of base-10^9 "limbs", most
+ * significant first, with implementations of primary methods.
+ *
+ * <p>
+ * Every limb but the last holds nine decimal digits; the last holds only
+ * {@code $this.tailDigits} of them, so {@code multiplyBy10} and
+ * {@code divideBy10} change just the last limb, in place, and take amortized
+ * constant time instead of copying every digit as {@code NaturalNumber3} does.
+ * {@code add}, {@code subtract}, {@code multiply}, and {@code compareTo} are
+ * overridden to work on whole limbs.
+ *
+ * @convention <pre>
+ * 0 <= $this.length <= |$this.limbs|  and
+ * 1 <= $this.tailDigits <= LIMB_DIGITS  and
+ * [$this.limbs[0, $this.length - 1) are all in [0, LIMB_BASE)]  and
+ * [if $this.length > 0 then
+ *   0 <= $this.limbs[$this.length - 1] < 10^$this.tailDigits]  and
+ * [if $this.length > 0 then $this.limbs[0] > 0]  and
+ * [if $this.length = 0 then $this.tailDigits = LIMB_DIGITS]
+ * </pre>
+ * @correspondence <pre>
+ * this = [if $this.length = 0 then 0
+ *         else ($this.limbs[0, $this.length - 1) read as a base-LIMB_BASE
+ *               number, most significant limb first) * 10^$this.tailDigits
+ *              + $this.limbs[$this.length - 1]]
+ * </pre>
+ *
+ * @author Mati and Elijah
+ *
+ */
+public class NaturalNumber4 extends NaturalNumberSecondary {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of decimal digits in a full limb.
+     */
+    private static final int LIMB_DIGITS = 9;
+
+    /**
+     * Base of the limbs, 10^LIMB_DIGITS.
+     */
+    private static final int LIMB_BASE = 1_000_000_000;
+
+    /**
+     * Initial, and minimum, capacity of the limb array.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * POWERS_OF_10[i] = 10^i, for 0 <= i <= LIMB_DIGITS.
+     */
+    private static final int[] POWERS_OF_10 = { 1, 10, 100, 1_000, 10_000,
+            100_000, 1_000_000, 10_000_000, 100_000_000, LIMB_BASE };
+
+    /**
+     * Limbs of {@code this}, most significant first.
+     */
+    private int[] limbs;
+
+    /**
+     * Number of limbs in use.
+     */
+    private int length;
+
+    /**
+     * Number of decimal digits the last limb holds.
+     */
+    private int tailDigits;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * 0 <= $this.length <= |$this.limbs|  and
+     * 1 <= $this.tailDigits <= LIMB_DIGITS  and
+     * [if $this.length > 0 then
+     *   0 <= $this.limbs[$this.length - 1] < 10^$this.tailDigits]  and
+     * [if $this.length > 0 then $this.limbs[0] > 0]  and
+     * [if $this.length = 0 then $this.tailDigits = LIMB_DIGITS]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert 0 <= this.length && this.length <= this.limbs.length : ""
+                + "Violation of: 0 <= $this.length <= |$this.limbs|";
+        assert 1 <= this.tailDigits && this.tailDigits <= LIMB_DIGITS : ""
+                + "Violation of: 1 <= $this.tailDigits <= LIMB_DIGITS";
+        if (this.length > 0) {
+            int last = this.limbs[this.length - 1];
+            assert 0 <= last && last < POWERS_OF_10[this.tailDigits] : ""
+                    + "Violation of: 0 <= [last limb] < 10^$this.tailDigits";
+            assert this.limbs[0] > 0 : "Violation of: $this.limbs[0] > 0";
+        } else {
+            assert this.tailDigits == LIMB_DIGITS : ""
+                    + "Violation of: $this.tailDigits = LIMB_DIGITS";
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.limbs = new int[INITIAL_CAPACITY];
+        this.length = 0;
+        this.tailDigits = LIMB_DIGITS;
+    }
+
+    /**
+     * Sets the representation from the decimal depiction {@code s}, nine
+     * digits per limb.
+     *
+     * @param s
+     *            the decimal depiction
+     * @replaces this
+     * @requires there exists n: NATURAL (s = TO_STRING(n))
+     * @ensures this = [the number whose decimal depiction is s]
+     */
+    private void setFromDepiction(String s) {
+        this.createNewRep();
+        if (!s.equals("0")) {
+            int count = (s.length() + LIMB_DIGITS - 1) / LIMB_DIGITS;
+            this.limbs = new int[Math.max(count, INITIAL_CAPACITY)];
+            for (int i = 0; i < count; i++) {
+                int end = Math.min((i + 1) * LIMB_DIGITS, s.length());
+                this.limbs[i] = Integer
+                        .parseInt(s.substring(i * LIMB_DIGITS, end));
+            }
+            this.length = count;
+            this.tailDigits = s.length() - (count - 1) * LIMB_DIGITS;
+        }
+    }
+
+    /**
+     * Returns the value of {@code this} as base-10^9 limbs, least significant
+     * first, in an array with at least {@code extra} unused limbs past the
+     * most significant one.
+     *
+     * @param extra
+     *            the number of zero limbs to leave at the end
+     * @return the limbs of {@code this}, least significant first
+     * @requires extra >= 0
+     * @ensures <pre>
+     * [toAligned, read as a base-LIMB_BASE number, least significant limb
+     *  first, = this]  and
+     * [the last extra entries of toAligned are 0]
+     * </pre>
+     */
+    private int[] toAligned(int extra) {
+        int[] aligned = new int[this.length + extra];
+        if (this.length > 0) {
+            /*
+             * The last limb holds the low tailDigits digits; each limb
+             * before it contributes its low (LIMB_DIGITS - tailDigits) digits
+             * to the top of one aligned limb and the rest to the bottom of
+             * the next.
+             */
+            int low = POWERS_OF_10[this.tailDigits];
+            int high = POWERS_OF_10[LIMB_DIGITS - this.tailDigits];
+            int carried = this.limbs[this.length - 1];
+            for (int i = 0; i < this.length - 1; i++) {
+                int limb = this.limbs[this.length - 2 - i];
+                aligned[i] = carried + (limb % high) * low;
+                carried = limb / high;
+            }
+            aligned[this.length - 1] = carried;
+        }
+        return aligned;
+    }
+
+    /**
+     * Sets {@code this} to the value of {@code aligned}, limbs least
+     * significant first.
+     *
+     * @param aligned
+     *            the limbs of the new value, least significant first
+     * @replaces this
+     * @requires [entries of aligned are in [0, LIMB_BASE)]
+     * @ensures this = [aligned, read as a base-LIMB_BASE number, least
+     *          significant limb first]
+     */
+    private void setFromAligned(int[] aligned) {
+        int count = significantLength(aligned);
+        this.createNewRep();
+        if (count > 0) {
+            this.limbs = new int[Math.max(count, INITIAL_CAPACITY)];
+            for (int i = 0; i < count; i++) {
+                this.limbs[i] = aligned[count - 1 - i];
+            }
+            this.length = count;
+        }
+    }
+
+    /**
+     * Returns the limbs of {@code n}, least significant first, with
+     * {@code extra} zero limbs past the most significant one.
+     *
+     * @param n
+     *            the number
+     * @param extra
+     *            the number of zero limbs to leave at the end
+     * @return the limbs of {@code n}, least significant first
+     * @requires extra >= 0
+     * @ensures [aligned, read as a base-LIMB_BASE number, least significant
+     *          limb first, = n]
+     */
+    private static int[] aligned(NaturalNumber n, int extra) {
+        NaturalNumber4 local;
+        if (n instanceof NaturalNumber4) {
+            local = (NaturalNumber4) n;
+        } else {
+            local = new NaturalNumber4(n);
+        }
+        return local.toAligned(extra);
+    }
+
+    /**
+     * Returns the number of limbs of {@code a} up to and including its most
+     * significant nonzero one.
+     *
+     * @param a
+     *            the limbs, least significant first
+     * @return the number of significant limbs of {@code a}
+     * @ensures <pre>
+     * 0 <= significantLength <= |a|  and
+     * [a[significantLength, |a|) are all 0]  and
+     * [if significantLength > 0 then a[significantLength - 1] /= 0]
+     * </pre>
+     */
+    private static int significantLength(int[] a) {
+        int count = a.length;
+        while (count > 0 && a[count - 1] == 0) {
+            count--;
+        }
+        return count;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public NaturalNumber4() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from {@code int}.
+     *
+     * @param i
+     *            {@code int} to initialize from
+     */
+    public NaturalNumber4(int i) {
+        assert i >= 0 : "Violation of: i >= 0";
+        this.setFromDepiction(Integer.toString(i));
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from {@code String}.
+     *
+     * @param s
+     *            {@code String} to initialize from
+     */
+    public NaturalNumber4(String s) {
+        assert s != null : "Violation of: s is not null";
+        assert s.matches("0|[1-9]\\d*") : ""
+                + "Violation of: there exists n: NATURAL (s = TO_STRING(n))";
+        this.setFromDepiction(s);
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from {@code NaturalNumber}.
+     *
+     * @param n
+     *            {@code NaturalNumber} to initialize from
+     */
+    public NaturalNumber4(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        if (n instanceof NaturalNumber4) {
+            NaturalNumber4 localN = (NaturalNumber4) n;
+            this.limbs = Arrays.copyOf(localN.limbs,
+                    Math.max(localN.length, INITIAL_CAPACITY));
+            this.length = localN.length;
+            this.tailDigits = localN.tailDigits;
+        } else {
+            this.setFromDepiction(n.toString());
+        }
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final NaturalNumber newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(NaturalNumber source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof NaturalNumber4 : ""
+                + "Violation of: source is of dynamic type NaturalNumber4";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        NaturalNumber4 localSource = (NaturalNumber4) source;
+        this.limbs = localSource.limbs;
+        this.length = localSource.length;
+        this.tailDigits = localSource.tailDigits;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void multiplyBy10(int k) {
+        assert 0 <= k : "Violation of: 0 <= k";
+        assert k < RADIX : "Violation of: k < 10";
+        if (this.length > 0 || k > 0) {
+            if (this.tailDigits == LIMB_DIGITS) {
+                if (this.length == this.limbs.length) {
+                    this.limbs = Arrays.copyOf(this.limbs, 2 * this.length);
+                }
+                this.limbs[this.length] = k;
+                this.length++;
+                this.tailDigits = 1;
+            } else {
+                this.limbs[this.length - 1] = this.limbs[this.length - 1]
+                        * RADIX + k;
+                this.tailDigits++;
+            }
+        }
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int divideBy10() {
+        int remainder = 0;
+        if (this.length > 0) {
+            int last = this.limbs[this.length - 1];
+            remainder = last % RADIX;
+            this.limbs[this.length - 1] = last / RADIX;
+            this.tailDigits--;
+            if (this.tailDigits == 0) {
+                this.length--;
+                this.tailDigits = LIMB_DIGITS;
+            }
+            if (this.length == 1 && this.limbs[0] == 0) {
+                this.length = 0;
+                this.tailDigits = LIMB_DIGITS;
+            }
+        }
+        assert this.conventionHolds();
+        return remainder;
+    }
+
+    @Override
+    public final boolean isZero() {
+        return this.length == 0;
+    }
+
+    /*
+     * Secondary methods ------------------------------------------------------
+     */
+
+    @Override
+    public final int compareTo(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        int[] a = this.toAligned(0);
+        int[] b = aligned(n, 0);
+        int aLength = significantLength(a);
+        int bLength = significantLength(b);
+        int result = Integer.compare(aLength, bLength);
+        for (int i = aLength - 1; result == 0 && i >= 0; i--) {
+            result = Integer.compare(a[i], b[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public final void add(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        int[] b = aligned(n, 0);
+        int[] sum = this.toAligned(Math.max(b.length - this.length, 0) + 1);
+        int carry = 0;
+        for (int i = 0; i < sum.length; i++) {
+            int digit = sum[i] + carry;
+            if (i < b.length) {
+                digit += b[i];
+            }
+            carry = 0;
+            if (digit >= LIMB_BASE) {
+                digit -= LIMB_BASE;
+                carry = 1;
+            }
+            sum[i] = digit;
+        }
+        this.setFromAligned(sum);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void subtract(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        assert this.compareTo(n) >= 0 : "Violation of: this >= n";
+        int[] b = aligned(n, 0);
+        int[] difference = this.toAligned(0);
+        int bLength = significantLength(b);
+        int borrow = 0;
+        for (int i = 0; i < difference.length
+                && (i < bLength || borrow > 0); i++) {
+            int digit = difference[i] - borrow;
+            if (i < bLength) {
+                digit -= b[i];
+            }
+            borrow = 0;
+            if (digit < 0) {
+                digit += LIMB_BASE;
+                borrow = 1;
+            }
+            difference[i] = digit;
+        }
+        this.setFromAligned(difference);
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void multiply(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        int[] a = this.toAligned(0);
+        int[] b = aligned(n, 0);
+        int[] product = new int[a.length + b.length];
+        for (int i = 0; i < a.length; i++) {
+            long carry = 0;
+            if (a[i] != 0) {
+                for (int j = 0; j < b.length; j++) {
+                    long digit = product[i + j] + (long) a[i] * b[j] + carry;
+                    product[i + j] = (int) (digit % LIMB_BASE);
+                    carry = digit / LIMB_BASE;
+                }
+            }
+            product[i + b.length] = (int) carry;
+        }
+        this.setFromAligned(product);
+        assert this.conventionHolds();
+    }
+
+}
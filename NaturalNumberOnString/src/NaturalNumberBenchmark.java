@@ -0,0 +1,176 @@
+import components.naturalnumber.NaturalNumber;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares {@code NaturalNumber3} ({@code String} of digits) with
+ * {@code NaturalNumber4} (array of base-10^9 limbs) on numbers of growing
+ * length: building a number digit by digit with {@code multiplyBy10}, adding
+ * and subtracting another number of the same length, multiplying by a short
+ * number, and taking the number apart digit by digit with {@code divideBy10}.
+ * {@code NaturalNumber3} is only measured on the shorter numbers, since each
+ * of its kernel calls copies every digit.
+ *
+ * @author Mati and Elijah
+ *
+ */
+public final class NaturalNumberBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private NaturalNumberBenchmark() {
+    }
+
+    /**
+     * Smallest number of digits measured.
+     */
+    private static final int MIN_DIGITS = 1_000;
+
+    /**
+     * Largest number of digits measured for {@code NaturalNumber3}.
+     */
+    private static final int MAX_DIGITS_3 = 10_000;
+
+    /**
+     * Largest number of digits measured for {@code NaturalNumber4}.
+     */
+    private static final int MAX_DIGITS_4 = 100_000;
+
+    /**
+     * Factor by which the number of digits grows between measurements.
+     */
+    private static final int GROWTH = 10;
+
+    /**
+     * Number of digits of the multiplier.
+     */
+    private static final int MULTIPLIER_DIGITS = 10;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns the time, in milliseconds, elapsed since {@code start}.
+     *
+     * @param start
+     *            the start time, from {@code System.nanoTime}
+     * @return the elapsed milliseconds
+     */
+    private static String millisSince(long start) {
+        return String.format("%.1f",
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the {@code i}-th digit of a fixed pseudo-random sequence that
+     * starts with a nonzero digit.
+     *
+     * @param i
+     *            the position of the digit
+     * @param seed
+     *            selects the sequence
+     * @return the digit
+     * @requires i >= 0
+     * @ensures 0 <= digit < 10  and  [if i = 0 then digit > 0]
+     */
+    private static int digit(int i, int seed) {
+        final int multiplier = 31;
+        final int offset = 7;
+        int d = Math.floorMod(i * multiplier + seed * offset + i / offset,
+                NaturalNumber.RADIX);
+        if (i == 0 && d == 0) {
+            d = 1;
+        }
+        return d;
+    }
+
+    /**
+     * Runs the measured operations on {@code n}, {@code m}, and {@code k},
+     * which start at zero, and outputs the times taken.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            the name of the implementation
+     * @param digits
+     *            the number of digits of {@code n} and {@code m}
+     * @param n
+     *            the first operand
+     * @param m
+     *            the second operand
+     * @param k
+     *            the multiplier
+     * @updates out.content, n, m, k
+     * @requires out.is_open  and  n = 0  and  m = 0  and  k = 0  and
+     *           digits > 0
+     */
+    private static void measure(SimpleWriter out, String name, int digits,
+            NaturalNumber n, NaturalNumber m, NaturalNumber k) {
+        long start = System.nanoTime();
+        for (int i = 0; i < digits; i++) {
+            n.multiplyBy10(digit(i, 1));
+        }
+        String buildTime = millisSince(start);
+        for (int i = 0; i < digits; i++) {
+            m.multiplyBy10(digit(i, 2));
+        }
+        for (int i = 0; i < MULTIPLIER_DIGITS; i++) {
+            k.multiplyBy10(digit(i, 3));
+        }
+        NaturalNumber original = n.newInstance();
+        original.copyFrom(n);
+        start = System.nanoTime();
+        n.add(m);
+        String addTime = millisSince(start);
+        start = System.nanoTime();
+        n.subtract(m);
+        String subtractTime = millisSince(start);
+        if (n.compareTo(original) != 0) {
+            throw new AssertionError("add and subtract do not cancel in "
+                    + name);
+        }
+        start = System.nanoTime();
+        n.multiply(k);
+        String multiplyTime = millisSince(start);
+        start = System.nanoTime();
+        int count = 0;
+        while (!n.isZero()) {
+            n.divideBy10();
+            count++;
+        }
+        String drainTime = millisSince(start);
+        if (count < digits + MULTIPLIER_DIGITS - 1) {
+            throw new AssertionError("Product too short in " + name);
+        }
+        out.println(name + "\t" + digits + "\t" + buildTime + "\t" + addTime
+                + "\t" + subtractTime + "\t" + multiplyTime + "\t"
+                + drainTime);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Number\tDigits\tBuild ms\tAdd ms\tSubtract ms\t"
+                + "Multiply ms\tDrain ms");
+        out.println("------\t------\t--------\t------\t-----------\t"
+                + "-----------\t--------");
+        for (int d = MIN_DIGITS; d <= MAX_DIGITS_3; d *= GROWTH) {
+            measure(out, "NaturalNumber3", d, new NaturalNumber3(),
+                    new NaturalNumber3(), new NaturalNumber3());
+        }
+        for (int d = MIN_DIGITS; d <= MAX_DIGITS_4; d *= GROWTH) {
+            measure(out, "NaturalNumber4", d, new NaturalNumber4(),
+                    new NaturalNumber4(), new NaturalNumber4());
+        }
+        out.close();
+    }
+
+}
@@ -1,3 +1,8 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
 import components.naturalnumber.NaturalNumber;
 
 /**
@@ -45,4 +50,164 @@ public class NaturalNumber3Test extends NaturalNumberTest {
         return new NaturalNumber3(n);
     }
 
+    /**
+     * Returns the depiction of 10^k - 1, i.e., k nines.
+     *
+     * @param k
+     *            the number of digits
+     * @return k nines
+     * @requires k > 0
+     */
+    private static String nines(int k) {
+        StringBuilder nines = new StringBuilder();
+        for (int i = 0; i < k; i++) {
+            nines.append('9');
+        }
+        return nines.toString();
+    }
+
+    @Test
+    public final void testCompareToShorterAndLonger() {
+        NaturalNumber n = this.constructorTest("999");
+        NaturalNumber m = this.constructorTest("1000");
+        assertTrue(n.compareTo(m) < 0);
+        assertTrue(m.compareTo(n) > 0);
+        assertEquals(this.constructorRef("999"), n);
+        assertEquals(this.constructorRef("1000"), m);
+    }
+
+    @Test
+    public final void testCompareToSameLength() {
+        NaturalNumber n = this.constructorTest("1234");
+        NaturalNumber m = this.constructorTest("1243");
+        assertTrue(n.compareTo(m) < 0);
+        assertTrue(n.compareTo(this.constructorTest(1234)) == 0);
+    }
+
+    @Test
+    public final void testCompareToZero() {
+        NaturalNumber n = this.constructorTest();
+        assertTrue(n.compareTo(this.constructorTest(0)) == 0);
+        assertTrue(n.compareTo(this.constructorTest(1)) < 0);
+    }
+
+    @Test
+    public final void testAddWithCarries() {
+        NaturalNumber n = this.constructorTest("99999");
+        NaturalNumber m = this.constructorTest(1);
+        n.add(m);
+        assertEquals(this.constructorRef("100000"), n);
+        assertEquals(this.constructorRef(1), m);
+    }
+
+    @Test
+    public final void testAddZero() {
+        NaturalNumber n = this.constructorTest();
+        NaturalNumber m = this.constructorTest(472);
+        n.add(m);
+        assertEquals(this.constructorRef(472), n);
+        m.add(this.constructorTest());
+        assertEquals(this.constructorRef(472), m);
+    }
+
+    @Test
+    public final void testSubtractWithBorrows() {
+        NaturalNumber n = this.constructorTest("100000");
+        NaturalNumber m = this.constructorTest(1);
+        n.subtract(m);
+        assertEquals(this.constructorRef("99999"), n);
+        assertEquals(this.constructorRef(1), m);
+    }
+
+    @Test
+    public final void testSubtractToZero() {
+        NaturalNumber n = this.constructorTest("123456789");
+        NaturalNumber m = this.constructorTest("123456789");
+        n.subtract(m);
+        assertTrue(n.isZero());
+        assertEquals(this.constructorRef(), n);
+    }
+
+    @Test
+    public final void testMultiplySmall() {
+        NaturalNumber n = this.constructorTest(12345);
+        NaturalNumber m = this.constructorTest(6789);
+        n.multiply(m);
+        assertEquals(this.constructorRef("83810205"), n);
+        assertEquals(this.constructorRef(6789), m);
+    }
+
+    @Test
+    public final void testMultiplyByZero() {
+        NaturalNumber n = this.constructorTest(12345);
+        n.multiply(this.constructorTest());
+        assertEquals(this.constructorRef(), n);
+    }
+
+    @Test
+    public final void testMultiplyKaratsuba() {
+        /*
+         * (10^k - 1)^2 = 10^2k - 2 * 10^k + 1, i.e., k - 1 nines, an eight, k
+         * - 1 zeros, and a one
+         */
+        final int k = 300;
+        NaturalNumber n = this.constructorTest(nines(k));
+        NaturalNumber m = this.constructorTest(nines(k));
+        n.multiply(m);
+        StringBuilder expected = new StringBuilder(nines(k - 1));
+        expected.append('8');
+        for (int i = 0; i < k - 1; i++) {
+            expected.append('0');
+        }
+        expected.append('1');
+        assertEquals(this.constructorRef(expected.toString()), n);
+        assertEquals(this.constructorRef(nines(k)), m);
+    }
+
+    @Test
+    public final void testMultiplyKaratsubaUnequalLengths() {
+        /*
+         * (10^k - 1) * (10^j - 1) with j < k is j - 1 nines, an eight, k - j
+         * nines, j - 1 zeros, and a one
+         */
+        final int k = 250;
+        final int j = 90;
+        NaturalNumber n = this.constructorTest(nines(k));
+        n.multiply(this.constructorTest(nines(j)));
+        StringBuilder expected = new StringBuilder(nines(j - 1));
+        expected.append('8');
+        expected.append(nines(k - j));
+        for (int i = 0; i < j - 1; i++) {
+            expected.append('0');
+        }
+        expected.append('1');
+        assertEquals(this.constructorRef(expected.toString()), n);
+    }
+
+    @Test
+    public final void testDivide() {
+        NaturalNumber n = this.constructorTest("83810211");
+        NaturalNumber m = this.constructorTest(6789);
+        NaturalNumber r = n.divide(m);
+        assertEquals(this.constructorRef(12345), n);
+        assertEquals(this.constructorRef(6), r);
+        assertEquals(this.constructorRef(6789), m);
+    }
+
+    @Test
+    public final void testDivideSmallerByLarger() {
+        NaturalNumber n = this.constructorTest(42);
+        NaturalNumber r = n.divide(this.constructorTest(100));
+        assertEquals(this.constructorRef(), n);
+        assertEquals(this.constructorRef(42), r);
+    }
+
+    @Test
+    public final void testDivideWithZerosInQuotient() {
+        NaturalNumber n = this.constructorTest("70000700");
+        NaturalNumber r = n.divide(this.constructorTest(7));
+        assertEquals(this.constructorRef("10000100"), n);
+        assertEquals(this.constructorRef(), r);
+    }
+
 }
@@ -0,0 +1,240 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.naturalnumber.NaturalNumber;
+import components.naturalnumber.NaturalNumber1L;
+
+/**
+ * Customized JUnit test fixture for {@code NaturalNumber4}.
+ */
+public class NaturalNumber4Test extends NaturalNumberTest {
+
+    @Override
+    protected final NaturalNumber constructorTest() {
+        return new NaturalNumber4();
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(int i) {
+        return new NaturalNumber4(i);
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(String s) {
+        return new NaturalNumber4(s);
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(NaturalNumber n) {
+        return new NaturalNumber4(n);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef() {
+        return new NaturalNumber4();
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(int i) {
+        return new NaturalNumber4(i);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(String s) {
+        return new NaturalNumber4(s);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(NaturalNumber n) {
+        return new NaturalNumber4(n);
+    }
+
+    /**
+     * Returns {@code k} copies of {@code digit}.
+     *
+     * @param digit
+     *            the digit
+     * @param k
+     *            the number of copies
+     * @return k copies of digit
+     * @requires k > 0
+     */
+    private static String repeated(char digit, int k) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < k; i++) {
+            digits.append(digit);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Returns a number built digit by digit with {@code multiplyBy10}, so
+     * that its last limb holds only the digits past the last multiple of
+     * nine.
+     *
+     * @param s
+     *            the decimal depiction of the number
+     * @return the number
+     * @requires there exists n: NATURAL (s = TO_STRING(n))
+     */
+    private NaturalNumber builtByDigits(String s) {
+        NaturalNumber n = this.constructorTest();
+        for (int i = 0; i < s.length(); i++) {
+            n.multiplyBy10(s.charAt(i) - '0');
+        }
+        return n;
+    }
+
+    @Test
+    public final void testAddPartialLastLimbs() {
+        NaturalNumber n = this.constructorTest("123456789012");
+        NaturalNumber m = this.constructorTest("987654321987654");
+        n.add(m);
+        assertEquals(this.constructorRef("987777778776666"), n);
+        assertEquals(this.constructorRef("987654321987654"), m);
+    }
+
+    @Test
+    public final void testAddCarriesAcrossLimbs() {
+        final int k = 20;
+        NaturalNumber n = this.builtByDigits(repeated('9', k));
+        NaturalNumber m = this.constructorTest(1);
+        n.add(m);
+        assertEquals(this.constructorRef("1" + repeated('0', k)), n);
+        assertEquals(this.constructorRef(1), m);
+    }
+
+    @Test
+    public final void testAddAfterMultiplyBy10() {
+        NaturalNumber n = this.constructorTest("12345678901234");
+        n.multiplyBy10(7);
+        n.add(this.constructorTest("999999999"));
+        assertEquals(this.constructorRef("123457789012346"), n);
+    }
+
+    @Test
+    public final void testAddAfterDivideBy10() {
+        NaturalNumber n = this.constructorTest("1234567890123456789");
+        n.divideBy10();
+        n.divideBy10();
+        n.divideBy10();
+        n.add(this.constructorTest(1));
+        assertEquals(this.constructorRef("1234567890123457"), n);
+    }
+
+    @Test
+    public final void testSubtractPartialLastLimbs() {
+        NaturalNumber n = this.constructorTest("987654321987654");
+        NaturalNumber m = this.constructorTest("123456789012");
+        n.subtract(m);
+        assertEquals(this.constructorRef("987530865198642"), n);
+        assertEquals(this.constructorRef("123456789012"), m);
+    }
+
+    @Test
+    public final void testSubtractBorrowsAcrossLimbs() {
+        final int k = 20;
+        NaturalNumber n = this.builtByDigits("1" + repeated('0', k));
+        NaturalNumber m = this.constructorTest(1);
+        n.subtract(m);
+        assertEquals(this.constructorRef(repeated('9', k)), n);
+        assertEquals(this.constructorRef(1), m);
+    }
+
+    @Test
+    public final void testSubtractAfterDivideBy10() {
+        final int k = 18;
+        NaturalNumber n = this.constructorTest("1" + repeated('0', k));
+        n.divideBy10();
+        n.subtract(this.constructorTest(1));
+        assertEquals(this.constructorRef(repeated('9', k - 1)), n);
+    }
+
+    @Test
+    public final void testMultiplyMultiLimb() {
+        NaturalNumber n = this.constructorTest("123456789012345678901");
+        NaturalNumber m = this.constructorTest("98765432109876543210");
+        n.multiply(m);
+        assertEquals(this.constructorRef(
+                "12193263113702179522473403443222511812210"), n);
+        assertEquals(this.constructorRef("98765432109876543210"), m);
+    }
+
+    @Test
+    public final void testMultiplyPartialLastLimbs() {
+        /*
+         * (10^13 - 1) * (10^11 - 1) = 10^24 - 10^13 - 10^11 + 1
+         */
+        NaturalNumber n = this.builtByDigits(repeated('9', 13));
+        n.multiply(this.builtByDigits(repeated('9', 11)));
+        assertEquals(this.constructorRef("999999999989900000000001"), n);
+    }
+
+    @Test
+    public final void testMultiplyBy10AfterAdd() {
+        /*
+         * The sum has full limbs only, the depiction a partial last one
+         */
+        NaturalNumber n = this.constructorTest("999999999");
+        n.add(this.constructorTest(1));
+        n.multiplyBy10(5);
+        assertEquals(this.constructorRef("10000000005"), n);
+        assertEquals(5, n.divideBy10());
+        assertEquals(this.constructorRef("1000000000"), n);
+    }
+
+    @Test
+    public final void testCompareToEqualDifferentTailDigits() {
+        /*
+         * The sum has a last limb of nine digits, while the depiction of the
+         * same number has a last limb of one digit
+         */
+        NaturalNumber n = this.constructorTest("999999999");
+        n.add(this.constructorTest(1));
+        NaturalNumber m = this.constructorTest("1000000000");
+        assertEquals(0, n.compareTo(m));
+        assertEquals(0, m.compareTo(n));
+        assertEquals(m, n);
+        assertTrue(n.compareTo(this.constructorTest("1000000001")) < 0);
+        assertTrue(n.compareTo(this.constructorTest("999999999")) > 0);
+    }
+
+    @Test
+    public final void testAddMixedImplementations() {
+        NaturalNumber n = this.constructorTest("999999999999");
+        NaturalNumber m = new NaturalNumber1L("123456789");
+        n.add(m);
+        assertEquals(this.constructorRef("1000123456788"), n);
+        assertEquals(new NaturalNumber1L("123456789"), m);
+    }
+
+    @Test
+    public final void testSubtractMixedImplementations() {
+        final int k = 21;
+        NaturalNumber n = this.constructorTest("1" + repeated('0', k));
+        NaturalNumber m = new NaturalNumber3(1);
+        n.subtract(m);
+        assertEquals(this.constructorRef(repeated('9', k)), n);
+        assertEquals(new NaturalNumber3(1), m);
+    }
+
+    @Test
+    public final void testMultiplyMixedImplementations() {
+        NaturalNumber n = this.constructorTest("999999999999");
+        NaturalNumber m = new NaturalNumber1L("1000000007");
+        n.multiply(m);
+        assertEquals(this.constructorRef("1000000006998999999993"), n);
+        assertEquals(new NaturalNumber1L("1000000007"), m);
+    }
+
+    @Test
+    public final void testCompareToMixedImplementations() {
+        NaturalNumber n = this.constructorTest("123456789012");
+        assertEquals(0, n.compareTo(new NaturalNumber3("123456789012")));
+        assertTrue(n.compareTo(new NaturalNumber1L("123456789013")) < 0);
+        assertTrue(n.compareTo(new NaturalNumber1L("99999999999")) > 0);
+    }
+
+}
@@ -1,16 +1,24 @@
 import java.lang.reflect.Constructor;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-import components.queue.Queue;
-import components.queue.Queue1L;
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachineSecondary;
 
 /**
- * {@code SortingMachine} represented as a {@code Queue} (using an embedding of
+ * {@code SortingMachine} represented as an array (using an embedding of binary
  * insertion sort), with implementations of primary methods.
  *
+ * <p>
+ * {@code add} only appends to the array, since nothing in insertion mode
+ * depends on the order of the entries. {@code changeToExtractionMode} then
+ * sorts them all at once: runs of {@code RUN_LENGTH} entries are sorted by
+ * insertion sort, each entry placed by binary search and the larger ones
+ * shifted up with a single array copy, and the runs are then merged in pairs.
+ * Equal entries are removed in the order in which they were added.
+ *
  * @param <T>
  *            type of {@code SortingMachine} entries
  * @mathdefinitions <pre>
@@ -29,11 +37,18 @@ import components.sortingmachine.SortingMachineSecondary;
  * </pre>
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])  and
- * IS_SORTED($this.entries, [relation computed by $this.machineOrder.compare method])
+ * 0 <= $this.first <= $this.length <= |$this.entries|  and
+ * [the entries of $this.entries outside [$this.first, $this.length) are null]
+ *  and
+ * if $this.insertionMode then
+ *  $this.first = 0
+ * else
+ *  IS_SORTED($this.entries[$this.first, $this.length),
+ *    [relation computed by $this.machineOrder.compare method])
  * </pre>
  * @correspondence <pre>
- * this =
- *   ($this.insertionMode, $this.machineOrder, multiset_entries($this.entries))
+ * this = ($this.insertionMode, $this.machineOrder,
+ *   multiset_entries($this.entries[$this.first, $this.length)))
  * </pre>
  */
 public class SortingMachine3<T> extends SortingMachineSecondary<T> {
@@ -42,6 +57,16 @@ public class SortingMachine3<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Initial, and minimum, capacity of the array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Length of the runs sorted by binary insertion sort before merging.
+     */
+    private static final int RUN_LENGTH = 32;
+
     /**
      * Insertion mode.
      */
@@ -55,66 +80,177 @@ public class SortingMachine3<T> extends SortingMachineSecondary<T> {
     /**
      * Entries.
      */
-    private Queue<T> entries;
+    private T[] entries;
 
     /**
-     * Creator of initial representation.
+     * Index of the first entry, which {@code removeFirst} returns.
+     */
+    private int first;
+
+    /**
+     * Index after the last entry.
+     */
+    private int length;
+
+    /**
+     * Inserts {@code array[last]} into the sorted {@code array[lo, last)},
+     * after any entries equal to it, so that {@code array[lo, last]} is
+     * sorted. The place is found by binary search, and the larger entries are
+     * moved up one place with a single array copy.
      *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the sorted range
+     * @param last
+     *            the index of the entry to insert
      * @param order
-     *            total preorder for sorting
+     *            the {@code Comparator} defining the order for {@code T}
+     * @updates array
+     * @requires <pre>
+     * 0 <= lo <= last < |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
+     * IS_SORTED(array[lo, last), [relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * perms(array[lo, last], #array[lo, last])  and
+     * IS_SORTED(array[lo, last], [relation computed by order.compare method])
+     *  and  [the other entries of array are the same as in #array]
+     * </pre>
      */
-    private void createNewRep(Comparator<T> order) {
-        this.insertionMode = true;
-        this.machineOrder = order;
-        this.entries = new Queue1L<T>();
+    private static <T> void insertInOrder(T[] array, int lo, int last,
+            Comparator<T> order) {
+        T x = array[last];
+        int low = lo;
+        int high = last;
+        while (low < high) {
+            int mid = low + (high - low) / 2;
+            if (order.compare(array[mid], x) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        System.arraycopy(array, low, array, low + 1, last - low);
+        array[low] = x;
     }
 
     /**
-     * Inserts the given {@code T} in the {@code Queue<T>} sorted according to
-     * the given {@code Comparator<T>} and maintains the {@code Queue<T>}
-     * sorted.
+     * Merges the sorted runs {@code from[lo, mid)} and {@code from[mid, hi)}
+     * into {@code to[lo, hi)}; of equal entries, those of the first run come
+     * first.
      *
      * @param <T>
-     *            type of {@code Queue} entries
-     * @param q
-     *            the {@code Queue} to insert into
-     * @param x
-     *            the {@code T} to insert
+     *            type of array entries
+     * @param from
+     *            the array holding the runs
+     * @param to
+     *            the array receiving the merged entries
+     * @param lo
+     *            the first index of the first run
+     * @param mid
+     *            the first index of the second run
+     * @param hi
+     *            the index after the last of the second run
      * @param order
      *            the {@code Comparator} defining the order for {@code T}
-     * @updates q
+     * @updates to
      * @requires <pre>
-     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
-     * IS_SORTED(q, [relation computed by order.compare method])
+     * 0 <= lo <= mid <= hi <= |from|  and  hi <= |to|  and
+     * IS_SORTED(from[lo, mid), [relation computed by order.compare method])
+     *  and
+     * IS_SORTED(from[mid, hi), [relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * perms(q, #q * <x>)  and
-     * IS_SORTED(q, [relation computed by order.compare method])
+     * perms(to[lo, hi), from[lo, hi))  and
+     * IS_SORTED(to[lo, hi), [relation computed by order.compare method])
      * </pre>
      */
-    private static <T> void insertInOrder(Queue<T> q, T x,
+    private static <T> void merge(T[] from, T[] to, int lo, int mid, int hi,
             Comparator<T> order) {
-        assert q != null : "Violation of: q is not null";
-        assert x != null : "Violation of: x is not null";
-        assert order != null : "Violation of: order is not null";
-        Queue<T> temp = q.newInstance();
-        int oldLength = q.length();
-        boolean xAdd = false;
-        while (q.length() > 0) {
-            T y = q.dequeue();
-            if (order.compare(x, y) <= 0 && !xAdd) {
-                temp.enqueue(x);
-                temp.enqueue(y);
-                xAdd = true;
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j == hi || (i < mid && order.compare(from[j], from[i]) >= 0)) {
+                to[k] = from[i];
+                i++;
             } else {
-                temp.enqueue(y);
+                to[k] = from[j];
+                j++;
             }
         }
-        q.transferFrom(temp);
-        if (q.length() == oldLength) {
-            temp.enqueue(x);
-            q.append(temp);
+    }
+
+    /**
+     * Sorts {@code array[0, length)}, stably: first each run of
+     * {@code RUN_LENGTH} entries by binary insertion sort, then by merging
+     * pairs of runs, of doubling length, back and forth between
+     * {@code array} and a second array.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param length
+     *            the number of entries to sort
+     * @param order
+     *            the {@code Comparator} defining the order for {@code T}
+     * @updates array
+     * @requires <pre>
+     * 0 <= length <= |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * perms(array[0, length), #array[0, length))  and
+     * IS_SORTED(array[0, length), [relation computed by order.compare method])
+     *  and  [the other entries of array are the same as in #array]
+     * </pre>
+     */
+    private static <T> void sort(T[] array, int length, Comparator<T> order) {
+        for (int lo = 0; lo < length; lo += RUN_LENGTH) {
+            int hi = Math.min(lo + RUN_LENGTH, length);
+            for (int last = lo + 1; last < hi; last++) {
+                insertInOrder(array, lo, last, order);
+            }
         }
+        if (length > RUN_LENGTH) {
+            T[] from = array;
+            T[] to = Arrays.copyOf(array, length);
+            for (int run = RUN_LENGTH; run < length; run *= 2) {
+                for (int lo = 0; lo < length; lo += 2 * run) {
+                    int mid = Math.min(lo + run, length);
+                    int hi = Math.min(lo + 2 * run, length);
+                    merge(from, to, lo, mid, hi, order);
+                }
+                T[] tmp = from;
+                from = to;
+                to = tmp;
+            }
+            if (from != array) {
+                System.arraycopy(from, 0, array, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.first = 0;
+        this.length = 0;
     }
 
     /*
@@ -168,6 +304,8 @@ public class SortingMachine3<T> extends SortingMachineSecondary<T> {
         this.insertionMode = localSource.insertionMode;
         this.machineOrder = localSource.machineOrder;
         this.entries = localSource.entries;
+        this.first = localSource.first;
+        this.length = localSource.length;
         localSource.createNewRep(localSource.machineOrder);
     }
 
@@ -179,16 +317,17 @@ public class SortingMachine3<T> extends SortingMachineSecondary<T> {
     public final void add(T x) {
         assert x != null : "Violation of: x is not null";
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
-        // TODO #2 - insert x into machine contents (keep it sorted)
-        insertInOrder(this.entries, x, this.machineOrder);
-
+        if (this.length == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, 2 * this.length);
+        }
+        this.entries[this.length] = x;
+        this.length++;
     }
 
     @Override
     public final void changeToExtractionMode() {
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
-
-        // TODO #3 - switch machine from insertion to extraction mode
+        sort(this.entries, this.length, this.machineOrder);
         this.insertionMode = false;
     }
 
@@ -197,43 +336,77 @@ public class SortingMachine3<T> extends SortingMachineSecondary<T> {
         assert !this
                 .isInInsertionMode() : "Violation of: not this.insertion_mode";
         assert this.size() > 0 : "Violation of: this.contents /= {}";
-
-        // TODO #4 - remove and return first entry in machine contents
-        // This line added just to make the component compilable.
-        return this.entries.dequeue();
+        T x = this.entries[this.first];
+        this.entries[this.first] = null;
+        this.first++;
+        return x;
     }
 
     @Override
     public final boolean isInInsertionMode() {
-
-        // TODO #5 - report whether machine is in insertion mode
-
-        // This line added just to make the component compilable.
         return this.insertionMode;
     }
 
     @Override
     public final Comparator<T> order() {
-
-        // TODO #6 - report order used by machine
-
-        // This line added just to make the component compilable.
         return this.machineOrder;
     }
 
     @Override
     public final int size() {
-
-        // TODO #7 - report size of machine contents
-
-        // This line added just to make the component compilable.
-
-        return this.entries.length();
+        return this.length - this.first;
     }
 
     @Override
     public final Iterator<T> iterator() {
-        return this.entries.iterator();
+        return new SortingMachine3Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code SortingMachine3}.
+     * In extraction mode, it visits the entries in sorted order.
+     */
+    private final class SortingMachine3Iterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine3Iterator() {
+            this.current = SortingMachine3.this.first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < SortingMachine3.this.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = SortingMachine3.this.entries[this.current];
+            this.current++;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
     }
 
 }
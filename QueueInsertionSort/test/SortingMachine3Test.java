@@ -1,5 +1,10 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.util.Comparator;
 
+import org.junit.Test;
+
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
 
@@ -18,4 +23,33 @@ public final class SortingMachine3Test extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    /**
+     * Order of {@code String}s by their first character only.
+     */
+    private static final Comparator<String> BY_FIRST = (s1, s2) -> Character
+            .compare(s1.charAt(0), s2.charAt(0));
+
+    @Test
+    public final void testRemoveFirstDrainsInOrderStably() {
+        SortingMachine<String> m = this.constructorTest(BY_FIRST);
+        final int n = 1000;
+        final int keys = 10;
+        for (int i = 0; i < n; i++) {
+            m.add((char) ('a' + (i * 37) % keys) + Integer.toString(i));
+        }
+        m.changeToExtractionMode();
+        assertEquals(n, m.size());
+        String previous = m.removeFirst();
+        for (int i = 1; i < n; i++) {
+            String s = m.removeFirst();
+            assertTrue(previous.charAt(0) <= s.charAt(0));
+            if (previous.charAt(0) == s.charAt(0)) {
+                assertTrue(Integer.parseInt(previous.substring(1)) < Integer
+                        .parseInt(s.substring(1)));
+            }
+            previous = s;
+        }
+        assertEquals(0, m.size());
+    }
+
 }
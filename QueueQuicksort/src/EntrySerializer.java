@@ -0,0 +1,132 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes entries of type {@code T} to a binary stream and reads them back, so
+ * that {@code SortingMachine7} can keep sorted runs of entries in temporary
+ * files. Each {@code read} must consume exactly the bytes one {@code write}
+ * produced, so that entries can follow one another in the same stream.
+ *
+ * @param <T>
+ *            type of entries
+ * @author Elijah Bulluck
+ *
+ */
+public interface EntrySerializer<T> {
+
+    /**
+     * Serializer for {@code Integer}s, as four bytes each.
+     */
+    EntrySerializer<Integer> INTEGER = new EntrySerializer<Integer>() {
+
+        @Override
+        public void write(DataOutput out, Integer x) throws IOException {
+            out.writeInt(x);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+    };
+
+    /**
+     * Serializer for {@code String}s, as their length in bytes followed by
+     * their UTF-8 encoding.
+     */
+    EntrySerializer<String> STRING = new EntrySerializer<String>() {
+
+        @Override
+        public void write(DataOutput out, String x) throws IOException {
+            byte[] bytes = x.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    };
+
+    /**
+     * Writes {@code x} to {@code out}.
+     *
+     * @param out
+     *            the stream to write to
+     * @param x
+     *            the entry to write
+     * @throws IOException
+     *             if {@code out} cannot be written
+     * @updates out
+     * @requires x is not null
+     */
+    void write(DataOutput out, T x) throws IOException;
+
+    /**
+     * Reads an entry from {@code in} and returns it.
+     *
+     * @param in
+     *            the stream to read from
+     * @return the entry read
+     * @throws IOException
+     *             if {@code in} cannot be read
+     * @updates in
+     * @requires [in begins with the bytes written by write(out, x)]
+     * @ensures read = x
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Returns a serializer for any {@code java.io.Serializable} type, using
+     * Java object serialization. It works for every such type, but writes
+     * more bytes, and takes longer, than a serializer written for the type.
+     *
+     * @param <T>
+     *            type of entries
+     * @return the serializer
+     * @ensures [objects can only write entries that are Serializable]
+     */
+    static <T> EntrySerializer<T> objects() {
+        return new EntrySerializer<T>() {
+
+            @Override
+            public void write(DataOutput out, T x) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objects = new ObjectOutputStream(bytes);
+                objects.writeObject(x);
+                objects.close();
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public T read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                ObjectInputStream objects = new ObjectInputStream(
+                        new ByteArrayInputStream(bytes));
+                try {
+                    return (T) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                } finally {
+                    objects.close();
+                }
+            }
+
+        };
+    }
+
+}
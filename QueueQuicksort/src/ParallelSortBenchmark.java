@@ -0,0 +1,131 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures how the time {@code SortingMachine6} takes to sort (in
+ * {@code changeToExtractionMode}) scales with the number of threads, from 1
+ * up to the number of available processors, doubling each time, with the
+ * single-threaded introsort of {@code SortingMachine4} as a baseline. Each
+ * time is the best of a few runs on the same random input.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class ParallelSortBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ParallelSortBenchmark() {
+    }
+
+    /**
+     * Number of entries sorted.
+     */
+    private static final int ENTRIES = 2_000_000;
+
+    /**
+     * Number of runs of each measurement.
+     */
+    private static final int RUNS = 3;
+
+    /**
+     * Seed of the random input, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Compare {@code Integer}s in increasing order.
+     */
+    private static final Comparator<Integer> ORDER = Integer::compare;
+
+    /**
+     * Fills {@code m} with {@code entries} and returns the time, in
+     * milliseconds, that {@code changeToExtractionMode} takes.
+     *
+     * @param m
+     *            the sorting machine to measure
+     * @param entries
+     *            the entries to sort
+     * @return the elapsed milliseconds
+     * @updates m
+     * @requires m = (true, ORDER, {})
+     */
+    private static double sortMillis(SortingMachine<Integer> m,
+            Integer[] entries) {
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        Integer previous = m.removeFirst();
+        while (m.size() > 0) {
+            Integer x = m.removeFirst();
+            if (previous > x) {
+                throw new AssertionError("Out of order");
+            }
+            previous = x;
+        }
+        return millis;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Random random = new Random(SEED);
+        Integer[] entries = new Integer[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            entries[i] = random.nextInt();
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        out.println(ENTRIES + " entries, " + processors
+                + " available processors");
+        out.println("Sorter\tThreads\tSort ms\tSpeedup");
+        out.println("------\t-------\t-------\t-------");
+        double baseline = Double.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            baseline = Math.min(baseline, sortMillis(
+                    new SortingMachine4<Integer>(ORDER), entries));
+        }
+        out.println("SortingMachine4\t1\t" + String.format("%.1f", baseline)
+                + "\t-");
+        double oneThread = 0;
+        int threads = 1;
+        while (threads <= processors) {
+            double best = Double.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                best = Math.min(best, sortMillis(
+                        new SortingMachine6<Integer>(ORDER, threads),
+                        entries));
+            }
+            if (threads == 1) {
+                oneThread = best;
+            }
+            out.println("SortingMachine6\t" + threads + "\t"
+                    + String.format("%.1f", best) + "\t"
+                    + String.format("%.2f", oneThread / best));
+            if (threads < processors && 2 * threads > processors) {
+                threads = processors;
+            } else {
+                threads *= 2;
+            }
+        }
+        out.close();
+    }
+
+}
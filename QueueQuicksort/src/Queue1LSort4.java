@@ -1,11 +1,16 @@
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import components.queue.Queue;
 import components.queue.Queue1L;
 
 /**
  * Layered implementations of secondary method {@code sort} for
- * {@code Queue<String>}.
+ * {@code Queue<String>}, and of two radix sorts, {@code sortByIntKey} and
+ * {@code sortByBytesKey}, for entries ordered by an {@code int} or a byte
+ * string computed from each one.
  *
  * @param <T>
  *            type of {@code Queue} entries
@@ -22,10 +27,47 @@ import components.queue.Queue1L;
  *   r: binary relation on T
  *  ) : boolean is
  *  for all x, y: T where (<x, y> is substring of s) (r(x, y))
+ *
+ * IS_STABLY_SORTED (
+ *   s: string of T,
+ *   t: string of T,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  perms(s, t)  and  IS_SORTED(s, r)  and
+ *  [entries x and y of t with r(x, y) and r(y, x) are in the same order in s
+ *   as in t]
  * </pre>
  */
 public final class Queue1LSort4<T> extends Queue1L<T> {
 
+    /**
+     * Number of bits of a key handled by each pass of the radix sorts.
+     */
+    private static final int RADIX_BITS = 8;
+
+    /**
+     * Number of distinct digits of {@code RADIX_BITS} bits.
+     */
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Mask of the lowest {@code RADIX_BITS} bits.
+     */
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Largest range that {@code sortByBytesKey} sorts by insertion sort rather
+     * than by distributing it into buckets.
+     */
+    private static final int INSERTION_SORT_CUTOFF = 16;
+
+    /**
+     * Number of {@code int}s on the explicit stack of {@code sortByBytesKey}
+     * per pending range: its first index, the index after its last, and the
+     * index of the key byte that is to be distributed on.
+     */
+    private static final int STACK_FRAME = 3;
+
     /**
      * No-argument constructor.
      */
@@ -93,4 +135,231 @@ public final class Queue1LSort4<T> extends Queue1L<T> {
             this.append(back);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares the unsigned bytes of {@code a} and {@code b} from index
+     * {@code depth} on, lexicographically, a byte string coming before every
+     * longer one that it is a prefix of.
+     *
+     * @param a
+     *            the first byte string
+     * @param b
+     *            the second byte string
+     * @param depth
+     *            the index of the first byte compared
+     * @return a negative integer, zero, or a positive integer as {@code a} is
+     *         before, equal to, or after {@code b}
+     * @requires [a and b agree on the bytes before index depth]
+     */
+    private static int compareBytes(byte[] a, byte[] b, int depth) {
+        int length = Math.min(a.length, b.length);
+        int i = depth;
+        while (i < length && a[i] == b[i]) {
+            i++;
+        }
+        int comparison = a.length - b.length;
+        if (i < length) {
+            comparison = (a[i] & DIGIT_MASK) - (b[i] & DIGIT_MASK);
+        }
+        return comparison;
+    }
+
+    /**
+     * Returns the bucket of {@code key} when distributing on the byte at
+     * index {@code depth}: 0 if {@code key} has no such byte, or else one
+     * more than the unsigned value of that byte.
+     *
+     * @param key
+     *            the byte string
+     * @param depth
+     *            the index of the byte
+     * @return the bucket
+     * @ensures 0 <= bucket <= RADIX
+     */
+    private static int bucket(byte[] key, int depth) {
+        int bucket = 0;
+        if (depth < key.length) {
+            bucket = (key[depth] & DIGIT_MASK) + 1;
+        }
+        return bucket;
+    }
+
+    /**
+     * Sorts {@code this} by the {@code int} computed from each entry by
+     * {@code key}, with an LSD radix sort: one stable counting sort per byte
+     * of the keys, least significant first, each of which is skipped when all
+     * the keys have the same value in that byte. It takes time linear in
+     * {@code |this|}, and calls {@code key} once per entry. Entries with equal
+     * keys stay in the order they had in {@code this}, so the result is the
+     * same as that of {@code sort(Comparator.comparingInt(key))} whenever
+     * entries with equal keys are equal.
+     *
+     * @param key
+     *            the function computing the key of each entry
+     * @updates this
+     * @ensures <pre>
+     * IS_STABLY_SORTED(this, #this,
+     *   [relation true of x and y iff key(x) <= key(y)])
+     * </pre>
+     */
+    public void sortByIntKey(ToIntFunction<T> key) {
+        assert key != null : "Violation of: key is not null";
+        int n = this.length();
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        @SuppressWarnings("unchecked")
+        T[] entries = (T[]) (new Object[n]);
+        @SuppressWarnings("unchecked")
+        T[] moved = (T[]) (new Object[n]);
+        int[] keys = new int[n];
+        int[] movedKeys = new int[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = this.dequeue();
+            /*
+             * Flipping the sign bit makes the unsigned order of the keys
+             * their signed order
+             */
+            keys[i] = key.applyAsInt(entries[i]) ^ Integer.MIN_VALUE;
+        }
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int[] start = new int[RADIX + 1];
+            for (int i = 0; i < n; i++) {
+                start[((keys[i] >>> shift) & DIGIT_MASK) + 1]++;
+            }
+            boolean oneDigit = n == 0
+                    || start[((keys[0] >>> shift) & DIGIT_MASK) + 1] == n;
+            if (!oneDigit) {
+                for (int d = 0; d < RADIX; d++) {
+                    start[d + 1] += start[d];
+                }
+                for (int i = 0; i < n; i++) {
+                    int d = (keys[i] >>> shift) & DIGIT_MASK;
+                    moved[start[d]] = entries[i];
+                    movedKeys[start[d]] = keys[i];
+                    start[d]++;
+                }
+                T[] tmp = entries;
+                entries = moved;
+                moved = tmp;
+                int[] tmpKeys = keys;
+                keys = movedKeys;
+                movedKeys = tmpKeys;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            this.enqueue(entries[i]);
+        }
+    }
+
+    /**
+     * Sorts {@code this} by the byte string computed from each entry by
+     * {@code key}, compared lexicographically as unsigned bytes, with an MSD
+     * radix sort: the entries are distributed into buckets by the first byte
+     * of their keys, then each bucket by the second byte, and so on, until a
+     * bucket is small enough to finish by insertion sort. Pending buckets are
+     * kept on an explicit stack rather than by recursion. It calls
+     * {@code key} once per entry. Entries with equal keys stay in the order
+     * they had in {@code this}, so the result is the same as that of
+     * {@code sort} with the matching {@code Comparator} whenever entries with
+     * equal keys are equal; for {@code String}s, the UTF-8 bytes of a
+     * {@code String} order it as {@code compareTo} does, except that
+     * characters outside the Basic Multilingual Plane come after all others.
+     *
+     * @param key
+     *            the function computing the key of each entry
+     * @updates this
+     * @requires [key computes a non-null byte string for each entry]
+     * @ensures <pre>
+     * IS_STABLY_SORTED(this, #this,
+     *   [relation true of x and y iff key(x) is lexicographically at most
+     *    key(y), as strings of unsigned bytes])
+     * </pre>
+     */
+    public void sortByBytesKey(Function<T, byte[]> key) {
+        assert key != null : "Violation of: key is not null";
+        int n = this.length();
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        @SuppressWarnings("unchecked")
+        T[] entries = (T[]) (new Object[n]);
+        @SuppressWarnings("unchecked")
+        T[] moved = (T[]) (new Object[n]);
+        byte[][] keys = new byte[n][];
+        byte[][] movedKeys = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            entries[i] = this.dequeue();
+            keys[i] = key.apply(entries[i]);
+        }
+        int[] stack = new int[STACK_FRAME];
+        int top = 0;
+        if (n > 1) {
+            stack[0] = 0;
+            stack[1] = n;
+            stack[2] = 0;
+            top = STACK_FRAME;
+        }
+        while (top > 0) {
+            top -= STACK_FRAME;
+            int lo = stack[top];
+            int hi = stack[top + 1];
+            int depth = stack[top + 2];
+            if (hi - lo <= INSERTION_SORT_CUTOFF) {
+                for (int i = lo + 1; i < hi; i++) {
+                    T x = entries[i];
+                    byte[] xKey = keys[i];
+                    int j = i;
+                    while (j > lo && compareBytes(keys[j - 1], xKey,
+                            depth) > 0) {
+                        entries[j] = entries[j - 1];
+                        keys[j] = keys[j - 1];
+                        j--;
+                    }
+                    entries[j] = x;
+                    keys[j] = xKey;
+                }
+            } else {
+                int[] start = new int[RADIX + 2];
+                for (int i = lo; i < hi; i++) {
+                    start[bucket(keys[i], depth) + 1]++;
+                }
+                start[0] = lo;
+                for (int b = 0; b <= RADIX; b++) {
+                    start[b + 1] += start[b];
+                }
+                /*
+                 * Each bucket but the first, whose keys all end before this
+                 * depth, still has to be sorted by the following bytes
+                 */
+                int needed = top + RADIX * STACK_FRAME;
+                if (needed > stack.length) {
+                    stack = Arrays.copyOf(stack,
+                            Math.max(needed, 2 * stack.length));
+                }
+                for (int b = 1; b <= RADIX; b++) {
+                    if (start[b + 1] - start[b] > 1) {
+                        stack[top] = start[b];
+                        stack[top + 1] = start[b + 1];
+                        stack[top + 2] = depth + 1;
+                        top += STACK_FRAME;
+                    }
+                }
+                for (int i = lo; i < hi; i++) {
+                    int b = bucket(keys[i], depth);
+                    moved[start[b]] = entries[i];
+                    movedKeys[start[b]] = keys[i];
+                    start[b]++;
+                }
+                System.arraycopy(moved, lo, entries, lo, hi - lo);
+                System.arraycopy(movedKeys, lo, keys, lo, hi - lo);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            this.enqueue(entries[i]);
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Random;
+
+import components.queue.Queue;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time {@code Queue1LSort4} takes to sort random {@code Integer}s
+ * and short random {@code String}s with its {@code Comparator} quicksort
+ * ({@code sort}) and with its radix sorts ({@code sortByIntKey} and
+ * {@code sortByBytesKey}), and checks that both give the same result.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class RadixSortBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private RadixSortBenchmark() {
+    }
+
+    /**
+     * Smallest number of entries measured.
+     */
+    private static final int MIN_ENTRIES = 1_000;
+
+    /**
+     * Largest number of entries measured.
+     */
+    private static final int MAX_ENTRIES = 256_000;
+
+    /**
+     * Factor by which the number of entries grows between measurements.
+     */
+    private static final int GROWTH = 4;
+
+    /**
+     * Largest length of the random {@code String}s.
+     */
+    private static final int MAX_STRING_LENGTH = 8;
+
+    /**
+     * Number of letters in the random {@code String}s.
+     */
+    private static final int LETTERS = 26;
+
+    /**
+     * Seed of the random input, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns the time, in milliseconds, elapsed since {@code start}.
+     *
+     * @param start
+     *            the start time, from {@code System.nanoTime}
+     * @return the elapsed milliseconds
+     */
+    private static String millisSince(long start) {
+        return String.format("%.1f",
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns a random lowercase {@code String} of up to
+     * {@code MAX_STRING_LENGTH} letters.
+     *
+     * @param random
+     *            the source of randomness
+     * @return the {@code String}
+     * @updates random
+     */
+    private static String randomString(Random random) {
+        int length = 1 + random.nextInt(MAX_STRING_LENGTH);
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            s.append((char) ('a' + random.nextInt(LETTERS)));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Random random = new Random(SEED);
+        out.println("Keys\tEntries\tsort ms\tRadix ms");
+        out.println("----\t-------\t-------\t--------");
+        for (int n = MIN_ENTRIES; n <= MAX_ENTRIES; n *= GROWTH) {
+            Queue1LSort4<Integer> integers = new Queue1LSort4<Integer>();
+            Queue1LSort4<Integer> integersRadix = new Queue1LSort4<Integer>();
+            for (int i = 0; i < n; i++) {
+                int x = random.nextInt();
+                integers.enqueue(x);
+                integersRadix.enqueue(x);
+            }
+            long start = System.nanoTime();
+            integers.sort(Comparator.naturalOrder());
+            String sortTime = millisSince(start);
+            start = System.nanoTime();
+            integersRadix.sortByIntKey(Integer::intValue);
+            String radixTime = millisSince(start);
+            if (!integers.equals(integersRadix)) {
+                throw new AssertionError("Radix sort of int keys differs");
+            }
+            out.println("int\t" + n + "\t" + sortTime + "\t" + radixTime);
+
+            Queue<String> strings = new Queue1LSort4<String>();
+            Queue1LSort4<String> stringsRadix = new Queue1LSort4<String>();
+            for (int i = 0; i < n; i++) {
+                String x = randomString(random);
+                strings.enqueue(x);
+                stringsRadix.enqueue(x);
+            }
+            start = System.nanoTime();
+            strings.sort(Comparator.naturalOrder());
+            sortTime = millisSince(start);
+            start = System.nanoTime();
+            stringsRadix.sortByBytesKey(
+                    s -> s.getBytes(StandardCharsets.UTF_8));
+            radixTime = millisSince(start);
+            if (!strings.equals(stringsRadix)) {
+                throw new AssertionError("Radix sort of byte keys differs");
+            }
+            out.println("bytes\t" + n + "\t" + sortTime + "\t" + radixTime);
+        }
+        out.close();
+    }
+
+}
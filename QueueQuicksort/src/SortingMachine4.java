@@ -1,6 +1,7 @@
 import java.lang.reflect.Constructor;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import components.queue.Queue;
 import components.queue.Queue1L;
@@ -8,8 +9,13 @@ import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachineSecondary;
 
 /**
- * {@code SortingMachine} represented as a {@code Queue} (using an embedding of
- * quicksort), with implementations of primary methods.
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of introsort), with implementations of primary methods.
+ *
+ * <p>
+ * {@code changeToExtractionMode} moves the entries into an array once and
+ * sorts it in place, and {@code removeFirst} returns the entry at the next
+ * index.
  *
  * @param <T>
  *            type of {@code SortingMachine} entries
@@ -30,11 +36,18 @@ import components.sortingmachine.SortingMachineSecondary;
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])  and
  * if not $this.insertionMode then
- *  IS_SORTED($this.entries, [relation computed by $this.machineOrder.compare method])
+ *  $this.entries = <>  and
+ *  0 <= $this.next <= |$this.sorted|  and
+ *  IS_SORTED($this.sorted[$this.next, |$this.sorted|),
+ *    [relation computed by $this.machineOrder.compare method])  and
+ *  [the entries of $this.sorted before index $this.next are null]
  * </pre>
  * @correspondence <pre>
- * this =
- *   ($this.insertionMode, $this.machineOrder, multiset_entries($this.entries))
+ * if $this.insertionMode then
+ *  this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *  this = (false, $this.machineOrder,
+ *    multiset_entries($this.sorted[$this.next, |$this.sorted|)))
  * </pre>
  */
 public class SortingMachine4<T> extends SortingMachineSecondary<T> {
@@ -43,6 +56,17 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Largest range that is sorted by insertion sort rather than partitioned.
+     */
+    private static final int INSERTION_SORT_CUTOFF = 16;
+
+    /**
+     * Number of {@code int}s on the explicit stack per pending range: its
+     * first index, its last index, and its remaining partitioning depth.
+     */
+    private static final int STACK_FRAME = 3;
+
     /**
      * Insertion mode.
      */
@@ -54,95 +78,297 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
     private Comparator<T> machineOrder;
 
     /**
-     * Entries.
+     * Entries, in insertion mode.
      */
     private Queue<T> entries;
 
     /**
-     * Partitions {@code q} into two parts: entries no larger than
-     * {@code partitioner} are put in {@code front}, and the rest are put in
-     * {@code back}.
+     * Sorted entries, in extraction mode.
+     */
+    private T[] sorted;
+
+    /**
+     * Index in {@code sorted} of the next entry {@code removeFirst} returns.
+     */
+    private int next;
+
+    /**
+     * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array whose entries are to be exchanged
+     * @param i
+     *            one index
+     * @param j
+     *            the other index
+     * @updates array
+     * @requires 0 <= i < |array| and 0 <= j < |array|
+     * @ensures array = [#array with entries at indices i and j exchanged]
+     */
+    private static <T> void exchangeEntries(T[] array, int i, int j) {
+        T tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * Sorts {@code array[lo, hi]} by insertion sort.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the range
+     * @param hi
+     *            the last index of the range
+     * @param order
+     *            ordering by which to sort
+     * @updates array
+     * @requires <pre>
+     * 0 <= lo  and  hi < |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * perms(array[lo, hi], #array[lo, hi])  and
+     * IS_SORTED(array[lo, hi], [relation computed by order.compare method])
+     *  and  [the other entries of array are the same as in #array]
+     * </pre>
+     */
+    private static <T> void insertionSort(T[] array, int lo, int hi,
+            Comparator<T> order) {
+        for (int i = lo + 1; i <= hi; i++) {
+            T x = array[i];
+            int hole = i;
+            while (hole > lo && order.compare(array[hole - 1], x) > 0) {
+                array[hole] = array[hole - 1];
+                hole--;
+            }
+            array[hole] = x;
+        }
+    }
+
+    /**
+     * Sifts {@code array[lo + top]} down in the max-heap rooted at
+     * {@code array[lo]} and ending at {@code array[lo + last]}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the index of the root of the heap
+     * @param top
+     *            the position, relative to {@code lo}, of the entry to sift
+     * @param last
+     *            the position, relative to {@code lo}, of the last entry of
+     *            the heap
+     * @param order
+     *            ordering of the heap
+     * @updates array
+     * @requires <pre>
+     * 0 <= lo  and  0 <= top <= last  and  lo + last < |array|  and
+     * [the subtrees rooted at the children of top are max-heaps]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top is a max-heap]  and
+     * perms(array, #array)  and
+     * [the entries of array outside that subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int lo, int top, int last,
+            Comparator<T> order) {
+        T root = array[lo + top];
+        int hole = top;
+        boolean done = false;
+        while (!done && last > 0 && hole <= (last - 1) / 2) {
+            int larger = 2 * hole + 1;
+            if (larger < last && order.compare(array[lo + larger + 1],
+                    array[lo + larger]) > 0) {
+                larger++;
+            }
+            if (order.compare(array[lo + larger], root) > 0) {
+                array[lo + hole] = array[lo + larger];
+                hole = larger;
+            } else {
+                done = true;
+            }
+        }
+        array[lo + hole] = root;
+    }
+
+    /**
+     * Sorts {@code array[lo, hi]} by heapsort, in O(n log n) time whatever
+     * the input.
      *
      * @param <T>
-     *            type of {@code Queue} entries
-     * @param q
-     *            the {@code Queue} to be partitioned
-     * @param partitioner
-     *            the partitioning value
-     * @param front
-     *            upon return, the entries no larger than {@code partitioner}
-     * @param back
-     *            upon return, the entries larger than {@code partitioner}
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the range
+     * @param hi
+     *            the last index of the range
+     * @param order
+     *            ordering by which to sort
+     * @updates array
+     * @requires <pre>
+     * 0 <= lo  and  hi < |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * perms(array[lo, hi], #array[lo, hi])  and
+     * IS_SORTED(array[lo, hi], [relation computed by order.compare method])
+     *  and  [the other entries of array are the same as in #array]
+     * </pre>
+     */
+    private static <T> void heapsort(T[] array, int lo, int hi,
+            Comparator<T> order) {
+        int last = hi - lo;
+        for (int i = (last - 1) / 2; i >= 0; i--) {
+            siftDown(array, lo, i, last, order);
+        }
+        while (last > 0) {
+            exchangeEntries(array, lo, lo + last);
+            last--;
+            siftDown(array, lo, 0, last, order);
+        }
+    }
+
+    /**
+     * Partitions {@code array[lo, hi]} around the median of its first, middle,
+     * and last entries, into entries smaller than that pivot, entries equal to
+     * it, and entries larger than it, and reports where the equal entries are.
+     * Runs of equal entries thus end up in their final places at once.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the range
+     * @param hi
+     *            the last index of the range
      * @param order
      *            ordering by which to separate entries
-     * @clears q
-     * @replaces front, back
-     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * @return {first index, last index} of the entries equal to the pivot
+     * @updates array
+     * @requires <pre>
+     * 0 <= lo < hi < |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
      * @ensures <pre>
-     * perms(#q, front * back)  and
-     * for all x: T where (<x> is substring of front)
-     *  ([relation computed by order.compare method](x, partitioner))  and
-     * for all x: T where (<x> is substring of back)
-     *  (not [relation computed by order.compare method](x, partitioner))
+     * perms(array[lo, hi], #array[lo, hi])  and
+     * lo <= partition[0] <= partition[1] <= hi  and
+     * [entries of array[lo, partition[0]) are smaller than the pivot]  and
+     * [entries of array[partition[0], partition[1]] are equal to it]  and
+     * [entries of array(partition[1], hi] are larger than it]  and
+     * [the other entries of array are the same as in #array]
      * </pre>
      */
-    private static <T> void partition(Queue<T> q, T partitioner, Queue<T> front,
-            Queue<T> back, Comparator<T> order) {
-        assert q != null : "Violation of: q is not null";
-        assert partitioner != null : "Violation of: partitioner is not null";
-        assert front != null : "Violation of: front is not null";
-        assert back != null : "Violation of: back is not null";
-        assert order != null : "Violation of: order is not null";
-        while (q.length() > 0) {
-            T temp = q.dequeue();
-            if (order.compare(temp, partitioner) <= 0) {
-                front.enqueue(temp);
+    private static <T> int[] partition(T[] array, int lo, int hi,
+            Comparator<T> order) {
+        /*
+         * Put the median of the first, middle, and last entries in the middle
+         */
+        int mid = lo + (hi - lo) / 2;
+        if (order.compare(array[mid], array[lo]) < 0) {
+            exchangeEntries(array, mid, lo);
+        }
+        if (order.compare(array[hi], array[mid]) < 0) {
+            exchangeEntries(array, hi, mid);
+            if (order.compare(array[mid], array[lo]) < 0) {
+                exchangeEntries(array, mid, lo);
+            }
+        }
+        T pivot = array[mid];
+        /*
+         * Invariant: array[lo, lt) < pivot, array[lt, i) = pivot,
+         * array(gt, hi] > pivot, and array[i, gt] is not yet examined
+         */
+        int lt = lo;
+        int i = lo;
+        int gt = hi;
+        while (i <= gt) {
+            int comparison = order.compare(array[i], pivot);
+            if (comparison < 0) {
+                exchangeEntries(array, lt, i);
+                lt++;
+                i++;
+            } else if (comparison > 0) {
+                exchangeEntries(array, i, gt);
+                gt--;
             } else {
-                back.enqueue(temp);
+                i++;
             }
         }
+        return new int[] { lt, gt };
     }
 
     /**
-     * Sorts {@code q} according to the ordering provided by the {@code compare}
-     * method from {@code order}.
+     * Sorts {@code array} according to the ordering provided by the
+     * {@code compare} method from {@code order}, by introsort: quicksort with
+     * median-of-three pivots and three-way partitioning, which hands ranges of
+     * at most {@code INSERTION_SORT_CUTOFF} entries to insertion sort and
+     * ranges still unsorted after 2 log n levels of partitioning to heapsort.
+     * Pending ranges are kept on an explicit stack; the larger part of each
+     * partition is pushed and the smaller is partitioned next, so the stack
+     * never holds more than log n ranges.
      *
      * @param <T>
-     *            type of {@code Queue} entries
-     * @param q
-     *            the {@code Queue} to be sorted
+     *            type of array entries
+     * @param array
+     *            the array to be sorted
      * @param order
      *            ordering by which to sort
-     * @updates q
+     * @updates array
      * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
-     * @ensures IS_SORTED(q, [relation computed by order.compare method])
+     * @ensures <pre>
+     * perms(array, #array)  and
+     * IS_SORTED(array, [relation computed by order.compare method])
+     * </pre>
      */
-    private static <T> void sort(Queue<T> q, Comparator<T> order) {
+    private static <T> void sort(T[] array, Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
-        if (q.length() > 1) {
-            /*
-             * Dequeue the partitioning entry from this
-             */
-            T partitionEnt = q.dequeue();
-            /*
-             * Partition this into two queues as discussed above (you will need
-             * to declare and initialize two new queues)
-             */
-            Queue<T> q1 = q.newInstance();
-            Queue<T> q2 = q.newInstance();
-            partition(q, partitionEnt, q1, q2, order);
-            /*
-             * Recursively sort the two queues
-             */
-            sort(q1, order);
-            sort(q2, order);
-            /*
-             * Reconstruct this by combining the two sorted queues and the
-             * partitioning entry in the proper order
-             */
-            q1.enqueue(partitionEnt);
-            q.append(q1);
-            q.append(q2);
+        if (array.length > 1) {
+            int log = Integer.SIZE - 1
+                    - Integer.numberOfLeadingZeros(array.length);
+            int depthLimit = 2 * log;
+            int[] stack = new int[STACK_FRAME * Integer.SIZE];
+            int top = 0;
+            stack[top] = 0;
+            stack[top + 1] = array.length - 1;
+            stack[top + 2] = depthLimit;
+            top += STACK_FRAME;
+            while (top > 0) {
+                top -= STACK_FRAME;
+                int lo = stack[top];
+                int hi = stack[top + 1];
+                int depth = stack[top + 2];
+                while (hi - lo >= INSERTION_SORT_CUTOFF && depth > 0) {
+                    depth--;
+                    int[] equal = partition(array, lo, hi, order);
+                    if (equal[0] - lo < hi - equal[1]) {
+                        stack[top] = equal[1] + 1;
+                        stack[top + 1] = hi;
+                        hi = equal[0] - 1;
+                    } else {
+                        stack[top] = lo;
+                        stack[top + 1] = equal[0] - 1;
+                        lo = equal[1] + 1;
+                    }
+                    stack[top + 2] = depth;
+                    top += STACK_FRAME;
+                }
+                if (hi - lo >= INSERTION_SORT_CUTOFF) {
+                    heapsort(array, lo, hi, order);
+                } else {
+                    insertionSort(array, lo, hi, order);
+                }
+            }
         }
     }
 
@@ -156,6 +382,8 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
         this.insertionMode = true;
         this.machineOrder = order;
         this.entries = new Queue1L<T>();
+        this.sorted = null;
+        this.next = 0;
     }
 
     /*
@@ -209,6 +437,8 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
         this.insertionMode = localSource.insertionMode;
         this.machineOrder = localSource.machineOrder;
         this.entries = localSource.entries;
+        this.sorted = localSource.sorted;
+        this.next = localSource.next;
         localSource.createNewRep(localSource.machineOrder);
     }
 
@@ -227,8 +457,18 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
     public final void changeToExtractionMode() {
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
         this.insertionMode = false;
-        sort(this.entries, this.machineOrder);
-
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) (new Object[this.entries.length()]);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = this.entries.dequeue();
+        }
+        sort(array, this.machineOrder);
+        this.sorted = array;
+        this.next = 0;
     }
 
     @Override
@@ -236,8 +476,10 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
         assert !this
                 .isInInsertionMode() : "Violation of: not this.insertion_mode";
         assert this.size() > 0 : "Violation of: this.contents /= {}";
-
-        return this.entries.dequeue();
+        T first = this.sorted[this.next];
+        this.sorted[this.next] = null;
+        this.next++;
+        return first;
     }
 
     @Override
@@ -253,12 +495,83 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
 
     @Override
     public final int size() {
-        return this.entries.length();
+        int size = this.entries.length();
+        if (!this.insertionMode) {
+            size = this.sorted.length - this.next;
+        }
+        return size;
     }
 
     @Override
     public final Iterator<T> iterator() {
-        return this.entries.iterator();
+        return new SortingMachine4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code SortingMachine4}.
+     * In extraction mode, it visits the entries in sorted order.
+     */
+    private final class SortingMachine4Iterator implements Iterator<T> {
+
+        /**
+         * Representation iterator in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Index of the next sorted entry, in extraction mode.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine4Iterator() {
+            if (SortingMachine4.this.insertionMode) {
+                this.queueIterator = SortingMachine4.this.entries.iterator();
+            } else {
+                this.current = SortingMachine4.this.next;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (this.queueIterator != null) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                hasNext = this.current < SortingMachine4.this.sorted.length;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x;
+            if (this.queueIterator != null) {
+                x = this.queueIterator.next();
+            } else {
+                x = SortingMachine4.this.sorted[this.current];
+                this.current++;
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
     }
 
 }
@@ -0,0 +1,388 @@
+import java.lang.reflect.Constructor;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of heapsort), with implementations of primary methods.
+ *
+ * <p>
+ * In insertion mode, entries are simply enqueued.
+ * {@code changeToExtractionMode} moves them into an array and makes it a heap
+ * bottom up, in O(n) time, and each {@code removeFirst} then takes O(log n)
+ * time, so the first k entries can be extracted without sorting all n of
+ * them.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])  and
+ * if $this.insertionMode then
+ *  $this.heapSize = 0
+ * else
+ *  $this.entries = <>  and
+ *  0 <= $this.heapSize <= |$this.heap|  and
+ *  SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *    [relation computed by $this.machineOrder.compare method])  and
+ *  [the entries of $this.heap from index $this.heapSize on are null]
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *  this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *  this = (false, $this.machineOrder,
+ *    multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ */
+public class SortingMachine5<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Entries, in insertion mode.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Heap of entries, in extraction mode.
+     */
+    private T[] heap;
+
+    /**
+     * Number of entries in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap. Like
+     * {@code IntHeaps.siftDown} in ArraySiftDown, the root is held aside
+     * while each smaller child moves up into the hole it leaves.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= top <= last < |array|  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     *     [relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries of array outside that subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int top, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert top <= last : "Violation of: top <= last";
+        assert last < array.length : "Violation of: last < |array|";
+        T root = array[top];
+        int hole = top;
+        boolean done = false;
+        /*
+         * The hole has a left child if 2 * hole + 1 <= last, written so that it
+         * cannot overflow
+         */
+        while (!done && last > 0 && hole <= (last - 1) / 2) {
+            int smaller = 2 * hole + 1;
+            int right = smaller + 1;
+            if (right <= last
+                    && order.compare(array[right], array[smaller]) < 0) {
+                smaller = right;
+            }
+            if (order.compare(array[smaller], root) < 0) {
+                array[hole] = array[smaller];
+                hole = smaller;
+            } else {
+                done = true;
+            }
+        }
+        array[hole] = root;
+    }
+
+    /**
+     * Constructs and returns an array representing a heap with the entries
+     * from the given {@code Queue}, built bottom up by calling
+     * {@code siftDown} on each internal node, last first.
+     *
+     * @param <T>
+     *            type of {@code Queue} and array entries
+     * @param q
+     *            the {@code Queue} with the entries for the heap
+     * @param order
+     *            total preorder for sorting
+     * @return the array representation of a heap
+     * @clears q
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1,
+     *     [relation computed by order.compare method])  and
+     * perms(buildHeap, #q)
+     * </pre>
+     */
+    private static <T> T[] buildHeap(Queue<T> q, Comparator<T> order) {
+        assert q != null : "Violation of: q is not null";
+        assert order != null : "Violation of: order is not null";
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        @SuppressWarnings("unchecked")
+        T[] heap = (T[]) (new Object[q.length()]);
+        for (int i = 0; i < heap.length; i++) {
+            heap[i] = q.dequeue();
+        }
+        for (int i = heap.length / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, heap.length - 1, order);
+        }
+        return heap;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    private void createNewRep(Comparator<T> order) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.entries = new Queue1L<T>();
+        this.heap = null;
+        this.heapSize = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5(Comparator<T> order) {
+        this.createNewRep(order);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass().getConstructor(Comparator.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5<T> localSource = (SortingMachine5<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.entries = localSource.entries;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        localSource.createNewRep(localSource.machineOrder);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.entries.enqueue(x);
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.insertionMode = false;
+        this.heap = buildHeap(this.entries, this.machineOrder);
+        this.heapSize = this.heap.length;
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+        T first = this.heap[0];
+        this.heapSize--;
+        this.heap[0] = this.heap[this.heapSize];
+        this.heap[this.heapSize] = null;
+        if (this.heapSize > 1) {
+            siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
+        }
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.heapSize;
+        if (this.insertionMode) {
+            size = this.entries.length();
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code SortingMachine5}.
+     * In extraction mode, it visits the entries in heap order, not sorted
+     * order.
+     */
+    private final class SortingMachine5Iterator implements Iterator<T> {
+
+        /**
+         * Representation iterator in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Index of the next heap entry, in extraction mode.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5Iterator() {
+            if (SortingMachine5.this.insertionMode) {
+                this.queueIterator = SortingMachine5.this.entries.iterator();
+            }
+            this.current = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (this.queueIterator != null) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                hasNext = this.current < SortingMachine5.this.heapSize;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x;
+            if (this.queueIterator != null) {
+                x = this.queueIterator.next();
+            } else {
+                x = SortingMachine5.this.heap[this.current];
+                this.current++;
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
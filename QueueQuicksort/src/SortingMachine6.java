@@ -0,0 +1,608 @@
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of parallel merge sort), with implementations of primary methods.
+ *
+ * <p>
+ * {@code changeToExtractionMode} moves the entries into an array and sorts it
+ * with a fork/join merge sort on up to {@code parallelism} threads: both
+ * halves of a range are sorted in parallel, and then merged in parallel by
+ * splitting the longer run at its middle entry and the other run where that
+ * entry belongs. Ranges of at most {@code SEQUENTIAL_THRESHOLD} entries are
+ * sorted or merged on a single thread.
+ *
+ * <p>
+ * The sort is stable: entries that {@code order} reports equal are removed in
+ * the order in which they were added. Since {@code order.compare} is called
+ * from several threads at once, it must not depend on or change any mutable
+ * state.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_SORTED (
+ *   s: string of T,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y: T where (<x, y> is substring of s) (r(x, y))
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])  and
+ * $this.parallelism > 0  and
+ * if not $this.insertionMode then
+ *  $this.entries = <>  and
+ *  0 <= $this.next <= |$this.sorted|  and
+ *  IS_SORTED($this.sorted[$this.next, |$this.sorted|),
+ *    [relation computed by $this.machineOrder.compare method])  and
+ *  [the entries of $this.sorted before index $this.next are null]
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *  this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *  this = (false, $this.machineOrder,
+ *    multiset_entries($this.sorted[$this.next, |$this.sorted|)))
+ * </pre>
+ */
+public class SortingMachine6<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Largest range that is sorted, or merged, without forking.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8_192;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Number of threads used to sort.
+     */
+    private int parallelism;
+
+    /**
+     * Entries, in insertion mode.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Sorted entries, in extraction mode.
+     */
+    private T[] sorted;
+
+    /**
+     * Index in {@code sorted} of the next entry {@code removeFirst} returns.
+     */
+    private int next;
+
+    /**
+     * Fork/join task that merges two sorted runs of one array into another
+     * array, stably: of equal entries, those of the first run come first.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class MergeTask<T> extends RecursiveAction {
+
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Array holding the runs.
+         */
+        private final T[] from;
+
+        /**
+         * First index of the first run.
+         */
+        private final int lo1;
+
+        /**
+         * Index after the last of the first run.
+         */
+        private final int hi1;
+
+        /**
+         * First index of the second run.
+         */
+        private final int lo2;
+
+        /**
+         * Index after the last of the second run.
+         */
+        private final int hi2;
+
+        /**
+         * Array receiving the merged entries.
+         */
+        private final T[] to;
+
+        /**
+         * Index of {@code to} receiving the first merged entry.
+         */
+        private final int at;
+
+        /**
+         * Ordering by which to merge.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor.
+         *
+         * @param from
+         *            array holding the runs
+         * @param lo1
+         *            first index of the first run
+         * @param hi1
+         *            index after the last of the first run
+         * @param lo2
+         *            first index of the second run
+         * @param hi2
+         *            index after the last of the second run
+         * @param to
+         *            array receiving the merged entries
+         * @param at
+         *            index of {@code to} receiving the first merged entry
+         * @param order
+         *            ordering by which to merge
+         */
+        private MergeTask(T[] from, int lo1, int hi1, int lo2, int hi2,
+                T[] to, int at, Comparator<T> order) {
+            this.from = from;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.to = to;
+            this.at = at;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = this.hi1 - this.lo1;
+            int length2 = this.hi2 - this.lo2;
+            if (length1 + length2 <= SEQUENTIAL_THRESHOLD) {
+                int i = this.lo1;
+                int j = this.lo2;
+                int k = this.at;
+                while (i < this.hi1 && j < this.hi2) {
+                    if (this.order.compare(this.from[j], this.from[i]) < 0) {
+                        this.to[k] = this.from[j];
+                        j++;
+                    } else {
+                        this.to[k] = this.from[i];
+                        i++;
+                    }
+                    k++;
+                }
+                System.arraycopy(this.from, i, this.to, k, this.hi1 - i);
+                System.arraycopy(this.from, j, this.to, k + this.hi1 - i,
+                        this.hi2 - j);
+            } else {
+                /*
+                 * Split the longer run at its middle entry, and the other run
+                 * where that entry belongs: before entries not smaller than
+                 * it in the second run, after entries not larger than it in
+                 * the first, so equal entries keep their order
+                 */
+                int split1;
+                int split2;
+                if (length1 >= length2) {
+                    split1 = this.lo1 + length1 / 2;
+                    split2 = boundary(this.from, this.lo2, this.hi2,
+                            this.from[split1], this.order, false);
+                } else {
+                    split2 = this.lo2 + length2 / 2;
+                    split1 = boundary(this.from, this.lo1, this.hi1,
+                            this.from[split2], this.order, true);
+                }
+                int middle = this.at + (split1 - this.lo1)
+                        + (split2 - this.lo2);
+                invokeAll(
+                        new MergeTask<T>(this.from, this.lo1, split1,
+                                this.lo2, split2, this.to, this.at,
+                                this.order),
+                        new MergeTask<T>(this.from, split1, this.hi1, split2,
+                                this.hi2, this.to, middle, this.order));
+            }
+        }
+
+    }
+
+    /**
+     * Fork/join task that sorts a range, stably, leaving the sorted entries in
+     * one array and using the other as scratch space.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class SortTask<T> extends RecursiveAction {
+
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Scratch array.
+         */
+        private final T[] from;
+
+        /**
+         * Array receiving the sorted entries.
+         */
+        private final T[] to;
+
+        /**
+         * First index of the range.
+         */
+        private final int lo;
+
+        /**
+         * Index after the last of the range.
+         */
+        private final int hi;
+
+        /**
+         * Ordering by which to sort.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor.
+         *
+         * @param from
+         *            scratch array, holding the same range as {@code to}
+         * @param to
+         *            array receiving the sorted entries
+         * @param lo
+         *            first index of the range
+         * @param hi
+         *            index after the last of the range
+         * @param order
+         *            ordering by which to sort
+         */
+        private SortTask(T[] from, T[] to, int lo, int hi,
+                Comparator<T> order) {
+            this.from = from;
+            this.to = to;
+            this.lo = lo;
+            this.hi = hi;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo <= SEQUENTIAL_THRESHOLD) {
+                Arrays.sort(this.to, this.lo, this.hi, this.order);
+            } else {
+                /*
+                 * Sort each half into the scratch array, then merge the halves
+                 * back; the roles of the arrays swap at each level, so no
+                 * entries are copied except by merging
+                 */
+                int mid = this.lo + (this.hi - this.lo) / 2;
+                invokeAll(
+                        new SortTask<T>(this.to, this.from, this.lo, mid,
+                                this.order),
+                        new SortTask<T>(this.to, this.from, mid, this.hi,
+                                this.order));
+                new MergeTask<T>(this.from, this.lo, mid, mid, this.hi,
+                        this.to, this.lo, this.order).compute();
+            }
+        }
+
+    }
+
+    /**
+     * Reports the first index of {@code array[lo, hi)} whose entry is larger
+     * than {@code x} (if {@code after}) or not smaller than {@code x} (if not
+     * {@code after}).
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            the first index of the range
+     * @param hi
+     *            the index after the last of the range
+     * @param x
+     *            the entry to place
+     * @param order
+     *            ordering of the range
+     * @param after
+     *            whether {@code x} goes after entries equal to it
+     * @return the index where {@code x} belongs
+     * @requires <pre>
+     * 0 <= lo <= hi <= |array|  and
+     * IS_SORTED(array[lo, hi), [relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * lo <= boundary <= hi  and
+     * [the entries of array[lo, boundary) are smaller than x, or not larger
+     *  if after]  and
+     * [the entries of array[boundary, hi) are not smaller than x, or larger
+     *  if after]
+     * </pre>
+     */
+    private static <T> int boundary(T[] array, int lo, int hi, T x,
+            Comparator<T> order, boolean after) {
+        int low = lo;
+        int high = hi;
+        while (low < high) {
+            int mid = low + (high - low) / 2;
+            int comparison = order.compare(array[mid], x);
+            if (comparison < 0 || (after && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    private void createNewRep(Comparator<T> order) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.entries = new Queue1L<T>();
+        this.sorted = null;
+        this.next = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, sorting on as many threads as there are
+     * available processors.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine6(Comparator<T> order) {
+        this(order, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor from order and number of threads.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param parallelism
+     *            number of threads used to sort
+     * @requires parallelism > 0
+     */
+    public SortingMachine6(Comparator<T> order, int parallelism) {
+        assert parallelism > 0 : "Violation of: parallelism > 0";
+        this.parallelism = parallelism;
+        this.createNewRep(order);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass().getConstructor(Comparator.class,
+                    int.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder,
+                    this.parallelism);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine6<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine6<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine6<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine6<T> localSource = (SortingMachine6<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.parallelism = localSource.parallelism;
+        this.entries = localSource.entries;
+        this.sorted = localSource.sorted;
+        this.next = localSource.next;
+        localSource.createNewRep(localSource.machineOrder);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.entries.enqueue(x);
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.insertionMode = false;
+        /*
+         * Impossible to create an array of type T, so we create one of type
+         * Object and cast it to an array of type T
+         */
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) (new Object[this.entries.length()]);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = this.entries.dequeue();
+        }
+        if (array.length <= SEQUENTIAL_THRESHOLD || this.parallelism == 1) {
+            Arrays.sort(array, this.machineOrder);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+            try {
+                pool.invoke(new SortTask<T>(array.clone(), array, 0,
+                        array.length, this.machineOrder));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        this.sorted = array;
+        this.next = 0;
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+        T first = this.sorted[this.next];
+        this.sorted[this.next] = null;
+        this.next++;
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.entries.length();
+        if (!this.insertionMode) {
+            size = this.sorted.length - this.next;
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine6Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code SortingMachine6}.
+     * In extraction mode, it visits the entries in sorted order.
+     */
+    private final class SortingMachine6Iterator implements Iterator<T> {
+
+        /**
+         * Representation iterator in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Index of the next sorted entry, in extraction mode.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine6Iterator() {
+            if (SortingMachine6.this.insertionMode) {
+                this.queueIterator = SortingMachine6.this.entries.iterator();
+            } else {
+                this.current = SortingMachine6.this.next;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (this.queueIterator != null) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                hasNext = this.current < SortingMachine6.this.sorted.length;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x;
+            if (this.queueIterator != null) {
+                x = this.queueIterator.next();
+            } else {
+                x = SortingMachine6.this.sorted[this.current];
+                this.current++;
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,1033 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code SortingMachine4} and sorted
+ * runs in temporary files (using an embedding of external merge sort), with
+ * implementations of primary methods.
+ *
+ * <p>
+ * Entries are added to an in-memory {@code SortingMachine4}. Whenever it holds
+ * {@code maxInMemory} entries, they are sorted and written, in order, to a new
+ * temporary file (a run), with the given {@code EntrySerializer}, and the
+ * machine is emptied. If no run was ever written, the machine simply sorts in
+ * memory, exactly as {@code SortingMachine4} does. Otherwise
+ * {@code changeToExtractionMode} writes what is left as a last run, merges
+ * every {@code MERGE_FAN_IN} consecutive runs into one until there are at most
+ * {@code MERGE_FAN_IN} runs, so that no more than that many run files are
+ * ever open at once, and {@code removeFirst} merges the runs left: a heap of
+ * runs, ordered by their next entries, gives the run with the smallest one, so
+ * only one entry per run is in memory during extraction. Of equal entries from
+ * different runs, the one from the earlier run comes first. Each run file is
+ * deleted once it has been read to the end, or when the machine is cleared or
+ * replaced; the run files of a machine dropped with runs still unread are
+ * closed and deleted by a {@code Cleaner} once the machine is garbage
+ * collected. The iterator reads the runs in batches, and closes its run file
+ * after each batch, so an iteration stopped early leaves no file open.
+ *
+ * <p>
+ * An I/O error on a run file is thrown as an {@code UncheckedIOException}.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_SORTED (
+ *   s: string of T,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y: T where (<x, y> is substring of s) (r(x, y))
+ *
+ * RUN (
+ *   f: File,
+ *   n: integer
+ *  ) : string of T is
+ *  [the string of the n entries that the serializer reads from the file f]
+ *
+ * UNREAD (
+ *   f: File,
+ *   n: integer,
+ *   k: integer
+ *  ) : string of T is
+ *  [the last k entries of RUN(f, n)]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])  and
+ * $this.maxInMemory > 0  and
+ * $this.buffer.order = $this.machineOrder  and
+ * $this.buffer.insertion_mode = $this.insertionMode  and
+ * 0 <= $this.files.count <= |$this.files.runs| = |$this.runLengths|
+ *   = |$this.unread|  and
+ * for all r: integer where (0 <= r < $this.files.count)
+ *  (0 <= $this.unread[r] <= $this.runLengths[r]  and
+ *   IS_SORTED(RUN($this.files.runs[r], $this.runLengths[r]),
+ *     [relation computed by $this.machineOrder.compare method]))  and
+ * if $this.insertionMode then
+ *  |$this.buffer| < $this.maxInMemory  and  $this.heapSize = 0  and
+ *  for all r: integer where (0 <= r < $this.files.count)
+ *   ($this.unread[r] = $this.runLengths[r])
+ * else if $this.files.count > 0 then
+ *  |$this.buffer| = 0  and  $this.files.count <= MERGE_FAN_IN  and
+ *  [$this.heap[0, $this.heapSize) holds each r such that
+ *   $this.heads[r] /= null exactly once, and is a heap ordered by
+ *   $this.heads[r], then by r]  and
+ *  for all r: integer where (0 <= r < $this.files.count)
+ *   ($this.heads[r] /= null  or  $this.unread[r] = 0)  and
+ *   ($this.heads[r] /= null  iff
+ *    [$this.files.readers[r] is open on $this.files.runs[r], just before
+ *     UNREAD($this.files.runs[r], $this.runLengths[r], $this.unread[r])])
+ *  and
+ * $this.size = |$this.buffer| + [number of r such that $this.heads[r] /= null]
+ *   + [sum of $this.unread[r] over 0 <= r < $this.files.count]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *   $this.buffer.contents union
+ *   [multiset of the non-null entries of $this.heads] union
+ *   [union over 0 <= r < $this.files.count of multiset_entries(
+ *     UNREAD($this.files.runs[r], $this.runLengths[r], $this.unread[r]))])
+ * </pre>
+ */
+public class SortingMachine7<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Largest number of entries kept in memory when none is given.
+     */
+    private static final int DEFAULT_MAX_IN_MEMORY = 1_000_000;
+
+    /**
+     * Initial capacity of the arrays describing the runs.
+     */
+    private static final int INITIAL_RUNS = 4;
+
+    /**
+     * Largest number of entries of a run the iterator reads at a time.
+     */
+    private static final int ITERATOR_BATCH = 1_024;
+
+    /**
+     * Largest number of runs merged at once, and hence of run files open at
+     * once.
+     */
+    static final int MERGE_FAN_IN = 64;
+
+    /**
+     * Cleaner that closes and deletes the run files of dropped machines.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Serializer of entries to and from run files.
+     */
+    private EntrySerializer<T> serializer;
+
+    /**
+     * Largest number of entries kept in memory before they are written to a
+     * run.
+     */
+    private int maxInMemory;
+
+    /**
+     * Entries not written to a run.
+     */
+    private SortingMachine<T> buffer;
+
+    /**
+     * Run files and their readers, in an object of their own that the cleaner
+     * can close and delete without keeping this machine reachable.
+     */
+    private final RunFiles files;
+
+    /**
+     * Number of entries written to each run file.
+     */
+    private int[] runLengths;
+
+    /**
+     * Number of entries not yet read from each run file.
+     */
+    private int[] unread;
+
+    /**
+     * Next entry of each run, or null once the run is used up, in extraction
+     * mode.
+     */
+    private T[] heads;
+
+    /**
+     * Heap of the indices of the runs that are not used up, in extraction
+     * mode.
+     */
+    private int[] heap;
+
+    /**
+     * Number of runs in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Input stream that counts the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /**
+         * Offset in the underlying file of the next byte to read.
+         */
+        private long offset;
+
+        /**
+         * Constructor from the underlying stream and its offset in its file.
+         *
+         * @param in
+         *            the underlying stream
+         * @param offset
+         *            the offset of the next byte of in
+         */
+        CountingInputStream(InputStream in, long offset) {
+            super(in);
+            this.offset = offset;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.offset++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.offset += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.offset += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+    }
+
+    /**
+     * Reader of a run file that knows the offset in the file of the next
+     * entry it will read.
+     */
+    private static final class RunReader extends DataInputStream {
+
+        /**
+         * Constructor from the stream of the run file.
+         *
+         * @param in
+         *            the stream of the run file
+         */
+        RunReader(CountingInputStream in) {
+            super(in);
+        }
+
+        /**
+         * Returns the offset in the run file of the next byte to read.
+         *
+         * @return the offset
+         */
+        long offset() {
+            return ((CountingInputStream) this.in).offset;
+        }
+
+    }
+
+    /**
+     * Run files of a machine, with their readers while they are merged.
+     */
+    private static final class RunFiles implements Runnable {
+
+        /**
+         * Run files.
+         */
+        private File[] runs;
+
+        /**
+         * Readers of the run files, while they are merged.
+         */
+        private RunReader[] readers;
+
+        /**
+         * Number of runs.
+         */
+        private int count;
+
+        /**
+         * Closes any open readers of the run files, and deletes the run files.
+         */
+        @Override
+        public void run() {
+            for (int r = 0; r < this.count; r++) {
+                if (this.readers != null && r < this.readers.length
+                        && this.readers[r] != null) {
+                    close(this.readers[r]);
+                    this.readers[r] = null;
+                }
+                if (this.runs[r].exists()) {
+                    this.runs[r].delete();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Opens and returns a reader of {@code file}, starting {@code offset}
+     * bytes into it.
+     *
+     * @param file
+     *            the run file
+     * @param offset
+     *            the offset of the first entry to read
+     * @return the reader
+     * @requires [offset is 0 or the offset of an entry of file]
+     */
+    private static RunReader openRun(File file, long offset) {
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                in.getChannel().position(offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            return new RunReader(new CountingInputStream(
+                    new BufferedInputStream(in), offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read run file " + file, e);
+        }
+    }
+
+    /**
+     * Reads the next entry from {@code in} and returns it.
+     *
+     * @param <T>
+     *            type of entries
+     * @param in
+     *            the reader of a run file
+     * @param serializer
+     *            the serializer of the entries
+     * @return the entry read
+     * @updates in
+     * @requires [in has another entry]
+     */
+    private static <T> T readEntry(DataInputStream in,
+            EntrySerializer<T> serializer) {
+        try {
+            return serializer.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read run file", e);
+        }
+    }
+
+    /**
+     * Closes {@code in}.
+     *
+     * @param in
+     *            the reader of a run file
+     */
+    private static void close(DataInputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close run file", e);
+        }
+    }
+
+    /**
+     * Creates a new, empty run file, records it as the last run, and returns
+     * a stream to write its entries to.
+     *
+     * @return the stream of the new run file
+     * @updates this.files, this.runLengths, this.unread
+     * @ensures <pre>
+     * this.files.count = #this.files.count + 1  and
+     * [this.files.runs[this.files.count - 1] is a new empty temporary file]
+     *  and
+     * this.runLengths[this.files.count - 1] = 0  and
+     * this.unread[this.files.count - 1] = 0
+     * </pre>
+     */
+    private DataOutputStream newRun() {
+        if (this.files.count == this.files.runs.length) {
+            int capacity = 2 * this.files.runs.length;
+            this.files.runs = Arrays.copyOf(this.files.runs, capacity);
+            this.runLengths = Arrays.copyOf(this.runLengths, capacity);
+            this.unread = Arrays.copyOf(this.unread, capacity);
+        }
+        File file = null;
+        try {
+            file = File.createTempFile("SortingMachine7-", ".run");
+            this.files.runs[this.files.count] = file;
+            this.runLengths[this.files.count] = 0;
+            this.unread[this.files.count] = 0;
+            this.files.count++;
+            return new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write run file " + file, e);
+        }
+    }
+
+    /**
+     * Writes {@code length} entries, in order, to a new run file: those of
+     * {@code this.buffer} if not {@code merging}, and otherwise those of the
+     * runs in the heap.
+     *
+     * @param length
+     *            the number of entries
+     * @param merging
+     *            whether the entries come from the runs in the heap
+     * @updates this
+     * @requires <pre>
+     * if merging then
+     *  [the runs in the heap have length entries in all]
+     * else
+     *  not this.buffer.insertion_mode  and  |this.buffer| = length
+     * </pre>
+     * @ensures <pre>
+     * this.files.count = #this.files.count + 1  and
+     * RUN(this.files.runs[this.files.count - 1],
+     *   this.runLengths[this.files.count - 1]) = [the length entries in order]
+     * </pre>
+     */
+    private void writeRun(int length, boolean merging) {
+        DataOutputStream out = this.newRun();
+        int last = this.files.count - 1;
+        try {
+            try {
+                for (int i = 0; i < length; i++) {
+                    T x;
+                    if (merging) {
+                        x = this.nextMerged();
+                    } else {
+                        x = this.buffer.removeFirst();
+                    }
+                    this.serializer.write(out, x);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Cannot write run file " + this.files.runs[last], e);
+        }
+        this.runLengths[last] = length;
+        this.unread[last] = length;
+    }
+
+    /**
+     * Sorts the entries of {@code this.buffer}, writes them to a new run file,
+     * and leaves {@code this.buffer} empty, in insertion mode.
+     *
+     * @updates this
+     * @requires this.buffer.insertion_mode  and  |this.buffer| > 0
+     * @ensures <pre>
+     * |this.buffer| = 0  and  this.files.count = #this.files.count + 1  and
+     * RUN(this.files.runs[this.files.count - 1],
+     *   this.runLengths[this.files.count - 1])
+     *  = [#this.buffer.contents in order]
+     * </pre>
+     */
+    private void spill() {
+        this.buffer.changeToExtractionMode();
+        this.writeRun(this.buffer.size(), false);
+        this.buffer = new SortingMachine4<T>(this.machineOrder);
+    }
+
+    /**
+     * Reports whether the next entry of run {@code r} comes before that of
+     * run {@code s}: it is smaller, or they are equal and {@code r} is the
+     * earlier run.
+     *
+     * @param r
+     *            the index of a run
+     * @param s
+     *            the index of another run
+     * @return true iff run r comes before run s
+     * @requires this.heads[r] /= null  and  this.heads[s] /= null
+     */
+    private boolean precedes(int r, int s) {
+        int comparison = this.machineOrder.compare(this.heads[r],
+                this.heads[s]);
+        return comparison < 0 || (comparison == 0 && r < s);
+    }
+
+    /**
+     * Sifts the run at index {@code top} of the heap down, holding it aside
+     * while each preceding child moves up into the hole it leaves, so that
+     * the subtree rooted at {@code top} is a heap.
+     *
+     * @param top
+     *            the index of the root of the subtree
+     * @updates this.heap
+     * @requires <pre>
+     * 0 <= top < this.heapSize  and
+     * [the subtrees rooted at the children of top are heaps]
+     * </pre>
+     * @ensures [the subtree rooted at top is a heap]
+     */
+    private void siftDown(int top) {
+        int root = this.heap[top];
+        int hole = top;
+        int last = this.heapSize - 1;
+        boolean done = false;
+        while (!done && last > 0 && hole <= (last - 1) / 2) {
+            int first = 2 * hole + 1;
+            int right = first + 1;
+            if (right <= last && this.precedes(this.heap[right],
+                    this.heap[first])) {
+                first = right;
+            }
+            if (this.precedes(this.heap[first], root)) {
+                this.heap[hole] = this.heap[first];
+                hole = first;
+            } else {
+                done = true;
+            }
+        }
+        this.heap[hole] = root;
+    }
+
+    /**
+     * Opens the runs with indices in [{@code from}, {@code to}), reads their
+     * first entries, and makes the heap hold exactly those runs.
+     *
+     * @param from
+     *            the index of the first run
+     * @param to
+     *            the index after the last run
+     * @updates this.files.readers, this.heads, this.heap, this.heapSize,
+     *          this.unread
+     * @requires <pre>
+     * 0 <= from < to <= this.files.count  and
+     * |this.files.readers| >= to  and  |this.heads| >= to  and
+     * |this.heap| >= to - from  and
+     * for all r: integer where (from <= r < to)
+     *  (this.unread[r] = this.runLengths[r] > 0)
+     * </pre>
+     * @ensures <pre>
+     * this.heapSize = to - from  and
+     * [this.heap[0, this.heapSize) is a heap of the runs from, ..., to - 1,
+     *  each open and with its first entry in this.heads]
+     * </pre>
+     */
+    private void openRuns(int from, int to) {
+        for (int r = from; r < to; r++) {
+            this.files.readers[r] = openRun(this.files.runs[r], 0);
+            this.heads[r] = readEntry(this.files.readers[r], this.serializer);
+            this.unread[r]--;
+            this.heap[r - from] = r;
+        }
+        this.heapSize = to - from;
+        for (int i = this.heapSize / 2 - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    }
+
+    /**
+     * Removes and returns the first entry of the runs in the heap, closing
+     * and deleting the run it comes from if that was its last entry.
+     *
+     * @return the entry removed
+     * @updates this
+     * @requires this.heapSize > 0
+     * @ensures <pre>
+     * [nextMerged is the entry that comes first of the heads of the runs in
+     *  #this.heap, then by run]  and
+     * [that run has its next entry as its head, or is closed, deleted, and
+     *  out of the heap if it has none]
+     * </pre>
+     */
+    private T nextMerged() {
+        int r = this.heap[0];
+        T first = this.heads[r];
+        if (this.unread[r] > 0) {
+            this.heads[r] = readEntry(this.files.readers[r], this.serializer);
+            this.unread[r]--;
+        } else {
+            close(this.files.readers[r]);
+            this.files.readers[r] = null;
+            this.files.runs[r].delete();
+            this.heads[r] = null;
+            this.heapSize--;
+            this.heap[0] = this.heap[this.heapSize];
+        }
+        if (this.heapSize > 0) {
+            this.siftDown(0);
+        }
+        return first;
+    }
+
+    /**
+     * Merges every {@code MERGE_FAN_IN} consecutive runs into one, as many
+     * times as needed for at most {@code MERGE_FAN_IN} runs to be left. As
+     * the runs merged are consecutive, of equal entries the one from the
+     * earlier run still comes first.
+     *
+     * @updates this.files, this.runLengths, this.unread
+     * @requires <pre>
+     * for all r: integer where (0 <= r < this.files.count)
+     *  (this.unread[r] = this.runLengths[r] > 0)
+     * </pre>
+     * @ensures <pre>
+     * this.files.count <= MERGE_FAN_IN  and
+     * [the runs of this hold the entries of the runs of #this, in the same
+     *  order when merged]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void mergeRuns() {
+        while (this.files.count > MERGE_FAN_IN) {
+            int count = this.files.count;
+            this.files.readers = new RunReader[count];
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.heads = (T[]) (new Object[count]);
+            this.heap = new int[MERGE_FAN_IN];
+            for (int from = 0; from < count; from += MERGE_FAN_IN) {
+                int to = Math.min(count, from + MERGE_FAN_IN);
+                int length = 0;
+                for (int r = from; r < to; r++) {
+                    length += this.runLengths[r];
+                }
+                this.openRuns(from, to);
+                this.writeRun(length, true);
+            }
+            /*
+             * The runs merged have all been read to the end and deleted, so
+             * the merged runs written after them take their places
+             */
+            int merged = this.files.count - count;
+            System.arraycopy(this.files.runs, count, this.files.runs, 0,
+                    merged);
+            System.arraycopy(this.runLengths, count, this.runLengths, 0,
+                    merged);
+            System.arraycopy(this.unread, count, this.unread, 0, merged);
+            Arrays.fill(this.files.runs, merged, this.files.count, null);
+            this.files.count = merged;
+            this.files.readers = null;
+            this.heads = null;
+            this.heap = null;
+        }
+    }
+
+    /**
+     * Deletes the run files, after closing any open readers of them.
+     *
+     * @updates this
+     * @ensures [the run files of #this are closed and deleted]
+     */
+    private void deleteRuns() {
+        this.files.run();
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    private void createNewRep(Comparator<T> order) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.buffer = new SortingMachine4<T>(order);
+        this.files.runs = new File[INITIAL_RUNS];
+        this.files.readers = null;
+        this.files.count = 0;
+        this.runLengths = new int[INITIAL_RUNS];
+        this.unread = new int[INITIAL_RUNS];
+        this.heads = null;
+        this.heap = null;
+        this.heapSize = 0;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, keeping up to {@code DEFAULT_MAX_IN_MEMORY}
+     * entries in memory and writing runs with Java object serialization.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @requires [the entries added are java.io.Serializable]
+     */
+    public SortingMachine7(Comparator<T> order) {
+        this(order, EntrySerializer.objects(), DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Constructor from order, serializer, and largest number of entries kept
+     * in memory.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param serializer
+     *            serializer of entries to and from run files
+     * @param maxInMemory
+     *            largest number of entries kept in memory
+     * @requires maxInMemory > 0
+     */
+    public SortingMachine7(Comparator<T> order, EntrySerializer<T> serializer,
+            int maxInMemory) {
+        assert serializer != null : "Violation of: serializer is not null";
+        assert maxInMemory > 0 : "Violation of: maxInMemory > 0";
+        this.serializer = serializer;
+        this.maxInMemory = maxInMemory;
+        this.files = new RunFiles();
+        CLEANER.register(this, this.files);
+        this.createNewRep(order);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass().getConstructor(Comparator.class,
+                    EntrySerializer.class, int.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder,
+                    this.serializer, this.maxInMemory);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.deleteRuns();
+        this.createNewRep(this.machineOrder);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine7<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine7<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine7<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine7<T> localSource = (SortingMachine7<T>) source;
+        this.deleteRuns();
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.serializer = localSource.serializer;
+        this.maxInMemory = localSource.maxInMemory;
+        this.buffer = localSource.buffer;
+        this.files.runs = localSource.files.runs;
+        this.files.readers = localSource.files.readers;
+        this.files.count = localSource.files.count;
+        this.runLengths = localSource.runLengths;
+        this.unread = localSource.unread;
+        this.heads = localSource.heads;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.buffer.add(x);
+        this.size++;
+        if (this.buffer.size() == this.maxInMemory) {
+            this.spill();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+        this.insertionMode = false;
+        if (this.files.count == 0) {
+            this.buffer.changeToExtractionMode();
+        } else {
+            if (this.buffer.size() > 0) {
+                this.spill();
+            }
+            this.buffer.changeToExtractionMode();
+            this.mergeRuns();
+            this.files.readers = new RunReader[this.files.count];
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.heads = (T[]) (new Object[this.files.count]);
+            this.heap = new int[this.files.count];
+            this.openRuns(0, this.files.count);
+        }
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+        T first;
+        if (this.files.count == 0) {
+            first = this.buffer.removeFirst();
+        } else {
+            first = this.nextMerged();
+        }
+        this.size--;
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine7Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code SortingMachine7}.
+     * It visits the entries in memory, then those of each run in turn. It
+     * reads the entries of a run up to {@code ITERATOR_BATCH} at a time, each
+     * batch with a reader of its own that it closes before returning, and
+     * remembers where in the run file the next batch starts.
+     */
+    private final class SortingMachine7Iterator implements Iterator<T> {
+
+        /**
+         * Iterator of the entries in memory.
+         */
+        private Iterator<T> bufferIterator;
+
+        /**
+         * Index of the run being visited.
+         */
+        private int run;
+
+        /**
+         * Whether the next entry of the run being visited is its head.
+         */
+        private boolean headNext;
+
+        /**
+         * Entries of the run being visited read but not visited yet, in
+         * entries [batchNext, batchLength).
+         */
+        private T[] batch;
+
+        /**
+         * Index in {@code batch} of the next entry to visit.
+         */
+        private int batchNext;
+
+        /**
+         * Number of entries in {@code batch}.
+         */
+        private int batchLength;
+
+        /**
+         * Offset in the file of the run being visited of its next entry not
+         * read yet.
+         */
+        private long offset;
+
+        /**
+         * Number of entries of the run being visited not read yet.
+         */
+        private int left;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        private SortingMachine7Iterator() {
+            this.bufferIterator = SortingMachine7.this.buffer.iterator();
+            this.run = -1;
+            this.headNext = false;
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.batch = (T[]) (new Object[0]);
+            this.batchNext = 0;
+            this.batchLength = 0;
+            this.offset = 0;
+            this.left = 0;
+            this.findNext();
+        }
+
+        /**
+         * Reads the next batch of entries of the run being visited, and
+         * closes the run file again.
+         *
+         * @requires this.left > 0
+         */
+        @SuppressWarnings("unchecked")
+        private void readBatch() {
+            SortingMachine7<T> m = SortingMachine7.this;
+            int length = Math.min(this.left, ITERATOR_BATCH);
+            if (this.batch.length < length) {
+                this.batch = (T[]) (new Object[length]);
+            }
+            RunReader reader = openRun(m.files.runs[this.run], this.offset);
+            try {
+                for (int i = 0; i < length; i++) {
+                    this.batch[i] = readEntry(reader, m.serializer);
+                }
+                this.offset = reader.offset();
+            } finally {
+                close(reader);
+            }
+            this.batchNext = 0;
+            this.batchLength = length;
+            this.left -= length;
+        }
+
+        /**
+         * Moves on to the next run that has entries left, if the entries in
+         * memory and those of the run being visited have all been visited.
+         */
+        private void findNext() {
+            SortingMachine7<T> m = SortingMachine7.this;
+            while (!this.hasNext() && this.run < m.files.count - 1) {
+                this.run++;
+                this.headNext = m.heads != null && m.heads[this.run] != null;
+                this.left = m.unread[this.run];
+                this.offset = 0;
+                if (m.files.readers != null
+                        && m.files.readers[this.run] != null) {
+                    this.offset = m.files.readers[this.run].offset();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.bufferIterator.hasNext() || this.headNext
+                    || this.batchNext < this.batchLength || this.left > 0;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x;
+            if (this.bufferIterator.hasNext()) {
+                x = this.bufferIterator.next();
+            } else if (this.headNext) {
+                x = SortingMachine7.this.heads[this.run];
+                this.headNext = false;
+            } else {
+                if (this.batchNext == this.batchLength) {
+                    this.readBatch();
+                }
+                x = this.batch[this.batchNext];
+                this.batch[this.batchNext] = null;
+                this.batchNext++;
+            }
+            this.findNext();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
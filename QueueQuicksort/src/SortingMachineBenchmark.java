@@ -0,0 +1,211 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.queue.Queue;
+import components.sortingmachine.SortingMachine;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time to sort and then remove all entries for
+ * {@code SortingMachine4} (array introsort), {@code SortingMachine5} (array
+ * heap), and the recursive {@code Queue} quicksort of {@code Queue1LSort4},
+ * when the entries arrive sorted, reversed, with many duplicates, and in
+ * random order. The {@code Queue} quicksort is only measured on small sizes,
+ * since it takes the first entry as pivot and so goes quadratic, and as deep
+ * as the number of entries, on sorted and reversed input.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class SortingMachineBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachineBenchmark() {
+    }
+
+    /**
+     * Smallest number of entries measured.
+     */
+    private static final int MIN_ENTRIES = 1_000;
+
+    /**
+     * Largest number of entries measured for {@code Queue1LSort4}.
+     */
+    private static final int MAX_ENTRIES_QUEUE = 4_000;
+
+    /**
+     * Largest number of entries measured for the sorting machines.
+     */
+    private static final int MAX_ENTRIES = 1_024_000;
+
+    /**
+     * Factor by which the number of entries grows between measurements.
+     */
+    private static final int GROWTH = 4;
+
+    /**
+     * Number of distinct values in the duplicate-heavy input.
+     */
+    private static final int DISTINCT_DUPLICATES = 10;
+
+    /**
+     * Seed of the random input, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Compare {@code Integer}s in increasing order.
+     */
+    private static final Comparator<Integer> ORDER = Integer::compare;
+
+    /**
+     * Returns {@code n} entries in the given order.
+     *
+     * @param n
+     *            the number of entries
+     * @param input
+     *            "sorted", "reversed", "duplicates", or "random"
+     * @return the entries
+     * @requires n >= 0
+     */
+    private static Integer[] input(int n, String input) {
+        Random random = new Random(SEED);
+        Integer[] entries = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            if (input.equals("sorted")) {
+                entries[i] = i;
+            } else if (input.equals("reversed")) {
+                entries[i] = n - 1 - i;
+            } else if (input.equals("duplicates")) {
+                entries[i] = random.nextInt(DISTINCT_DUPLICATES);
+            } else {
+                entries[i] = random.nextInt();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the time, in milliseconds, elapsed since {@code start}.
+     *
+     * @param start
+     *            the start time, from {@code System.nanoTime}
+     * @return the elapsed milliseconds
+     */
+    private static String millisSince(long start) {
+        return String.format("%.1f",
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Fills {@code m} with {@code entries}, then times
+     * {@code changeToExtractionMode} and removing every entry, and outputs
+     * the times taken.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            the name of the implementation
+     * @param input
+     *            the name of the input order
+     * @param m
+     *            the sorting machine to measure
+     * @param entries
+     *            the entries to sort
+     * @updates out.content, m
+     * @requires out.is_open  and  m = (true, ORDER, {})
+     */
+    private static void measure(SimpleWriter out, String name, String input,
+            SortingMachine<Integer> m, Integer[] entries) {
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        String sortTime = millisSince(start);
+        start = System.nanoTime();
+        Integer previous = null;
+        while (m.size() > 0) {
+            Integer x = m.removeFirst();
+            if (previous != null && previous > x) {
+                throw new AssertionError("Out of order in " + name);
+            }
+            previous = x;
+        }
+        String drainTime = millisSince(start);
+        out.println(name + "\t" + input + "\t" + entries.length + "\t"
+                + sortTime + "\t" + drainTime);
+    }
+
+    /**
+     * Fills {@code q} with {@code entries}, then times {@code sort} and
+     * dequeuing every entry, and outputs the times taken.
+     *
+     * @param out
+     *            the output stream
+     * @param input
+     *            the name of the input order
+     * @param q
+     *            the queue to measure
+     * @param entries
+     *            the entries to sort
+     * @updates out.content, q
+     * @requires out.is_open  and  q = <>
+     */
+    private static void measure(SimpleWriter out, String input,
+            Queue<Integer> q, Integer[] entries) {
+        for (Integer x : entries) {
+            q.enqueue(x);
+        }
+        long start = System.nanoTime();
+        q.sort(ORDER);
+        String sortTime = millisSince(start);
+        start = System.nanoTime();
+        Integer previous = null;
+        while (q.length() > 0) {
+            Integer x = q.dequeue();
+            if (previous != null && previous > x) {
+                throw new AssertionError("Out of order in Queue1LSort4");
+            }
+            previous = x;
+        }
+        String drainTime = millisSince(start);
+        out.println("Queue1LSort4\t" + input + "\t" + entries.length + "\t"
+                + sortTime + "\t" + drainTime);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Sorter\tInput\tEntries\tSort ms\tDrain ms");
+        out.println("------\t-----\t-------\t-------\t--------");
+        for (String input : new String[] { "sorted", "reversed", "duplicates",
+                "random" }) {
+            for (int n = MIN_ENTRIES; n <= MAX_ENTRIES_QUEUE; n *= GROWTH) {
+                measure(out, input, new Queue1LSort4<Integer>(),
+                        input(n, input));
+            }
+            for (int n = MIN_ENTRIES; n <= MAX_ENTRIES; n *= GROWTH) {
+                measure(out, "SortingMachine4", input,
+                        new SortingMachine4<Integer>(ORDER), input(n, input));
+                measure(out, "SortingMachine5", input,
+                        new SortingMachine5<Integer>(ORDER), input(n, input));
+            }
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,123 @@
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.queue.Queue;
+
+/**
+ * JUnit test fixture for the radix sorts of {@code Queue1LSort4}, checked
+ * against its {@code Comparator} {@code sort}.
+ */
+public final class Queue1LSort4Test {
+
+    /**
+     * Seed of the random entries, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Returns a {@code Queue1LSort4<Integer>} with the given entries.
+     *
+     * @param args
+     *            the entries
+     * @return the queue
+     */
+    private static Queue1LSort4<Integer> queueOf(Integer... args) {
+        Queue1LSort4<Integer> q = new Queue1LSort4<Integer>();
+        for (Integer x : args) {
+            q.enqueue(x);
+        }
+        return q;
+    }
+
+    @Test
+    public final void testSortByIntKeyEmpty() {
+        Queue1LSort4<Integer> q = queueOf();
+        q.sortByIntKey(Integer::intValue);
+        assertEquals(queueOf(), q);
+    }
+
+    @Test
+    public final void testSortByIntKeyNegativeAndExtremes() {
+        Queue1LSort4<Integer> q = queueOf(3, -1, Integer.MAX_VALUE, 0,
+                Integer.MIN_VALUE, -256, 256, 3);
+        q.sortByIntKey(Integer::intValue);
+        assertEquals(queueOf(Integer.MIN_VALUE, -256, -1, 0, 3, 3, 256,
+                Integer.MAX_VALUE), q);
+    }
+
+    @Test
+    public final void testSortByIntKeyMatchesSort() {
+        final int n = 5_000;
+        Random random = new Random(SEED);
+        Queue1LSort4<Integer> q = queueOf();
+        Queue1LSort4<Integer> qExpected = queueOf();
+        for (int i = 0; i < n; i++) {
+            int x = random.nextInt();
+            q.enqueue(x);
+            qExpected.enqueue(x);
+        }
+        q.sortByIntKey(Integer::intValue);
+        qExpected.sort(Comparator.naturalOrder());
+        assertEquals(qExpected, q);
+    }
+
+    @Test
+    public final void testSortByIntKeyIsStable() {
+        Queue1LSort4<String> q = new Queue1LSort4<String>();
+        for (String x : new String[] { "bb", "a", "cc", "d", "ee", "f" }) {
+            q.enqueue(x);
+        }
+        q.sortByIntKey(String::length);
+        Queue<String> qExpected = q.newInstance();
+        for (String x : new String[] { "a", "d", "f", "bb", "cc", "ee" }) {
+            qExpected.enqueue(x);
+        }
+        assertEquals(qExpected, q);
+    }
+
+    @Test
+    public final void testSortByBytesKeyMatchesSort() {
+        /*
+         * Short keys over a small alphabet, so there are many shared prefixes
+         * and equal keys, and some keys are prefixes of others
+         */
+        final int n = 5_000;
+        final int maxLength = 6;
+        final int letters = 4;
+        Random random = new Random(SEED);
+        Queue1LSort4<String> q = new Queue1LSort4<String>();
+        Queue1LSort4<String> qExpected = new Queue1LSort4<String>();
+        for (int i = 0; i < n; i++) {
+            StringBuilder s = new StringBuilder();
+            int length = random.nextInt(maxLength + 1);
+            for (int j = 0; j < length; j++) {
+                s.append((char) ('a' + random.nextInt(letters)));
+            }
+            q.enqueue(s.toString());
+            qExpected.enqueue(s.toString());
+        }
+        q.sortByBytesKey(s -> s.getBytes(StandardCharsets.UTF_8));
+        qExpected.sort(Comparator.naturalOrder());
+        assertEquals(qExpected, q);
+    }
+
+    @Test
+    public final void testSortByBytesKeyUnsignedBytes() {
+        Queue1LSort4<String> q = new Queue1LSort4<String>();
+        for (String x : new String[] { "\u00e9", "z", "", "e", "\u00e9a" }) {
+            q.enqueue(x);
+        }
+        q.sortByBytesKey(s -> s.getBytes(StandardCharsets.UTF_8));
+        Queue<String> qExpected = q.newInstance();
+        for (String x : new String[] { "", "e", "z", "\u00e9", "\u00e9a" }) {
+            qExpected.enqueue(x);
+        }
+        assertEquals(qExpected, q);
+    }
+
+}
@@ -1,5 +1,11 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
 import java.util.Comparator;
 
+import org.junit.Test;
+
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
 
@@ -18,4 +24,176 @@ public final class SortingMachine4Test extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    /**
+     * Number of entries in the larger test cases, well above the size below
+     * which {@code SortingMachine4} switches to insertion sort.
+     */
+    private static final int MANY = 1_000;
+
+    /**
+     * Adds {@code entries} to a new {@code SortingMachine4} ordered by
+     * {@code order}, changes it to extraction mode, and checks that it removes
+     * them in the order {@code Arrays.sort} puts them in.
+     *
+     * @param entries
+     *            the entries to sort
+     * @param order
+     *            the order to sort them by
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
+     */
+    private static void assertSorts(Integer[] entries,
+            Comparator<Integer> order) {
+        SortingMachine<Integer> m = new SortingMachine4<Integer>(order);
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        Integer[] expected = entries.clone();
+        Arrays.sort(expected, order);
+        assertEquals(expected.length, m.size());
+        for (Integer x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+    }
+
+    /**
+     * Order on the indices 0 to n - 1 that only fixes the value behind an
+     * index when the sort first needs it, and always so as to make the
+     * partition as unbalanced as it can (M. D. McIlroy, "A Killer Adversary
+     * for Quicksort"). Sorting the values it settles on, added in the same
+     * order, makes a deterministic quicksort repeat the same comparisons.
+     */
+    private static final class Adversary implements Comparator<Integer> {
+
+        /**
+         * Value behind each index; {@code gas} until it is fixed.
+         */
+        private final int[] values;
+
+        /**
+         * Value of the indices not fixed yet, above every fixed value.
+         */
+        private final int gas;
+
+        /**
+         * Number of values fixed so far, and so the next value to fix.
+         */
+        private int solid;
+
+        /**
+         * Index not fixed yet that was last compared with a fixed one, and so
+         * is probably the pivot.
+         */
+        private int candidate;
+
+        /**
+         * Constructor.
+         *
+         * @param n
+         *            the number of indices
+         */
+        Adversary(int n) {
+            this.values = new int[n];
+            this.gas = n;
+            Arrays.fill(this.values, this.gas);
+            this.solid = 0;
+            this.candidate = -1;
+        }
+
+        @Override
+        public int compare(Integer x, Integer y) {
+            if (this.values[x] == this.gas && this.values[y] == this.gas) {
+                if (x == this.candidate) {
+                    this.values[x] = this.solid;
+                } else {
+                    this.values[y] = this.solid;
+                }
+                this.solid++;
+            }
+            if (this.values[x] == this.gas) {
+                this.candidate = x;
+            } else if (this.values[y] == this.gas) {
+                this.candidate = y;
+            }
+            return Integer.compare(this.values[x], this.values[y]);
+        }
+
+        /**
+         * Returns the value settled on for each index.
+         *
+         * @return the values
+         */
+        Integer[] values() {
+            Integer[] values = new Integer[this.values.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = this.values[i];
+            }
+            return values;
+        }
+
+    }
+
+    @Test
+    public final void testSortManyAscending() {
+        Integer[] entries = new Integer[MANY];
+        for (int i = 0; i < MANY; i++) {
+            entries[i] = i;
+        }
+        assertSorts(entries, Comparator.naturalOrder());
+    }
+
+    @Test
+    public final void testSortManyDescending() {
+        Integer[] entries = new Integer[MANY];
+        for (int i = 0; i < MANY; i++) {
+            entries[i] = MANY - i;
+        }
+        assertSorts(entries, Comparator.naturalOrder());
+    }
+
+    @Test
+    public final void testSortManyEqual() {
+        Integer[] entries = new Integer[MANY];
+        Arrays.fill(entries, 7);
+        assertSorts(entries, Comparator.naturalOrder());
+    }
+
+    @Test
+    public final void testSortQuicksortKillerFallsBackToHeapsort() {
+        /*
+         * Build an input on which quicksort alone takes a quadratic number of
+         * comparisons: the depth limit must hand it over to heapsort
+         */
+        final int n = 1 << 12;
+        Adversary adversary = new Adversary(n);
+        SortingMachine<Integer> probe = new SortingMachine4<Integer>(
+                adversary);
+        for (int i = 0; i < n; i++) {
+            probe.add(i);
+        }
+        probe.changeToExtractionMode();
+        Integer[] entries = adversary.values();
+        long[] comparisons = { 0 };
+        Comparator<Integer> counting = (x, y) -> {
+            comparisons[0]++;
+            return x.compareTo(y);
+        };
+        SortingMachine<Integer> m = new SortingMachine4<Integer>(counting);
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        long sortComparisons = comparisons[0];
+        assertEquals(n, m.size());
+        int previous = m.removeFirst();
+        while (m.size() > 0) {
+            int x = m.removeFirst();
+            assertTrue(previous <= x);
+            previous = x;
+        }
+        final int log = 12;
+        assertTrue(sortComparisons < 8L * n * log);
+        assertSorts(entries, Comparator.naturalOrder());
+    }
+
 }
@@ -0,0 +1,51 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5}.
+ */
+public final class SortingMachine5Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Order of {@code String}s by length.
+     */
+    private static final Comparator<String> BY_LENGTH = (s1, s2) -> Integer
+            .compare(s1.length(), s2.length());
+
+    @Test
+    public final void testRemoveFirstDrainsInOrder() {
+        SortingMachine<String> m = this.constructorTest(BY_LENGTH);
+        final int n = 100;
+        for (int i = 0; i < n; i++) {
+            int length = (i * 37) % n;
+            StringBuilder s = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                s.append('x');
+            }
+            m.add(s.toString());
+        }
+        m.changeToExtractionMode();
+        assertEquals(n, m.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, m.removeFirst().length());
+        }
+        assertEquals(0, m.size());
+    }
+
+}
@@ -0,0 +1,63 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine6}.
+ */
+public final class SortingMachine6Test extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine6<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Order of {@code String}s of the form "key:index" by key alone.
+     */
+    private static final Comparator<String> BY_KEY = (s1, s2) -> s1
+            .substring(0, s1.indexOf(':'))
+            .compareTo(s2.substring(0, s2.indexOf(':')));
+
+    @Test
+    public final void testParallelSortIsStable() {
+        /*
+         * Enough entries that the sort forks, with many equal keys
+         */
+        final int n = 50_000;
+        final int keys = 97;
+        final int threads = 4;
+        SortingMachine<String> m = new SortingMachine6<String>(BY_KEY,
+                threads);
+        for (int i = 0; i < n; i++) {
+            m.add(String.format("%02d", (i * 31) % keys) + ":" + i);
+        }
+        m.changeToExtractionMode();
+        assertEquals(n, m.size());
+        String previous = m.removeFirst();
+        while (m.size() > 0) {
+            String x = m.removeFirst();
+            int comparison = BY_KEY.compare(previous, x);
+            assertTrue(comparison <= 0);
+            if (comparison == 0) {
+                int previousIndex = Integer.parseInt(
+                        previous.substring(previous.indexOf(':') + 1));
+                int index = Integer.parseInt(x.substring(x.indexOf(':') + 1));
+                assertTrue(previousIndex < index);
+            }
+            previous = x;
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine7}.
+ */
+public final class SortingMachine7Test extends SortingMachineTest {
+
+    /**
+     * Largest number of entries kept in memory by the machines under test, so
+     * small that every test with more entries writes runs.
+     */
+    private static final int MAX_IN_MEMORY = 2;
+
+    /**
+     * Largest number of times to collect garbage while waiting for the run
+     * files of dropped machines to be deleted.
+     */
+    private static final int GC_ATTEMPTS = 100;
+
+    /**
+     * Milliseconds to wait after each garbage collection.
+     */
+    private static final int GC_WAIT = 20;
+
+    /**
+     * Number of run files in the temporary directory before the tests.
+     */
+    private static int runFilesBefore;
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine7<String>(order, EntrySerializer.STRING,
+                MAX_IN_MEMORY);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Order of {@code String}s by their first character only.
+     */
+    private static final Comparator<String> BY_FIRST = (s1, s2) -> Character
+            .compare(s1.charAt(0), s2.charAt(0));
+
+    /**
+     * Natural order of {@code String}s.
+     */
+    private static final Comparator<String> NATURAL = (s1, s2) -> s1
+            .compareTo(s2);
+
+    /**
+     * Returns the number of run files of {@code SortingMachine7}s in the
+     * temporary directory.
+     *
+     * @return the number of run files
+     */
+    private static int runFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("SortingMachine7-")
+                        && name.endsWith(".run"));
+        int count = 0;
+        if (files != null) {
+            count = files.length;
+        }
+        return count;
+    }
+
+    /**
+     * Collects garbage until there are at most {@code max} run files in the
+     * temporary directory, or {@code GC_ATTEMPTS} times, and returns the
+     * number of run files left.
+     *
+     * @param max
+     *            the number of run files to wait for
+     * @return the number of run files
+     */
+    private static int collectRunFiles(int max) {
+        int count = runFiles();
+        int attempts = 0;
+        while (count > max && attempts < GC_ATTEMPTS) {
+            System.gc();
+            try {
+                Thread.sleep(GC_WAIT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            count = runFiles();
+            attempts++;
+        }
+        return count;
+    }
+
+    /**
+     * Records the number of run files before the tests.
+     */
+    @BeforeClass
+    public static void countRunFiles() {
+        runFilesBefore = runFiles();
+    }
+
+    /**
+     * Checks that the tests, including those that drop machines with runs
+     * unread, leave no run files behind.
+     */
+    @AfterClass
+    public static void checkNoRunFilesLeft() {
+        assertTrue(collectRunFiles(runFilesBefore) <= runFilesBefore);
+    }
+
+    /**
+     * Adds the same {@code n} random entries to {@code m} and {@code mRef},
+     * switches both to extraction mode, and checks that {@code removeFirst}
+     * returns the same entries from both, in the same order.
+     *
+     * @param m
+     *            the machine under test
+     * @param mRef
+     *            the reference machine
+     * @param n
+     *            the number of entries
+     * @updates m, mRef
+     * @requires m = (true, mRef.order, {})  and  mRef = (true, mRef.order, {})
+     */
+    private static void assertSameOrder(SortingMachine<String> m,
+            SortingMachine<String> mRef, int n) {
+        final int keys = 26;
+        Random random = new Random(n);
+        for (int i = 0; i < n; i++) {
+            String x = (char) ('a' + random.nextInt(keys))
+                    + Integer.toString(random.nextInt(n));
+            m.add(x);
+            mRef.add(x);
+        }
+        m.changeToExtractionMode();
+        mRef.changeToExtractionMode();
+        assertEquals(n, m.size());
+        while (mRef.size() > 0) {
+            assertEquals(mRef.removeFirst(), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public final void testSpilledOrderMatchesSortingMachine4() {
+        final int n = 10_000;
+        final int maxInMemory = 100;
+        assertSameOrder(new SortingMachine7<String>(NATURAL,
+                EntrySerializer.STRING, maxInMemory),
+                new SortingMachine4<String>(NATURAL), n);
+    }
+
+    @Test
+    public final void testInMemoryOrderMatchesSortingMachine4() {
+        /*
+         * With no runs written, even the order of equal entries is that of
+         * SortingMachine4
+         */
+        final int n = 1_000;
+        assertSameOrder(new SortingMachine7<String>(BY_FIRST,
+                EntrySerializer.STRING, n + 1),
+                new SortingMachine4<String>(BY_FIRST), n);
+    }
+
+    @Test
+    public final void testSpilledWithObjectSerializer() {
+        final int n = 1_000;
+        final int maxInMemory = 64;
+        assertSameOrder(new SortingMachine7<String>(NATURAL,
+                EntrySerializer.objects(), maxInMemory),
+                new SortingMachine4<String>(NATURAL), n);
+    }
+
+    @Test
+    public final void testIteratorVisitsSpilledEntries() {
+        SortingMachine<String> m = this.constructorTest(NATURAL);
+        SortingMachine<String> mExpected = this.constructorRef(NATURAL);
+        for (String x : new String[] { "red", "green", "blue", "green",
+                "yellow", "cyan", "magenta" }) {
+            m.add(x);
+            mExpected.add(x);
+        }
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertEquals(mExpected, m);
+        assertEquals(mExpected.removeFirst(), m.removeFirst());
+        assertEquals(mExpected.removeFirst(), m.removeFirst());
+        assertEquals(mExpected.removeFirst(), m.removeFirst());
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testIteratorReadsRunsInBatches() {
+        /*
+         * Runs longer than the iterator batch, some of them partly removed
+         */
+        final int n = 10_000;
+        final int maxInMemory = 2_500;
+        final int removed = 100;
+        SortingMachine<String> m = new SortingMachine7<String>(NATURAL,
+                EntrySerializer.STRING, maxInMemory);
+        SortingMachine<String> mExpected = new SortingMachine4<String>(
+                NATURAL);
+        Random random = new Random(n);
+        for (int i = 0; i < n; i++) {
+            String x = Integer.toString(random.nextInt(n));
+            m.add(x);
+            mExpected.add(x);
+        }
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        for (int i = 0; i < removed; i++) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(mExpected, m);
+        int visited = 0;
+        for (String x : m) {
+            visited++;
+        }
+        assertEquals(n - removed, visited);
+        m.clear();
+    }
+
+    /**
+     * Adds {@code n} entries to a new machine under test, switches it to
+     * extraction mode, removes one entry, and drops the machine.
+     *
+     * @param n
+     *            the number of entries
+     * @requires n > 0
+     */
+    private void dropMachineWithRuns(int n) {
+        SortingMachine<String> m = this.constructorTest(NATURAL);
+        for (int i = 0; i < n; i++) {
+            m.add(Integer.toString(i));
+        }
+        m.changeToExtractionMode();
+        m.removeFirst();
+    }
+
+    @Test
+    public final void testDroppedMachineDeletesRunFiles() {
+        final int n = 100;
+        int before = runFiles();
+        this.dropMachineWithRuns(n);
+        assertTrue(collectRunFiles(before) <= before);
+    }
+
+    @Test
+    public final void testManyRunsMergedWithBoundedFanIn() {
+        /*
+         * More than MERGE_FAN_IN * MERGE_FAN_IN runs, so that they are merged
+         * twice before extraction
+         */
+        final int n = 2 * SortingMachine7.MERGE_FAN_IN
+                * SortingMachine7.MERGE_FAN_IN * MAX_IN_MEMORY + 1;
+        SortingMachine<String> m = this.constructorTest(NATURAL);
+        SortingMachine<String> mExpected = new SortingMachine4<String>(
+                NATURAL);
+        int before = runFiles();
+        Random random = new Random(n);
+        for (int i = 0; i < n; i++) {
+            String x = Integer.toString(random.nextInt(n));
+            m.add(x);
+            mExpected.add(x);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertTrue(runFiles() <= before + SortingMachine7.MERGE_FAN_IN);
+        assertEquals(n, m.size());
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+}
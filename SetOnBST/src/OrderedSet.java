@@ -0,0 +1,94 @@
+import components.queue.Queue;
+import components.set.Set;
+
+/**
+ * {@code Set} of totally ordered elements enhanced with range queries and order
+ * statistics.
+ *
+ * @param <T>
+ *            type of {@code OrderedSet} elements
+ * @mathdefinitions <pre>
+ * RANK(
+ *   s: finite set of T,
+ *   x: T
+ *  ): integer is
+ *  |{y: T where (y is in s  and  y < x)}|
+ * </pre>
+ *
+ * @author Elijah and Mati
+ *
+ */
+public interface OrderedSet<T extends Comparable<T>> extends Set<T> {
+
+    /**
+     * Reports the number of elements of {@code this} smaller than {@code x}.
+     *
+     * @param x
+     *            the element to rank
+     * @return the number of elements of {@code this} smaller than {@code x}
+     * @ensures rank = RANK(this, x)
+     */
+    int rank(T x);
+
+    /**
+     * Reports the element of {@code this} with {@code k} smaller elements,
+     * i.e., the (k+1)-th smallest.
+     *
+     * @param k
+     *            the rank of the element
+     * @return the element of rank {@code k}
+     * @aliases reference returned by {@code select}
+     * @requires 0 <= k < |this|
+     * @ensures select is in this  and  RANK(this, select) = k
+     */
+    T select(int k);
+
+    /**
+     * Reports the largest element of {@code this} not greater than {@code x}.
+     *
+     * @param x
+     *            the bound
+     * @return the largest element {@code <= x}
+     * @aliases reference returned by {@code floor}
+     * @requires there exists y: T (y is in this  and  y <= x)
+     * @ensures <pre>
+     * floor is in this  and  floor <= x  and
+     * for all y: T where (y is in this  and  y <= x) (y <= floor)
+     * </pre>
+     */
+    T floor(T x);
+
+    /**
+     * Reports the smallest element of {@code this} not less than {@code x}.
+     *
+     * @param x
+     *            the bound
+     * @return the smallest element {@code >= x}
+     * @aliases reference returned by {@code ceiling}
+     * @requires there exists y: T (y is in this  and  y >= x)
+     * @ensures <pre>
+     * ceiling is in this  and  ceiling >= x  and
+     * for all y: T where (y is in this  and  y >= x) (ceiling <= y)
+     * </pre>
+     */
+    T ceiling(T x);
+
+    /**
+     * Reports, in increasing order, the elements of {@code this} between
+     * {@code low} and {@code high}, inclusive.
+     *
+     * @param low
+     *            the lower bound
+     * @param high
+     *            the upper bound
+     * @return the elements of {@code this} between the bounds
+     * @aliases references in returned {@code Queue}
+     * @requires low <= high
+     * @ensures <pre>
+     * elements(range) = {y: T where (y is in this  and  low <= y <= high)}  and
+     * [range is in increasing order]
+     * </pre>
+     */
+    Queue<T> range(T low, T high);
+
+}
@@ -1,13 +1,31 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import components.binarytree.BinaryTree;
 import components.binarytree.BinaryTree1;
+import components.queue.Queue;
+import components.queue.Queue1L;
 import components.set.Set;
 import components.set.SetSecondary;
 
 /**
  * {@code Set} represented as a {@code BinaryTree} (maintained as a binary
- * search tree) of elements with implementations of primary methods.
+ * search tree) of elements with implementations of primary methods and of the
+ * {@code OrderedSet} methods.
+ *
+ * <p>
+ * The {@code OrderedSet} methods walk a single path from the root (plus, for
+ * {@code range}, the elements reported), using the subtree sizes reported by
+ * {@code BinaryTree.size} for order statistics, so they take time proportional
+ * to the height of the tree rather than to |this|.
+ *
+ * <p>
+ * {@code addSorted}, and {@code add(Set)} and {@code remove(Set)} when the
+ * argument is also a {@code Set3a}, merge the elements of the two sets in
+ * increasing order and rebuild balanced trees from the result, so they take
+ * time linear in the total number of elements.
  *
  * @param <T>
  *            type of {@code Set} elements
@@ -25,7 +43,8 @@ import components.set.SetSecondary;
  * @author Elijah and Mati
  *
  */
-public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
+public class Set3a<T extends Comparable<T>> extends SetSecondary<T>
+        implements OrderedSet<T> {
 
     /*
      * Private members --------------------------------------------------------
@@ -36,6 +55,131 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      */
     private BinaryTree<T> tree;
 
+    /**
+     * Record of the trees disassembled while walking down a {@code BinaryTree}
+     * without recursion, so that they can all be reassembled, deepest first,
+     * once the walk is over.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     */
+    private static final class Disassembly<T> {
+
+        /**
+         * Number of trees the arrays can hold before they first grow.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Trees disassembled so far, in order, in entries [0, length).
+         */
+        private BinaryTree<T>[] trees;
+
+        /**
+         * Roots of {@code trees}.
+         */
+        private T[] roots;
+
+        /**
+         * Left subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] lefts;
+
+        /**
+         * Right subtrees of {@code trees}.
+         */
+        private BinaryTree<T>[] rights;
+
+        /**
+         * Number of trees disassembled so far.
+         */
+        private int length;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        Disassembly() {
+            /*
+             * Impossible to create an array of type T, so we create one of
+             * type Object and cast it to an array of type T
+             */
+            this.trees = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.roots = (T[]) (new Object[INITIAL_CAPACITY]);
+            this.lefts = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.rights = (BinaryTree<T>[]) (new BinaryTree[INITIAL_CAPACITY]);
+            this.length = 0;
+        }
+
+        /**
+         * Disassembles {@code t} into {@code left} and {@code right},
+         * remembering to reassemble it, and returns its root.
+         *
+         * @param t
+         *            the tree to disassemble
+         * @param left
+         *            the left subtree
+         * @param right
+         *            the right subtree
+         * @return the root of {@code t}
+         * @updates t
+         * @replaces left, right
+         * @requires |t| > 0
+         */
+        T disassemble(BinaryTree<T> t, BinaryTree<T> left,
+                BinaryTree<T> right) {
+            if (this.length == this.trees.length) {
+                int capacity = 2 * this.length;
+                this.trees = Arrays.copyOf(this.trees, capacity);
+                this.roots = Arrays.copyOf(this.roots, capacity);
+                this.lefts = Arrays.copyOf(this.lefts, capacity);
+                this.rights = Arrays.copyOf(this.rights, capacity);
+            }
+            T root = t.disassemble(left, right);
+            this.trees[this.length] = t;
+            this.roots[this.length] = root;
+            this.lefts[this.length] = left;
+            this.rights[this.length] = right;
+            this.length++;
+            return root;
+        }
+
+        /**
+         * Forgets the last tree disassembled, which the caller will rebuild
+         * itself.
+         *
+         * @updates this
+         * @requires [at least one tree has been disassembled]
+         */
+        void forgetLast() {
+            this.length--;
+            this.trees[this.length] = null;
+            this.roots[this.length] = null;
+            this.lefts[this.length] = null;
+            this.rights[this.length] = null;
+        }
+
+        /**
+         * Reassembles every tree disassembled, from the last one to the
+         * first, so each is reassembled after its own subtrees.
+         *
+         * @clears this
+         */
+        void reassemble() {
+            while (this.length > 0) {
+                this.length--;
+                int i = this.length;
+                this.trees[i].assemble(this.roots[i], this.lefts[i],
+                        this.rights[i]);
+                this.trees[i] = null;
+                this.roots[i] = null;
+                this.lefts[i] = null;
+                this.rights[i] = null;
+            }
+        }
+
+    }
+
     /**
      * Returns whether {@code x} is in {@code t}.
      *
@@ -53,13 +197,23 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
             T x) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
         boolean inTree = false;
-        for (T y : t) {
-            if (y.equals(x)) {
+        while (!inTree && subtree.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            int cmp = x.compareTo(root);
+            if (cmp < 0) {
+                subtree = left;
+            } else if (cmp > 0) {
+                subtree = right;
+            } else {
                 inTree = true;
-                break;
             }
         }
+        path.reassemble();
         return inTree;
     }
 
@@ -81,20 +235,20 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
             T x) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
-        BinaryTree<T> left = t.newInstance();
-        BinaryTree<T> right = t.newInstance();
-        if (t.size() > 0) {
-            T root = t.disassemble(left, right);
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
+        while (subtree.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = path.disassemble(subtree, left, right);
             if (root.compareTo(x) > 0) {
-                insertInTree(left, x);
-            }
-            if (root.compareTo(x) < 0) {
-                insertInTree(right, x);
+                subtree = left;
+            } else {
+                subtree = right;
             }
-            t.assemble(root, left, right);
-        } else {
-            t.assemble(x, left, right);
         }
+        subtree.assemble(x, t.newInstance(), t.newInstance());
+        path.reassemble();
     }
 
     /**
@@ -115,16 +269,24 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
     private static <T> T removeSmallest(BinaryTree<T> t) {
         assert t != null : "Violation of: t is not null";
         assert t.size() > 0 : "Violation of: |t| > 0";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
         BinaryTree<T> left = t.newInstance();
         BinaryTree<T> right = t.newInstance();
-        T smallest = t.root();
-        T root = t.disassemble(left, right);
-        if (left.height() > 0) {
-            smallest = removeSmallest(left);
-            t.assemble(root, left, right);
-        } else {
-            t.transferFrom(right);
+        T smallest = path.disassemble(subtree, left, right);
+        while (left.size() > 0) {
+            subtree = left;
+            left = t.newInstance();
+            right = t.newInstance();
+            smallest = path.disassemble(subtree, left, right);
         }
+        /*
+         * subtree's root is the smallest label: replace subtree by its right
+         * subtree instead of reassembling it
+         */
+        path.forgetLast();
+        subtree.transferFrom(right);
+        path.reassemble();
         return smallest;
     }
 
@@ -151,29 +313,96 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
         assert t.size() > 0 : "Violation of: x is in labels(t)";
-        BinaryTree<T> right = t.newInstance();
-        BinaryTree<T> left = t.newInstance();
-        T root = t.disassemble(left, right);
-        T remove = root;
-
-        if (!root.equals(x)) {
-            if (root.compareTo(x) < 0) {
-                remove = removeFromTree(right, x);
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = t;
+        int cmp = x.compareTo(subtree.root());
+        while (cmp != 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            path.disassemble(subtree, left, right);
+            if (cmp < 0) {
+                subtree = left;
             } else {
-                remove = removeFromTree(left, x);
+                subtree = right;
             }
-            t.assemble(root, left, right);
+            assert subtree.size() > 0 : "Violation of: x is in labels(t)";
+            cmp = x.compareTo(subtree.root());
+        }
+        BinaryTree<T> left = t.newInstance();
+        BinaryTree<T> right = t.newInstance();
+        T remove = subtree.disassemble(left, right);
+        if (right.size() > 0) {
+            T successor = removeSmallest(right);
+            subtree.assemble(successor, left, right);
         } else {
-            if (right.size() > 0) {
-                root = removeSmallest(right);
-                t.assemble(root, left, right);
-            } else {
-                t.transferFrom(left);
-            }
+            subtree.transferFrom(left);
         }
+        path.reassemble();
         return remove;
     }
 
+    /**
+     * Returns the labels of {@code t} in increasing order.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} whose labels to return
+     * @return the labels of {@code t} in increasing order
+     * @requires IS_BST(t)
+     * @ensures <pre>
+     * elements(sortedLabels) = labels(t)  and
+     * [sortedLabels is in increasing order]
+     * </pre>
+     */
+    private static <T> List<T> sortedLabels(BinaryTree<T> t) {
+        List<T> labels = new ArrayList<>(t.size());
+        for (T x : t) {
+            labels.add(x);
+        }
+        return labels;
+    }
+
+    /**
+     * Replaces {@code t} by a tree of minimum height whose in-order traversal
+     * is {@code labels[lo, hi)}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to build
+     * @param labels
+     *            the labels, in increasing order
+     * @param lo
+     *            the first index of the labels to use
+     * @param hi
+     *            one past the last index of the labels to use
+     * @replaces t
+     * @requires <pre>
+     * 0 <= lo <= hi <= |labels|  and  [labels is in increasing order]
+     * </pre>
+     * @ensures <pre>
+     * IS_BST(t)  and  labels(t) = elements(labels[lo, hi))  and
+     * ht(t) = [the minimum height of a tree with hi - lo nodes]
+     * </pre>
+     */
+    private static <T> void buildTree(BinaryTree<T> t, List<T> labels, int lo,
+            int hi) {
+        /*
+         * Recursion depth is only log2(hi - lo), since each call halves the
+         * range
+         */
+        t.clear();
+        if (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            buildTree(left, labels, lo, mid);
+            buildTree(right, labels, mid + 1, hi);
+            t.assemble(labels.get(mid), left, right);
+        }
+    }
+
     /**
      * Creator of initial representation.
      */
@@ -272,4 +501,278 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         return this.tree.iterator();
     }
 
+    /*
+     * OrderedSet methods -----------------------------------------------------
+     */
+
+    @Override
+    public final int rank(T x) {
+        assert x != null : "Violation of: x is not null";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = this.tree;
+        int rank = 0;
+        boolean found = false;
+        while (!found && subtree.size() > 0) {
+            BinaryTree<T> left = subtree.newInstance();
+            BinaryTree<T> right = subtree.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            int cmp = x.compareTo(root);
+            if (cmp < 0) {
+                subtree = left;
+            } else {
+                rank += left.size();
+                if (cmp > 0) {
+                    rank++;
+                    subtree = right;
+                } else {
+                    found = true;
+                }
+            }
+        }
+        path.reassemble();
+        return rank;
+    }
+
+    @Override
+    public final T select(int k) {
+        assert 0 <= k : "Violation of: 0 <= k";
+        assert k < this.size() : "Violation of: k < |this|";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = this.tree;
+        int remaining = k;
+        T selected = null;
+        while (selected == null) {
+            BinaryTree<T> left = subtree.newInstance();
+            BinaryTree<T> right = subtree.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            if (remaining < left.size()) {
+                subtree = left;
+            } else if (remaining == left.size()) {
+                selected = root;
+            } else {
+                remaining -= left.size() + 1;
+                subtree = right;
+            }
+        }
+        path.reassemble();
+        return selected;
+    }
+
+    @Override
+    public final T floor(T x) {
+        assert x != null : "Violation of: x is not null";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = this.tree;
+        T floor = null;
+        int cmp = 1;
+        while (cmp != 0 && subtree.size() > 0) {
+            BinaryTree<T> left = subtree.newInstance();
+            BinaryTree<T> right = subtree.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            cmp = x.compareTo(root);
+            if (cmp < 0) {
+                subtree = left;
+            } else {
+                floor = root;
+                subtree = right;
+            }
+        }
+        path.reassemble();
+        assert floor != null : "Violation of: there exists y: T "
+                + "(y is in this  and  y <= x)";
+        return floor;
+    }
+
+    @Override
+    public final T ceiling(T x) {
+        assert x != null : "Violation of: x is not null";
+        Disassembly<T> path = new Disassembly<T>();
+        BinaryTree<T> subtree = this.tree;
+        T ceiling = null;
+        int cmp = -1;
+        while (cmp != 0 && subtree.size() > 0) {
+            BinaryTree<T> left = subtree.newInstance();
+            BinaryTree<T> right = subtree.newInstance();
+            T root = path.disassemble(subtree, left, right);
+            cmp = x.compareTo(root);
+            if (cmp > 0) {
+                subtree = right;
+            } else {
+                ceiling = root;
+                subtree = left;
+            }
+        }
+        path.reassemble();
+        assert ceiling != null : "Violation of: there exists y: T "
+                + "(y is in this  and  y >= x)";
+        return ceiling;
+    }
+
+    @Override
+    public final Queue<T> range(T low, T high) {
+        assert low != null : "Violation of: low is not null";
+        assert high != null : "Violation of: high is not null";
+        assert low.compareTo(high) <= 0 : "Violation of: low <= high";
+        Queue<T> range = new Queue1L<T>();
+        Disassembly<T> visited = new Disassembly<T>();
+        /*
+         * In-order walk that skips every subtree lying entirely outside
+         * [low, high]: pending holds the labels in range still to be
+         * reported, each with the right subtree to walk after it.
+         */
+        List<T> pendingLabels = new ArrayList<>();
+        List<BinaryTree<T>> pendingRights = new ArrayList<>();
+        BinaryTree<T> subtree = this.tree;
+        while (subtree.size() > 0 || !pendingLabels.isEmpty()) {
+            while (subtree.size() > 0) {
+                BinaryTree<T> left = subtree.newInstance();
+                BinaryTree<T> right = subtree.newInstance();
+                T root = visited.disassemble(subtree, left, right);
+                if (root.compareTo(low) < 0) {
+                    subtree = right;
+                } else {
+                    if (root.compareTo(high) <= 0) {
+                        pendingLabels.add(root);
+                        pendingRights.add(right);
+                    }
+                    subtree = left;
+                }
+            }
+            if (!pendingLabels.isEmpty()) {
+                range.enqueue(pendingLabels.remove(pendingLabels.size() - 1));
+                subtree = pendingRights.remove(pendingRights.size() - 1);
+            }
+        }
+        visited.reassemble();
+        return range;
+    }
+
+    /*
+     * Secondary methods ------------------------------------------------------
+     */
+
+    /**
+     * Adds to {@code this} all the entries of {@code sorted}, in time linear in
+     * |this| + |sorted|. Building a {@code Set3a} this way from an empty set
+     * results in a tree of minimum height.
+     *
+     * @param sorted
+     *            the elements to add, in increasing order
+     * @updates this
+     * @clears sorted
+     * @requires <pre>
+     * [sorted is in strictly increasing order]  and
+     * elements(sorted) intersection this = {}
+     * </pre>
+     * @ensures this = #this union elements(#sorted)
+     */
+    public final void addSorted(Queue<T> sorted) {
+        assert sorted != null : "Violation of: sorted is not null";
+        List<T> mine = sortedLabels(this.tree);
+        List<T> merged = new ArrayList<>(mine.size() + sorted.length());
+        int i = 0;
+        T previous = null;
+        while (sorted.length() > 0) {
+            T x = sorted.dequeue();
+            assert previous == null || previous.compareTo(x) < 0 : ""
+                    + "Violation of: sorted is in strictly increasing order";
+            while (i < mine.size() && mine.get(i).compareTo(x) < 0) {
+                merged.add(mine.get(i));
+                i++;
+            }
+            assert i == mine.size() || mine.get(i).compareTo(x) != 0 : ""
+                    + "Violation of: elements(sorted) intersection this = {}";
+            merged.add(x);
+            previous = x;
+        }
+        while (i < mine.size()) {
+            merged.add(mine.get(i));
+            i++;
+        }
+        buildTree(this.tree, merged, 0, merged.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void add(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Set3a<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            Set3a<T> other = (Set3a<T>) s;
+            List<T> mine = sortedLabels(this.tree);
+            List<T> theirs = sortedLabels(other.tree);
+            List<T> union = new ArrayList<>(mine.size() + theirs.size());
+            List<T> common = new ArrayList<>();
+            int i = 0;
+            int j = 0;
+            while (i < mine.size() && j < theirs.size()) {
+                int cmp = mine.get(i).compareTo(theirs.get(j));
+                if (cmp < 0) {
+                    union.add(mine.get(i));
+                    i++;
+                } else if (cmp > 0) {
+                    union.add(theirs.get(j));
+                    j++;
+                } else {
+                    union.add(mine.get(i));
+                    common.add(theirs.get(j));
+                    i++;
+                    j++;
+                }
+            }
+            union.addAll(mine.subList(i, mine.size()));
+            union.addAll(theirs.subList(j, theirs.size()));
+            buildTree(this.tree, union, 0, union.size());
+            buildTree(other.tree, common, 0, common.size());
+        } else {
+            super.add(s);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> remove(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        Set<T> removed;
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Set3a<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            Set3a<T> other = (Set3a<T>) s;
+            List<T> mine = sortedLabels(this.tree);
+            List<T> theirs = sortedLabels(other.tree);
+            List<T> difference = new ArrayList<>(mine.size());
+            List<T> intersection = new ArrayList<>();
+            int i = 0;
+            int j = 0;
+            while (i < mine.size() && j < theirs.size()) {
+                int cmp = mine.get(i).compareTo(theirs.get(j));
+                if (cmp < 0) {
+                    difference.add(mine.get(i));
+                    i++;
+                } else if (cmp > 0) {
+                    j++;
+                } else {
+                    intersection.add(mine.get(i));
+                    i++;
+                    j++;
+                }
+            }
+            difference.addAll(mine.subList(i, mine.size()));
+            buildTree(this.tree, difference, 0, difference.size());
+            Set3a<T> result = (Set3a<T>) this.newInstance();
+            buildTree(result.tree, intersection, 0, intersection.size());
+            removed = result;
+        } else {
+            removed = super.remove(s);
+        }
+        return removed;
+    }
+
 }
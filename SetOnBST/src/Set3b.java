@@ -0,0 +1,533 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an AVL tree, done "bare-handed", with
+ * implementations of primary methods.
+ *
+ * <p>
+ * Unlike {@code Set3a}, the tree stays balanced whatever the order in which
+ * elements are added, so execution-time performance of {@code add},
+ * {@code remove}, {@code removeAny}, and {@code contains} is O(log |this|)
+ * even for sorted input.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_AVL(
+ *   n: node
+ *  ): boolean satisfies
+ *  [the tree rooted at n (empty if n is null) satisfies the binary search
+ *   tree properties with the ordering reported by compareTo for T,
+ *   including that it has no duplicate labels, and in every node the
+ *   heights of the left and right subtrees differ by at most one, and
+ *   height and size in every node are the height and number of nodes of
+ *   the tree rooted at that node]
+ * </pre>
+ * @convention IS_AVL($this.root)
+ * @correspondence this = [labels of the tree rooted at $this.root]
+ *
+ * @author Elijah and Mati
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for AVL tree nodes.
+     */
+    private final class Node {
+
+        /**
+         * Label in node.
+         */
+        private T label;
+
+        /**
+         * Root of left subtree, or null.
+         */
+        private Node left;
+
+        /**
+         * Root of right subtree, or null.
+         */
+        private Node right;
+
+        /**
+         * Height of the tree rooted at this node.
+         */
+        private int height;
+
+        /**
+         * Number of nodes in the tree rooted at this node.
+         */
+        private int size;
+
+        /**
+         * Constructor of a leaf node.
+         *
+         * @param x
+         *            the label
+         */
+        Node(T x) {
+            this.label = x;
+            this.left = null;
+            this.right = null;
+            this.height = 1;
+            this.size = 1;
+        }
+
+    }
+
+    /**
+     * Root of AVL tree, or null.
+     */
+    private Node root;
+
+    /**
+     * Returns the height of the tree rooted at {@code n}.
+     *
+     * @param n
+     *            the root, or null
+     * @return the height of the tree rooted at {@code n}
+     */
+    private int height(Node n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Returns the number of nodes in the tree rooted at {@code n}.
+     *
+     * @param n
+     *            the root, or null
+     * @return the size of the tree rooted at {@code n}
+     */
+    private int size(Node n) {
+        int size = 0;
+        if (n != null) {
+            size = n.size;
+        }
+        return size;
+    }
+
+    /**
+     * Recomputes the height and size of {@code n} from those of its children.
+     *
+     * @param n
+     *            the node
+     * @updates n.height, n.size
+     */
+    private void update(Node n) {
+        n.height = Math.max(this.height(n.left), this.height(n.right)) + 1;
+        n.size = this.size(n.left) + this.size(n.right) + 1;
+    }
+
+    /**
+     * Rotates the tree rooted at {@code n} to the right and returns the new
+     * root.
+     *
+     * @param n
+     *            the root
+     * @return the new root
+     * @requires n.left is not null
+     */
+    private Node rotateRight(Node n) {
+        Node newRoot = n.left;
+        n.left = newRoot.right;
+        newRoot.right = n;
+        this.update(n);
+        this.update(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * Rotates the tree rooted at {@code n} to the left and returns the new
+     * root.
+     *
+     * @param n
+     *            the root
+     * @return the new root
+     * @requires n.right is not null
+     */
+    private Node rotateLeft(Node n) {
+        Node newRoot = n.right;
+        n.right = newRoot.left;
+        newRoot.left = n;
+        this.update(n);
+        this.update(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * Restores the balance of the tree rooted at {@code n}, whose subtrees are
+     * AVL trees with heights differing by at most two, and returns the new
+     * root.
+     *
+     * @param n
+     *            the root
+     * @return the new root
+     * @ensures IS_AVL(rebalance)
+     */
+    private Node rebalance(Node n) {
+        this.update(n);
+        Node newRoot = n;
+        int balance = this.height(n.left) - this.height(n.right);
+        if (balance > 1) {
+            if (this.height(n.left.left) < this.height(n.left.right)) {
+                n.left = this.rotateLeft(n.left);
+            }
+            newRoot = this.rotateRight(n);
+        } else if (balance < -1) {
+            if (this.height(n.right.right) < this.height(n.right.left)) {
+                n.right = this.rotateRight(n.right);
+            }
+            newRoot = this.rotateLeft(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Inserts {@code x} in the tree rooted at {@code n} and returns the new
+     * root.
+     *
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to be inserted
+     * @return the new root
+     * @aliases reference {@code x}
+     * @requires IS_AVL(n) and x is not in labels(n)
+     * @ensures IS_AVL(insert) and labels(insert) = labels(n) union {x}
+     */
+    private Node insert(Node n, T x) {
+        Node newRoot;
+        if (n == null) {
+            newRoot = new Node(x);
+        } else {
+            if (x.compareTo(n.label) < 0) {
+                n.left = this.insert(n.left, x);
+            } else {
+                n.right = this.insert(n.right, x);
+            }
+            newRoot = this.rebalance(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Removes the smallest node from the tree rooted at {@code n}, stores it in
+     * {@code smallest[0]}, and returns the new root.
+     *
+     * @param n
+     *            the root
+     * @param smallest
+     *            holder for the removed node
+     * @return the new root
+     * @replaces smallest[0]
+     * @requires IS_AVL(n) and n is not null
+     * @ensures <pre>
+     * IS_AVL(removeSmallest)  and  smallest[0] = [the smallest node of n]  and
+     *  labels(removeSmallest) = labels(n) \ {smallest[0].label}
+     * </pre>
+     */
+    private Node removeSmallest(Node n, Object[] smallest) {
+        Node newRoot;
+        if (n.left == null) {
+            smallest[0] = n;
+            newRoot = n.right;
+        } else {
+            n.left = this.removeSmallest(n.left, smallest);
+            newRoot = this.rebalance(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Removes the node labeled {@code x} from the tree rooted at {@code n},
+     * stores its label in {@code removed[0]}, and returns the new root.
+     *
+     * @param n
+     *            the root
+     * @param x
+     *            the label to be removed
+     * @param removed
+     *            holder for the removed label
+     * @return the new root
+     * @replaces removed[0]
+     * @requires IS_AVL(n) and x is in labels(n)
+     * @ensures <pre>
+     * IS_AVL(delete)  and  removed[0] = x  and
+     *  labels(delete) = labels(n) \ {x}
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private Node delete(Node n, T x, Object[] removed) {
+        Node newRoot;
+        int cmp = x.compareTo(n.label);
+        if (cmp < 0) {
+            n.left = this.delete(n.left, x, removed);
+            newRoot = this.rebalance(n);
+        } else if (cmp > 0) {
+            n.right = this.delete(n.right, x, removed);
+            newRoot = this.rebalance(n);
+        } else {
+            removed[0] = n.label;
+            if (n.left == null) {
+                newRoot = n.right;
+            } else if (n.right == null) {
+                newRoot = n.left;
+            } else {
+                Object[] successor = new Object[1];
+                Node right = this.removeSmallest(n.right, successor);
+                newRoot = (Node) successor[0];
+                newRoot.left = n.left;
+                newRoot.right = right;
+                newRoot = this.rebalance(newRoot);
+            }
+        }
+        return newRoot;
+    }
+
+    /**
+     * Checks that the tree rooted at {@code n} satisfies IS_AVL with all labels
+     * strictly between {@code low} and {@code high} (where null means no
+     * bound).
+     *
+     * @param n
+     *            the root, or null
+     * @param low
+     *            the lower bound, or null
+     * @param high
+     *            the upper bound, or null
+     * @return true if the tree satisfies IS_AVL within the bounds (or if
+     *         assertion checking is off); otherwise reports a violated
+     *         assertion
+     */
+    private boolean isAVL(Node n, T low, T high) {
+        if (n != null) {
+            assert low == null || low.compareTo(n.label) < 0 : ""
+                    + "Violation of: IS_AVL($this.root) [ordering]";
+            assert high == null || n.label.compareTo(high) < 0 : ""
+                    + "Violation of: IS_AVL($this.root) [ordering]";
+            assert this.isAVL(n.left, low, n.label);
+            assert this.isAVL(n.right, n.label, high);
+            assert n.height == Math.max(this.height(n.left),
+                    this.height(n.right)) + 1 : ""
+                            + "Violation of: IS_AVL($this.root) [height]";
+            assert n.size == this.size(n.left) + this.size(n.right) + 1 : ""
+                    + "Violation of: IS_AVL($this.root) [size]";
+            assert Math.abs(this.height(n.left) - this.height(n.right)) <= 1 : ""
+                    + "Violation of: IS_AVL($this.root) [balance]";
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention IS_AVL($this.root)
+     */
+    private boolean conventionHolds() {
+        return this.isAVL(this.root, null, null);
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.root = null;
+
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+
+        this.createNewRep();
+        assert this.conventionHolds();
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?> : ""
+                + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        this.root = this.insert(this.root, x);
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        Object[] removed = new Object[1];
+        this.root = this.delete(this.root, x, removed);
+        assert this.conventionHolds();
+        return (T) removed[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        Object[] smallest = new Object[1];
+        this.root = this.removeSmallest(this.root, smallest);
+        assert this.conventionHolds();
+        return ((Node) smallest[0]).label;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node n = this.root;
+        int cmp = 1;
+        while (n != null && cmp != 0) {
+            cmp = x.compareTo(n.label);
+            if (cmp < 0) {
+                n = n.left;
+            } else if (cmp > 0) {
+                n = n.right;
+            }
+        }
+        return n != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3bIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}, visiting
+     * the elements in increasing order.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels and right subtrees are still to be visited, the
+         * next one on top.
+         */
+        private final ArrayDeque<Node> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set3bIterator() {
+            this.pending = new ArrayDeque<>();
+            this.pushLeftSpine(Set3b.this.root);
+            assert Set3b.this.conventionHolds();
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants.
+         *
+         * @param n
+         *            the node, or null
+         */
+        private void pushLeftSpine(Node n) {
+            Node p = n;
+            while (p != null) {
+                this.pending.push(p);
+                p = p.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node n = this.pending.pop();
+            this.pushLeftSpine(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
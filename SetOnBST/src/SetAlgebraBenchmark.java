@@ -0,0 +1,160 @@
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the linear-time bulk operations of {@code Set3a} with the
+ * element-by-element methods inherited from {@code SetSecondary}: building a
+ * set from sorted input with {@code addSorted} versus repeated {@code add},
+ * and {@code add(Set)} and {@code remove(Set)} with a {@code Set3a} argument
+ * (merge) versus a {@code Set3b} argument (inherited method).
+ *
+ * @author Elijah and Mati
+ *
+ */
+public final class SetAlgebraBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetAlgebraBenchmark() {
+    }
+
+    /**
+     * Smallest number of elements measured.
+     */
+    private static final int MIN_ELEMENTS = 1_000;
+
+    /**
+     * Largest number of elements measured.
+     */
+    private static final int MAX_ELEMENTS = 16_000;
+
+    /**
+     * Factor by which the number of elements grows between measurements.
+     */
+    private static final int GROWTH = 2;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns a {@code Set3a} holding {@code first}, {@code first + step},
+     * ..., built with {@code addSorted}.
+     *
+     * @param first
+     *            the first element
+     * @param step
+     *            the difference between consecutive elements
+     * @param n
+     *            the number of elements
+     * @return the set
+     * @requires step > 0  and  n >= 0
+     */
+    private static Set3a<Integer> evenlySpaced(int first, int step, int n) {
+        Queue<Integer> sorted = new Queue1L<Integer>();
+        for (int i = 0; i < n; i++) {
+            sorted.enqueue(first + i * step);
+        }
+        Set3a<Integer> s = new Set3a<Integer>();
+        s.addSorted(sorted);
+        return s;
+    }
+
+    /**
+     * Returns a {@code Set3b} with the same elements as {@code s}.
+     *
+     * @param s
+     *            the set to copy
+     * @return the copy
+     */
+    private static Set3b<Integer> copyTo3b(Set<Integer> s) {
+        Set3b<Integer> copy = new Set3b<Integer>();
+        for (Integer x : s) {
+            copy.add(x);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the time, in milliseconds, elapsed since {@code start}.
+     *
+     * @param start
+     *            the start time, from {@code System.nanoTime}
+     * @return the elapsed milliseconds
+     */
+    private static String millisSince(long start) {
+        return String.format("%.1f",
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Elements\tBuild: add\taddSorted\t"
+                + "Union: inherited\tmerge\tDifference: inherited\tmerge");
+        for (int n = MIN_ELEMENTS; n <= MAX_ELEMENTS; n *= GROWTH) {
+            /*
+             * Build from sorted input
+             */
+            long start = System.nanoTime();
+            Set3a<Integer> byAdd = new Set3a<Integer>();
+            for (int i = 0; i < n; i++) {
+                byAdd.add(i);
+            }
+            String addTime = millisSince(start);
+            start = System.nanoTime();
+            Set3a<Integer> bySorted = evenlySpaced(0, 1, n);
+            String addSortedTime = millisSince(start);
+            if (!byAdd.equals(bySorted)) {
+                throw new AssertionError("Builds differ");
+            }
+            /*
+             * Union of multiples of 2 and multiples of 3
+             */
+            Set3a<Integer> evens = evenlySpaced(0, 2, n);
+            Set<Integer> threes = copyTo3b(evenlySpaced(0, 3, n));
+            start = System.nanoTime();
+            evens.add(threes);
+            String inheritedUnion = millisSince(start);
+            Set3a<Integer> evensAgain = evenlySpaced(0, 2, n);
+            Set<Integer> threesAgain = evenlySpaced(0, 3, n);
+            start = System.nanoTime();
+            evensAgain.add(threesAgain);
+            String mergeUnion = millisSince(start);
+            if (!evens.equals(evensAgain)) {
+                throw new AssertionError("Unions differ");
+            }
+            /*
+             * Difference of multiples of 2 and multiples of 3
+             */
+            evens = evenlySpaced(0, 2, n);
+            threes = copyTo3b(evenlySpaced(0, 3, n));
+            start = System.nanoTime();
+            evens.remove(threes);
+            String inheritedDifference = millisSince(start);
+            evensAgain = evenlySpaced(0, 2, n);
+            threesAgain = evenlySpaced(0, 3, n);
+            start = System.nanoTime();
+            evensAgain.remove(threesAgain);
+            String mergeDifference = millisSince(start);
+            if (!evens.equals(evensAgain)) {
+                throw new AssertionError("Differences differ");
+            }
+            out.println(n + "\t" + addTime + "\t" + addSortedTime + "\t"
+                    + inheritedUnion + "\t" + mergeUnion + "\t"
+                    + inheritedDifference + "\t" + mergeDifference);
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,149 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time to build a set with {@code add} and then look up every
+ * element with {@code contains}, for {@code Set3a} (plain binary search tree)
+ * and {@code Set3b} (AVL tree), when the elements arrive in sorted,
+ * reverse-sorted, and random order. {@code Set3a} is only measured on small
+ * sizes, since sorted input turns its tree into a list.
+ *
+ * @author Elijah and Mati
+ *
+ */
+public final class SetBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetBenchmark() {
+    }
+
+    /**
+     * Smallest number of elements measured.
+     */
+    private static final int MIN_ELEMENTS = 1_000;
+
+    /**
+     * Largest number of elements measured for {@code Set3a}.
+     */
+    private static final int MAX_ELEMENTS_3A = 4_000;
+
+    /**
+     * Largest number of elements measured for {@code Set3b}.
+     */
+    private static final int MAX_ELEMENTS_3B = 1_024_000;
+
+    /**
+     * Factor by which the number of elements grows between measurements.
+     */
+    private static final int GROWTH = 4;
+
+    /**
+     * Seed of the random shuffles, so every run uses the same input.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Returns the elements 0 to {@code n} - 1 in the given order.
+     *
+     * @param n
+     *            the number of elements
+     * @param order
+     *            "sorted", "reverse", or "random"
+     * @return the elements in the given order
+     * @requires n >= 0
+     */
+    private static Integer[] input(int n, String order) {
+        Integer[] elements = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            if (order.equals("reverse")) {
+                elements[i] = n - 1 - i;
+            } else {
+                elements[i] = i;
+            }
+        }
+        if (order.equals("random")) {
+            Random random = new Random(SEED);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer tmp = elements[i];
+                elements[i] = elements[j];
+                elements[j] = tmp;
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Builds {@code s} from {@code elements}, looks each of them up, and
+     * outputs the times taken.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            the name of the implementation
+     * @param order
+     *            the order of the elements
+     * @param s
+     *            the set to measure
+     * @param elements
+     *            the elements to add
+     * @updates out.content, s
+     * @requires out.is_open  and  s = {}  and  [elements has no duplicates]
+     */
+    private static void measure(SimpleWriter out, String name, String order,
+            Set<Integer> s, Integer[] elements) {
+        long start = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        double buildMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        int found = 0;
+        start = System.nanoTime();
+        for (Integer x : elements) {
+            if (s.contains(x)) {
+                found++;
+            }
+        }
+        double lookupMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        if (found != elements.length) {
+            throw new AssertionError("Element lost by " + name);
+        }
+        out.println(name + "\t" + order + "\t" + elements.length + "\t"
+                + String.format("%.1f", buildMillis) + "\t"
+                + String.format("%.1f", lookupMillis));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        out.println("Set\tOrder\tElements\tBuild ms\tLookup ms");
+        out.println("---\t-----\t--------\t--------\t---------");
+        for (String order : new String[] { "sorted", "reverse", "random" }) {
+            for (int n = MIN_ELEMENTS; n <= MAX_ELEMENTS_3A; n *= GROWTH) {
+                measure(out, "Set3a", order, new Set3a<Integer>(),
+                        input(n, order));
+            }
+            for (int n = MIN_ELEMENTS; n <= MAX_ELEMENTS_3B; n *= GROWTH) {
+                measure(out, "Set3b", order, new Set3b<Integer>(),
+                        input(n, order));
+            }
+        }
+        out.close();
+    }
+
+}
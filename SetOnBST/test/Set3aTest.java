@@ -1,3 +1,9 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
 import components.set.Set;
 import components.set.Set1L;
 
@@ -16,4 +22,203 @@ public class Set3aTest extends SetTest {
         return new Set1L<String>();
     }
 
+    /**
+     * Creates and returns a {@code Set3a<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createOrderedSet = [entries in args]
+     */
+    private static Set3a<String> createOrderedSet(String... args) {
+        Set3a<String> set = new Set3a<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Creates and returns a {@code Queue<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the queue
+     * @return the constructed queue
+     * @ensures createQueue = [entries in args]
+     */
+    private static Queue<String> createQueue(String... args) {
+        Queue<String> q = new Queue1L<String>();
+        for (String s : args) {
+            q.enqueue(s);
+        }
+        return q;
+    }
+
+    /**
+     * Tests rank.
+     */
+    @Test
+    public final void testRank() {
+        Set3a<String> s = createOrderedSet("d", "b", "f", "a", "c", "e", "g");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f", "a", "c",
+                "e", "g");
+
+        assertEquals(0, s.rank("a"));
+        assertEquals(3, s.rank("d"));
+        assertEquals(4, s.rank("da"));
+        assertEquals(7, s.rank("z"));
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests rank on the empty set.
+     */
+    @Test
+    public final void testRankEmpty() {
+        Set3a<String> s = createOrderedSet();
+
+        assertEquals(0, s.rank("a"));
+        assertEquals(0, s.size());
+    }
+
+    /**
+     * Tests select.
+     */
+    @Test
+    public final void testSelect() {
+        Set3a<String> s = createOrderedSet("d", "b", "f", "a", "c", "e", "g");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f", "a", "c",
+                "e", "g");
+
+        assertEquals("a", s.select(0));
+        assertEquals("d", s.select(3));
+        assertEquals("g", s.select(6));
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests floor.
+     */
+    @Test
+    public final void testFloor() {
+        Set3a<String> s = createOrderedSet("d", "b", "f");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f");
+
+        assertEquals("b", s.floor("b"));
+        assertEquals("b", s.floor("c"));
+        assertEquals("f", s.floor("z"));
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests ceiling.
+     */
+    @Test
+    public final void testCeiling() {
+        Set3a<String> s = createOrderedSet("d", "b", "f");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f");
+
+        assertEquals("b", s.ceiling("a"));
+        assertEquals("d", s.ceiling("c"));
+        assertEquals("f", s.ceiling("f"));
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests range.
+     */
+    @Test
+    public final void testRange() {
+        Set3a<String> s = createOrderedSet("d", "b", "f", "a", "c", "e", "g");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f", "a", "c",
+                "e", "g");
+
+        Queue<String> range = s.range("b", "ea");
+
+        assertEquals(createQueue("b", "c", "d", "e"), range);
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests range with no element between the bounds.
+     */
+    @Test
+    public final void testRangeEmpty() {
+        Set3a<String> s = createOrderedSet("d", "b", "f");
+        Set3a<String> sExpected = createOrderedSet("d", "b", "f");
+
+        Queue<String> range = s.range("da", "e");
+
+        assertEquals(createQueue(), range);
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests addSorted into the empty set.
+     */
+    @Test
+    public final void testAddSortedEmpty() {
+        Set3a<String> s = createOrderedSet();
+        Set3a<String> sExpected = createOrderedSet("a", "b", "c", "d");
+        Queue<String> sorted = createQueue("a", "b", "c", "d");
+
+        s.addSorted(sorted);
+
+        assertEquals(sExpected, s);
+        assertEquals(createQueue(), sorted);
+        assertEquals("c", s.select(2));
+    }
+
+    /**
+     * Tests addSorted into a set with elements before, between, and after
+     * the new ones.
+     */
+    @Test
+    public final void testAddSortedMerge() {
+        Set3a<String> s = createOrderedSet("b", "e", "h");
+        Set3a<String> sExpected = createOrderedSet("b", "c", "d", "e", "g",
+                "h", "i");
+        Queue<String> sorted = createQueue("c", "d", "g", "i");
+
+        s.addSorted(sorted);
+
+        assertEquals(sExpected, s);
+        assertEquals(createQueue(), sorted);
+    }
+
+    /**
+     * Tests add(Set) between two {@code Set3a}s.
+     */
+    @Test
+    public final void testAddSet() {
+        Set3a<String> s = createOrderedSet("b", "d", "f");
+        Set3a<String> t = createOrderedSet("a", "d", "g");
+        Set3a<String> sExpected = createOrderedSet("a", "b", "d", "f", "g");
+        Set3a<String> tExpected = createOrderedSet("d");
+
+        s.add(t);
+
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+    }
+
+    /**
+     * Tests remove(Set) between two {@code Set3a}s.
+     */
+    @Test
+    public final void testRemoveSet() {
+        Set3a<String> s = createOrderedSet("b", "d", "f");
+        Set3a<String> t = createOrderedSet("a", "d", "f", "g");
+        Set3a<String> sExpected = createOrderedSet("b");
+        Set3a<String> tExpected = createOrderedSet("a", "d", "f", "g");
+        Set3a<String> removedExpected = createOrderedSet("d", "f");
+
+        Set<String> removed = s.remove(t);
+
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+        assertEquals(removedExpected, removed);
+    }
+
 }
@@ -0,0 +1,414 @@
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a doubly linked list of elements in the order in
+ * which they were added (like the {@code Queue} of {@code Set2}), done
+ * "bare-handed", together with a hash table indexing the nodes of that list,
+ * with implementations of primary methods.
+ *
+ * <p>
+ * Iteration and {@code removeAny} follow insertion order, as in {@code Set2},
+ * but {@code add}, {@code remove}, and {@code contains} find elements through
+ * the hash table, so their expected execution-time performance is O(1)
+ * instead of O(|this|).
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [$this.smart is not null]  and
+ * [$this.smart is the "smart node" of a circular doubly linked list
+ *  containing $this.size + 1 nodes]  and
+ * [no two nodes of that list hold equal data]  and
+ * |$this.hashTable| >= MIN_TABLE_SIZE  and
+ * $this.size <= |$this.hashTable| * MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR
+ *  and
+ * [every node of that list other than $this.smart is in exactly one bucket,
+ *  the chain starting at $this.hashTable[mod(hashCode(data),
+ *  |$this.hashTable|)], and the buckets hold no other nodes]
+ * </pre>
+ * @correspondence <pre>
+ * this = [data in the nodes of the list starting at $this.smart.next and
+ *  running through $this.smart.previous]
+ * </pre>
+ */
+public class Set2a<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial, and minimum, number of buckets in the hash table.
+     */
+    private static final int MIN_TABLE_SIZE = 16;
+
+    /**
+     * Numerator of the maximum load factor.
+     */
+    private static final int MAX_LOAD_NUMERATOR = 3;
+
+    /**
+     * Denominator of the maximum load factor.
+     */
+    private static final int MAX_LOAD_DENOMINATOR = 4;
+
+    /**
+     * The hash table shrinks when fewer than 1/SHRINK_RATIO of its buckets
+     * would be used.
+     */
+    private static final int SHRINK_RATIO = 8;
+
+    /**
+     * Node class for doubly linked list nodes, also chained in a hash bucket.
+     */
+    private final class Node {
+
+        /**
+         * Data in node.
+         */
+        private T data;
+
+        /**
+         * Previous node in doubly linked list.
+         */
+        private Node previous;
+
+        /**
+         * Next node in doubly linked list.
+         */
+        private Node next;
+
+        /**
+         * Next node in the same hash bucket, or null.
+         */
+        private Node nextInBucket;
+
+    }
+
+    /**
+     * "Smart node" before the first and after the last node of the circular
+     * doubly linked list.
+     */
+    private Node smart;
+
+    /**
+     * Buckets of the hash table.
+     */
+    private Node[] hashTable;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int mod = a % b;
+        if (mod < 0) {
+            mod = mod + b;
+        }
+        return mod;
+    }
+
+    /**
+     * Returns the index of the bucket of {@code x} in a hash table of
+     * {@code length} buckets.
+     *
+     * @param x
+     *            the element
+     * @param length
+     *            the number of buckets
+     * @return the index of the bucket of {@code x}
+     * @requires length > 0
+     * @ensures bucketIndex = mod(hashCode(x), length)
+     */
+    private static int bucketIndex(Object x, int length) {
+        return mod(x.hashCode(), length);
+    }
+
+    /**
+     * Returns the node holding {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the element to find
+     * @return the node holding {@code x}, or null
+     */
+    private Node find(T x) {
+        Node n = this.hashTable[bucketIndex(x, this.hashTable.length)];
+        while (n != null && !n.data.equals(x)) {
+            n = n.nextInBucket;
+        }
+        return n;
+    }
+
+    /**
+     * Replaces the hash table with one of {@code length} buckets holding the
+     * same nodes.
+     *
+     * @param length
+     *            the new number of buckets
+     * @updates $this.hashTable
+     * @requires length >= MIN_TABLE_SIZE
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int length) {
+        Node[] table = (Node[]) Array.newInstance(Node.class, length);
+        for (Node n = this.smart.next; n != this.smart; n = n.next) {
+            int i = bucketIndex(n.data, length);
+            n.nextInBucket = table[i];
+            table[i] = n;
+        }
+        this.hashTable = table;
+    }
+
+    /**
+     * Unlinks {@code n} from the linked list and from its hash bucket.
+     *
+     * @param n
+     *            the node to unlink
+     * @updates this
+     * @requires [n is a node of the list other than $this.smart]
+     * @ensures this = #this \ {n.data}
+     */
+    private void unlink(Node n) {
+        int i = bucketIndex(n.data, this.hashTable.length);
+        if (this.hashTable[i] == n) {
+            this.hashTable[i] = n.nextInBucket;
+        } else {
+            Node p = this.hashTable[i];
+            while (p.nextInBucket != n) {
+                p = p.nextInBucket;
+            }
+            p.nextInBucket = n.nextInBucket;
+        }
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+        this.size--;
+        if (this.hashTable.length > MIN_TABLE_SIZE
+                && this.size * SHRINK_RATIO < this.hashTable.length) {
+            this.resize(this.hashTable.length / 2);
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.smart is not null]  and
+     * [$this.smart is the "smart node" of a circular doubly linked list
+     *  containing $this.size + 1 nodes]  and
+     * [every node of that list other than $this.smart is in its bucket]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.smart != null : "Violation of: $this.smart is not null";
+        int count = 0;
+        Node n = this.smart.next;
+        while (n != this.smart && count <= this.size) {
+            assert n.next.previous == n : ""
+                    + "Violation of: [the list is doubly linked]";
+            assert this.find(n.data) == n : ""
+                    + "Violation of: [every node is in its bucket]";
+            count++;
+            n = n.next;
+        }
+        assert count == this.size : "Violation of: [$this.smart is the smart "
+                + "node of a circular list containing $this.size + 1 nodes]";
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.smart = new Node();
+        this.smart.next = this.smart;
+        this.smart.previous = this.smart;
+        this.size = 0;
+        this.resize(MIN_TABLE_SIZE);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set2a() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set2a<?> : ""
+                + "Violation of: source is of dynamic type Set2a<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set2a<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set2a<T> localSource = (Set2a<T>) source;
+        this.smart = localSource.smart;
+        this.hashTable = localSource.hashTable;
+        this.size = localSource.size;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        if ((this.size + 1) * MAX_LOAD_DENOMINATOR > this.hashTable.length
+                * MAX_LOAD_NUMERATOR) {
+            this.resize(2 * this.hashTable.length);
+        }
+        Node n = new Node();
+        n.data = x;
+        n.next = this.smart;
+        n.previous = this.smart.previous;
+        this.smart.previous.next = n;
+        this.smart.previous = n;
+        int i = bucketIndex(x, this.hashTable.length);
+        n.nextInBucket = this.hashTable[i];
+        this.hashTable[i] = n;
+        this.size++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        Node n = this.find(x);
+        this.unlink(n);
+        assert this.conventionHolds();
+        return n.data;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+        Node n = this.smart.next;
+        this.unlink(n);
+        assert this.conventionHolds();
+        return n.data;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+        return this.find(x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set2aIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set2a}, visiting
+     * the elements in the order in which they were added.
+     */
+    private final class Set2aIterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set2aIterator() {
+            this.current = Set2a.this.smart.next;
+            assert Set2a.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Set2a.this.smart;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = this.current.next;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
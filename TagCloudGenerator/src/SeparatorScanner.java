@@ -0,0 +1,116 @@
+/**
+ * Splits text into "words" (maximal length strings of characters not in a set
+ * of separators) and "separator strings" (maximal length strings of characters
+ * in that set) without allocating: separators are looked up in a bit table
+ * indexed by character, and {@code nextWordOrSeparatorEnd} returns an offset
+ * into the text, so a caller creates a {@code String} (with
+ * {@code substring}) only for the words it actually keeps.
+ *
+ * @convention |$this.bits| = 1024
+ * @correspondence
+ *
+ *                 <pre>
+ * this = {c: character where
+ *           ($this.bits[c / 64] / 2^(c mod 64)) mod 2 = 1}
+ *                 </pre>
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class SeparatorScanner {
+
+	/**
+	 * Number of bits in a {@code long}.
+	 */
+	private static final int BITS_PER_WORD = 64;
+
+	/**
+	 * Number of bits to shift a character right to get its index in the table.
+	 */
+	private static final int INDEX_SHIFT = 6;
+
+	/**
+	 * Number of {@code long}s needed for one bit per {@code char}.
+	 */
+	private static final int TABLE_LENGTH = (Character.MAX_VALUE + 1)
+			/ BITS_PER_WORD;
+
+	/**
+	 * One bit per character, set for the separators.
+	 */
+	private final long[] bits;
+
+	/**
+	 * Constructor resulting in a scanner whose separators are the characters
+	 * of {@code separators}.
+	 *
+	 * @param separators
+	 *            the separator characters
+	 * @ensures this = entries(separators)
+	 */
+	public SeparatorScanner(String separators) {
+		assert separators != null : "Violation of: separators is not null";
+
+		this.bits = new long[TABLE_LENGTH];
+		for (int i = 0; i < separators.length(); i++) {
+			char c = separators.charAt(i);
+			this.bits[c >>> INDEX_SHIFT] |= 1L << c;
+		}
+	}
+
+	/**
+	 * Reports whether {@code c} is a separator.
+	 *
+	 * @param c
+	 *            the character to check
+	 * @return true iff {@code c} is a separator
+	 * @ensures isSeparator = (c is in this)
+	 */
+	public boolean isSeparator(char c) {
+		return (this.bits[c >>> INDEX_SHIFT] & (1L << c)) != 0;
+	}
+
+	/**
+	 * Returns the index just past the first word or separator string in the
+	 * given {@code text} starting at the given {@code position}.
+	 *
+	 * @param text
+	 *            the {@code String} from which to get the word or separator
+	 *            string
+	 * @param position
+	 *            the starting index
+	 * @return the end of the first word or separator string found in
+	 *         {@code text} starting at index {@code position}
+	 * @requires 0 <= position < |text|
+	 * @ensures
+	 *
+	 *          <pre>
+	 * position < nextWordOrSeparatorEnd <= |text|  and
+	 * if entries(text[position, position + 1)) intersection this = {}
+	 * then
+	 *   entries(text[position, nextWordOrSeparatorEnd)) intersection this = {}
+	 *   and  (nextWordOrSeparatorEnd = |text|  or
+	 *         entries(text[position, nextWordOrSeparatorEnd + 1))
+	 *           intersection this /= {})
+	 * else
+	 *   entries(text[position, nextWordOrSeparatorEnd)) is subset of this  and
+	 *   (nextWordOrSeparatorEnd = |text|  or
+	 *    entries(text[position, nextWordOrSeparatorEnd + 1))
+	 *      is not subset of this)
+	 *          </pre>
+	 */
+	public int nextWordOrSeparatorEnd(String text, int position) {
+		assert text != null : "Violation of: text is not null";
+		assert 0 <= position : "Violation of: 0 <= position";
+		assert position < text.length() : "Violation of: position < |text|";
+
+		boolean isSep = this.isSeparator(text.charAt(position));
+		int end = position + 1;
+		while (end < text.length()
+				&& this.isSeparator(text.charAt(end)) == isSep) {
+			end++;
+		}
+		return end;
+	}
+
+}
@@ -3,8 +3,6 @@ import java.util.Comparator;
 import components.map.Map;
 import components.map.Map.Pair;
 import components.map.Map1L;
-import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -92,62 +90,6 @@ public final class TagCloud {
 		}
 	}
 
-	/**
-	 * Returns the first "word" or "separator string" in the given {@code text}
-	 * starting at the given {@code position}.
-	 *
-	 * @param text       the {@code String} from which to get the word or separator
-	 *                   string
-	 * @param pos        the starting index
-	 * @param separators the {@code Set} of separator characters
-	 * @return the first word or separator string found in {@code text} starting at
-	 *         index {@code position}
-	 * @requires
-	 *
-	 *           <pre>
-	 * {@code 0 <= position < |text|}
-	 *           </pre>
-	 *
-	 * @ensures
-	 *
-	 *          <pre>
-	 * {@code nextWord =
-	 *   text[position, position + |nextWordOrSeparator|)  and
-	 * if entries(text[position, position + 1)) intersection separators = {}
-	 * then
-	 *   entries(nextWordOrSeparator) intersection separators = {}  and
-	 *   (position + |nextWordOrSeparator| = |text|  or
-	 *    entries(text[position, position + |nextWordOrSeparator| + 1))
-	 *      intersection separators /= {})
-	 * else
-	 *   entries(nextWordOrSeparator) is subset of separators  and
-	 *   (position + |nextWordOrSeparator| = |text|  or
-	 *    entries(text[position, position + |nextWordOrSeparator| + 1))
-	 *      is not subset of separators)}
-	 *          </pre>
-	 */
-	private static String nextWordOrSeparator(String text, int pos, Set<Character> separators) {
-		assert text != null : "Violation of: text is not null";
-		assert separators != null : "Violation of: separators is not null";
-		assert 0 <= pos : "Violation of: 0 <= position";
-		assert pos < text.length() : "Violation of: position < |text|";
-
-		assert text != null : "Violation of: text is not null";
-		assert separators != null : "Violation of: separators is not null";
-		assert 0 <= pos : "Violation of: 0 <= position";
-		assert pos < text.length() : "Violation of: position < |text|";
-
-		boolean isSep = separators.contains(text.charAt(pos));
-
-		int nextPos = pos + 1;
-		while (nextPos < text.length() && (separators.contains(text.charAt(nextPos)) == isSep)) {
-
-			nextPos++;
-
-		}
-		return text.substring(pos, nextPos);
-	}
-
 	/**
 	 * Outputs the opening tags in the generated HTML file.
 	 *
@@ -194,7 +136,8 @@ public final class TagCloud {
 	 * @param wordCounts the Map to hold each word and its count
 	 * @param text       the SimpleReader connected to the file whose words and
 	 *                   counts are to be recorded
-	 * @param separators the Set of characters defined as separating words
+	 * @param separators the scanner for the characters defined as separating
+	 *                   words
 	 * @replaces wordCounts
 	 * @requires text.is_open
 	 * @ensures
@@ -205,26 +148,22 @@ public final class TagCloud {
 	 * each key's value is the number of times it appears in content and text
 	 *          </pre>
 	 */
-	private static void countWord(Map<String, Integer> wordCounts, Set<Character> separators, SimpleReader text) {
+	private static void countWord(Map<String, Integer> wordCounts, SeparatorScanner separators, SimpleReader text) {
 		wordCounts.clear();
+		CountingMap counts = new CountingMap();
 		while (!text.atEOS()) {
 			String firstIndex = text.nextLine().toLowerCase();
 			int listLine = 0;
 			while (listLine < firstIndex.length()) {
-				String word = nextWordOrSeparator(firstIndex, listLine, separators);
-				if (!separators.contains(word.charAt(0))) {
-					if (!wordCounts.hasKey(word)) {
-						wordCounts.add(word, 1);
-					} else {
-						int newCount = wordCounts.value(word) + 1;
-						wordCounts.remove(word);
-						wordCounts.add(word, newCount);
-					}
+				int end = separators.nextWordOrSeparatorEnd(firstIndex, listLine);
+				if (!separators.isSeparator(firstIndex.charAt(listLine))) {
+					counts.increment(firstIndex.substring(listLine, end));
 				}
-				listLine += word.length();
+				listLine = end;
 
 			}
 		}
+		counts.addAllTo(wordCounts);
 
 	}
 
@@ -243,25 +182,6 @@ public final class TagCloud {
 		output.println("</html>");
 	}
 
-	/**
-	 * Generates the set of characters in the given {@code String} into the given
-	 * {@code Set}.
-	 *
-	 * @param str the given {@code String}
-	 * @return set of characters equal to entries(str)
-	 * @ensures generateElements = entries(str)
-	 **/
-	private static Set<Character> generateElements(String str) {
-		Set<Character> elements = new Set1L<Character>();
-		for (int i = 0; i < str.length(); i++) {
-			if (!elements.contains(str.charAt(i))) {
-				elements.add(str.charAt(i));
-			}
-		}
-		return elements;
-
-	}
-
 	/*
 	 * @param maxSize the maximum count in the tag cloud words
 	 *
@@ -363,7 +283,7 @@ public final class TagCloud {
 			SimpleReader input = new SimpleReader1L(inputFile);
 
 			Map<String, Integer> wordCounts = new Map1L<String, Integer>();
-			countWord(wordCounts, generateElements(SEPARATORS), input);
+			countWord(wordCounts, new SeparatorScanner(SEPARATORS), input);
 			outputBlock(output, wordNum, wordCounts);
 
 			outputFooter(output);
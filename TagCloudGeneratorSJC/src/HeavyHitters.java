@@ -0,0 +1,239 @@
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Approximate word counter that uses a fixed amount of memory regardless of
+ * the number of distinct words: a Count-Min sketch estimates the count of
+ * every word, and only the {@code capacity} words with the highest estimates
+ * seen so far are remembered as candidates for the top of the tag cloud.
+ * Estimates never undercount, and overcount by at most
+ * {@code e * [total words] / width} with probability at least
+ * {@code 1 - e^(-depth)}.
+ *
+ * @author Mati and Elijah
+ */
+public final class HeavyHitters {
+
+    /**
+     * Default number of counters in each row of the sketch.
+     */
+    private static final int DEFAULT_WIDTH = 1 << 16;
+
+    /**
+     * Default number of rows (independent hash functions) in the sketch.
+     */
+    private static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * Odd multipliers used to mix the hash of each row.
+     */
+    private static final int[] ROW_SEEDS = { 0x9E3779B9, 0x85EBCA6B,
+            0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C, 0xFD7046C5,
+            0xB55A4F09 };
+
+    /**
+     * Number of bits to shift when mixing a hash.
+     */
+    private static final int MIX_SHIFT = 16;
+
+    /**
+     * Initial value of the FNV-1a hash of the characters of a word.
+     */
+    private static final int FNV_OFFSET = 0x811C9DC5;
+
+    /**
+     * Multiplier of the FNV-1a hash of the characters of a word.
+     */
+    private static final int FNV_PRIME = 0x01000193;
+
+    /**
+     * Counters of the sketch, one row per hash function.
+     */
+    private final int[][] sketch;
+
+    /**
+     * Bit mask giving a column from a mixed hash.
+     */
+    private final int columnMask;
+
+    /**
+     * Maximum number of candidate words remembered.
+     */
+    private final int capacity;
+
+    /**
+     * Estimated count of each candidate word.
+     */
+    private final Map<String, Integer> candidates;
+
+    /**
+     * Candidate words ordered from highest to lowest estimated count (ties by
+     * word), so the last one is the first to be evicted.
+     */
+    private final TreeSet<Map.Entry<String, Integer>> ranked;
+
+    /**
+     * Orders entries by decreasing count, then by increasing word.
+     */
+    private final Comparator<Map.Entry<String, Integer>> order;
+
+    /**
+     * Constructor resulting in a sketch with the default width and depth that
+     * remembers up to {@code capacity} candidate words.
+     *
+     * @param capacity
+     *            the number of candidate words remembered
+     * @param order
+     *            the order of entries from most to least frequent
+     * @requires capacity > 0  and  [order is a total order]
+     */
+    public HeavyHitters(int capacity,
+            Comparator<Map.Entry<String, Integer>> order) {
+        this(capacity, order, DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructor resulting in a sketch of {@code depth} rows of
+     * {@code width} counters that remembers up to {@code capacity} candidate
+     * words.
+     *
+     * @param capacity
+     *            the number of candidate words remembered
+     * @param order
+     *            the order of entries from most to least frequent
+     * @param width
+     *            the number of counters in each row
+     * @param depth
+     *            the number of rows
+     * @requires
+     *
+     *           <pre>
+     * capacity > 0  and  [order is a total order]  and
+     * [width is a power of 2]  and  0 < depth <= 8
+     *           </pre>
+     */
+    public HeavyHitters(int capacity,
+            Comparator<Map.Entry<String, Integer>> order, int width,
+            int depth) {
+        assert capacity > 0 : "Violation of: capacity > 0";
+        assert Integer.bitCount(width) == 1 : ""
+                + "Violation of: width is a power of 2";
+        assert 0 < depth && depth <= ROW_SEEDS.length : ""
+                + "Violation of: 0 < depth <= 8";
+        this.sketch = new int[depth][width];
+        this.columnMask = width - 1;
+        this.capacity = capacity;
+        this.candidates = new HashMap<String, Integer>();
+        this.order = order;
+        this.ranked = new TreeSet<Map.Entry<String, Integer>>(order);
+    }
+
+    /**
+     * Returns the FNV-1a hash of the characters of {@code word}, a second
+     * hash independent of {@code word.hashCode()}.
+     *
+     * @param word
+     *            the word
+     * @return the hash
+     */
+    private static int fnvHash(String word) {
+        int h = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            h ^= word.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Returns the column of a word in row {@code row}, from two independent
+     * hashes of the word combined as {@code hash1 + (row + 1) * hash2}, so
+     * words whose {@code hashCode}s collide still fall apart in most rows.
+     *
+     * @param hash1
+     *            the hash code of the word
+     * @param hash2
+     *            the FNV-1a hash of the word
+     * @param row
+     *            the row
+     * @return the column
+     * @requires 0 <= row < |this.sketch|
+     * @ensures 0 <= column < |this.sketch[row]|
+     */
+    private int column(int hash1, int hash2, int row) {
+        int h = (hash1 + (row + 1) * hash2) * ROW_SEEDS[row];
+        h ^= h >>> MIX_SHIFT;
+        return h & this.columnMask;
+    }
+
+    /**
+     * Counts one occurrence of {@code word} and updates the candidates.
+     *
+     * @param word
+     *            the word
+     * @updates this
+     * @requires word is not null
+     */
+    public void add(String word) {
+        assert word != null : "Violation of: word is not null";
+
+        int hash1 = word.hashCode();
+        int hash2 = fnvHash(word);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < this.sketch.length; row++) {
+            int col = this.column(hash1, hash2, row);
+            this.sketch[row][col]++;
+            estimate = Math.min(estimate, this.sketch[row][col]);
+        }
+        Map.Entry<String, Integer> entry = new AbstractMap.SimpleEntry<String, Integer>(
+                word, estimate);
+        Integer old = this.candidates.get(word);
+        if (old != null) {
+            this.ranked.remove(
+                    new AbstractMap.SimpleEntry<String, Integer>(word, old));
+            this.ranked.add(entry);
+            this.candidates.put(word, estimate);
+        } else if (this.candidates.size() < this.capacity) {
+            this.ranked.add(entry);
+            this.candidates.put(word, estimate);
+        } else if (this.order.compare(entry, this.ranked.last()) < 0) {
+            Map.Entry<String, Integer> evicted = this.ranked.pollLast();
+            this.candidates.remove(evicted.getKey());
+            this.ranked.add(entry);
+            this.candidates.put(word, estimate);
+        }
+    }
+
+    /**
+     * Returns the (at most) {@code n} candidate words with the highest
+     * estimated counts, from highest to lowest.
+     *
+     * @param n
+     *            the number of words wanted
+     * @return the top candidate words and their estimated counts
+     * @requires n >= 0
+     * @ensures
+     *
+     *          <pre>
+     * |top| = min(n, [number of candidates])  and
+     * [top is sorted by this.order]
+     *          </pre>
+     */
+    public List<Map.Entry<String, Integer>> top(int n) {
+        assert n >= 0 : "Violation of: n >= 0";
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<Map.Entry<String, Integer>>();
+        Iterator<Map.Entry<String, Integer>> itr = this.ranked.iterator();
+        while (itr.hasNext() && top.size() < n) {
+            top.add(itr.next());
+        }
+        return top;
+    }
+
+}
@@ -13,6 +13,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
@@ -57,6 +58,12 @@ public final class TagCloudGeneratorSJC {
      */
     private static int minCount = 1;
 
+    /**
+     * Number of candidate words remembered per requested word in approximate
+     * mode, to give words that start slowly room to climb into the top.
+     */
+    private static final int HEAVY_HITTER_FACTOR = 4;
+
     /**
      * Set up maximum font size for a word.
      */
@@ -218,30 +225,48 @@ public final class TagCloudGeneratorSJC {
     }
 
     /**
-     * Creates a List of the entries in countWords sorted by their word counts.
+     * Creates a List of the {@code numWords} entries in countWords with the
+     * highest word counts, sorted by their word counts. Only the best
+     * {@code numWords} entries seen so far are kept, in a min-heap whose root
+     * is the first to be replaced, so this takes O(|countWords| log numWords)
+     * time and O(numWords) extra space.
      *
      * @clears countWords
      * @param countWords
-     *            the Map of words and their counts to sort
-     * @return a list of the Map.Entrys from countWords sorted in descending
+     *            the Map of words and their counts to select from
+     * @param numWords
+     *            the number of entries to select
+     * @return a list of the min(numWords, |countWords|) Map.Entrys from
+     *         countWords with the highest word counts, sorted in descending
      *         order by their word counts
-     * @ensures countSort contains all of the Map.Entrys from #countWords
+     * @requires numWords >= 0
+     * @ensures topWords contains the top Map.Entrys from #countWords by
+     *          numericalSort
      *
      */
-    private static List<Map.Entry<String, Integer>> countSort(
-            Map<String, Integer> countWords) {
-        List<Map.Entry<String, Integer>> countSort = new ArrayList<Map.Entry<String, Integer>>();
-        Set<Map.Entry<String, Integer>> countW = countWords.entrySet();
-        Iterator<Map.Entry<String, Integer>> itr = countW.iterator();
+    private static List<Map.Entry<String, Integer>> topWords(
+            Map<String, Integer> countWords, int numWords) {
+        Comparator<Map.Entry<String, Integer>> order = new numericalSort();
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<Map.Entry<String, Integer>>(
+                Math.max(1, numWords), order.reversed());
+        Iterator<Map.Entry<String, Integer>> itr = countWords.entrySet()
+                .iterator();
 
         while (itr.hasNext()) {
             Map.Entry<String, Integer> current = itr.next();
             itr.remove();
-            countSort.add(current);
+            if (heap.size() < numWords) {
+                heap.add(current);
+            } else if (numWords > 0
+                    && order.compare(current, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(current);
+            }
         }
-        Comparator<Map.Entry<String, Integer>> order = new numericalSort();
-        countSort.sort(order);
-        return countSort;
+        List<Map.Entry<String, Integer>> topWords = new ArrayList<Map.Entry<String, Integer>>(
+                heap);
+        topWords.sort(order);
+        return topWords;
 
     }
 
@@ -299,6 +324,44 @@ public final class TagCloudGeneratorSJC {
 
     }
 
+    /**
+     * Reads every word of text, as defined by separators, into the
+     * fixed-memory approximate counter heavyHitters.
+     *
+     * @param heavyHitters
+     *            the approximate counter to feed
+     * @param text
+     *            the BufferedReader connected to the file whose words are to
+     *            be counted
+     * @param separators
+     *            the Set of characters defined as separating words
+     * @updates heavyHitters
+     * @requires text.is_open
+     * @ensures heavyHitters has counted each word from text.content
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    private static void countWordApproximate(HeavyHitters heavyHitters,
+            Set<Character> separators, BufferedReader text) throws IOException {
+        String firstLine = text.readLine();
+        while (firstLine != null) {
+            firstLine = firstLine.toLowerCase();
+            int linePos = 0;
+            while (linePos < firstLine.length()) {
+                String words = nextWordOrSeparator(firstLine, linePos,
+                        separators);
+                if (!separators.contains(words.charAt(0))) {
+                    heavyHitters.add(words);
+                }
+                linePos += words.length();
+
+            }
+            firstLine = text.readLine();
+        }
+
+    }
+
     /**
      * 
      * 
@@ -364,14 +427,24 @@ public final class TagCloudGeneratorSJC {
     private static void outputBlock(PrintWriter output, int numWords,
             Map<String, Integer> wordCounts) {
 
-        List<Map.Entry<String, Integer>> count = countSort(wordCounts);
-        List<Map.Entry<String, Integer>> top = new ArrayList<Map.Entry<String, Integer>>();
-        while (count.size() > 0 && top.size() < numWords) {
-            Map.Entry<String, Integer> topWord = count.get(0);
-            count.remove(0);
-            top.add(topWord);
+        outputTop(output, topWords(wordCounts, numWords));
 
-        }
+    }
+
+    /**
+     * Outputs the HTML for the words in top, in alphabetical order, for a CSS
+     * tag cloud.
+     *
+     * @param output
+     *            the file to print the top words to
+     * @param top
+     *            the top words and their counts, in descending order by count
+     * @updates top
+     * @ensures output.content = #output.content * the words from top and
+     *          output.is_open
+     */
+    private static void outputTop(PrintWriter output,
+            List<Map.Entry<String, Integer>> top) {
 
         if (top.size() > 0) {
             minCount = top.get(top.size() - 1).getValue();
@@ -465,14 +538,36 @@ public final class TagCloudGeneratorSJC {
             }
         }
 
-        outputHTMLHeader(out, file, numWords);
-        Map<String, Integer> wordCounts = new HashMap<String, Integer>();
+        System.out.print("Approximate counts in fixed memory? (y/n): ");
+        boolean approximate = false;
         try {
-            countWord(wordCounts, generateElements(SEPARATORS), input);
+            String answer = bInput.readLine();
+            approximate = answer != null && answer.trim().equalsIgnoreCase("y");
         } catch (IOException e) {
-            System.out.println("Error reading file");
+            System.out.println("Error: Input cant be read");
+        }
+
+        outputHTMLHeader(out, file, numWords);
+        if (approximate) {
+            HeavyHitters heavyHitters = new HeavyHitters(
+                    Math.max(1, HEAVY_HITTER_FACTOR * numWords),
+                    new numericalSort());
+            try {
+                countWordApproximate(heavyHitters,
+                        generateElements(SEPARATORS), input);
+            } catch (IOException e) {
+                System.out.println("Error reading file");
+            }
+            outputTop(out, heavyHitters.top(numWords));
+        } else {
+            Map<String, Integer> wordCounts = new HashMap<String, Integer>();
+            try {
+                countWord(wordCounts, generateElements(SEPARATORS), input);
+            } catch (IOException e) {
+                System.out.println("Error reading file");
+            }
+            outputBlock(out, numWords, wordCounts);
         }
-        outputBlock(out, numWords, wordCounts);
         outputFooter(out);
 
         out.close();
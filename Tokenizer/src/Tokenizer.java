@@ -24,6 +24,12 @@ public final class Tokenizer {
      */
     private static final String SEPARATORS = " \t\n\r";
 
+    /**
+     * Table lookup for the whitespace separators.
+     */
+    private static final SeparatorScanner SCANNER = new SeparatorScanner(
+            SEPARATORS);
+
     /**
      * Private constructor so this utility class cannot be instantiated.
      */
@@ -51,77 +57,6 @@ public final class Tokenizer {
         return kind;
     }
 
-    /**
-     * Returns the first "word" (maximal length string of characters not in
-     * {@code SEPARATORS}) or "separator string" (maximal length string of
-     * characters in {@code SEPARATORS}) in the given {@code text} starting at
-     * the given {@code position}.
-     *
-     * @param text
-     *            the {@code String} from which to get the word or separator
-     *            string
-     * @param position
-     *            the starting index
-     * @return the first word or separator string found in {@code text} starting
-     *         at index {@code position}
-     * @requires 0 <= position < |text|
-     * @ensures <pre>
-     * nextWordOrSeparator =
-     *   text[position, position + |nextWordOrSeparator|)  and
-     * if entries(text[position, position + 1)) intersection entries(SEPARATORS) = {}
-     * then
-     *   entries(nextWordOrSeparator) intersection entries(SEPARATORS) = {}  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      intersection entries(SEPARATORS) /= {})
-     * else
-     *   entries(nextWordOrSeparator) is subset of entries(SEPARATORS)  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      is not subset of entries(SEPARATORS))
-     * </pre>
-     */
-    private static String nextWordOrSeparator(String text, int position) {
-        assert text != null : "Violation of: text is not null";
-        assert 0 <= position : "Violation of: 0 <= position";
-        assert position < text.length() : "Violation of: position < |text|";
-        int counter = 0;
-        String maxWoS = "";
-        char c = 'a';
-        if (SEPARATORS.contains(Character.toString(text.charAt(position)))) {
-            while (counter < text.substring(position, text.length()).length()) {
-                c = text.charAt(counter + position);
-                if (SEPARATORS.contains(
-                        Character.toString(text.charAt(position + counter)))) {
-                    maxWoS = maxWoS + c;
-                    counter++;
-                } else {
-                    counter = text.substring(position, text.length()).length();
-                }
-
-            }
-            counter = 0;
-        } else {
-            if (!SEPARATORS
-                    .contains(Character.toString(text.charAt(position)))) {
-                while (counter < text.substring(position, text.length())
-                        .length()) {
-                    c = text.charAt(counter + position);
-                    if (!SEPARATORS.contains(Character
-                            .toString(text.charAt(position + counter)))) {
-                        maxWoS = maxWoS + c;
-                        counter++;
-                    } else {
-                        counter = text.substring(position, text.length())
-                                .length();
-                    }
-                }
-            }
-            counter = 0;
-        }
-        return maxWoS;
-    }
-
     /*
      * Public members ---------------------------------------------------------
      */
@@ -155,11 +90,11 @@ public final class Tokenizer {
             String line = in.nextLine();
             int pos = 0;
             while (pos < line.length()) {
-                String s = nextWordOrSeparator(line, pos);
-                if (!SEPARATORS.contains(s) && !s.contains(" ")) {
-                    qTokens.enqueue(s);
+                int end = SCANNER.nextWordOrSeparatorEnd(line, pos);
+                if (!SCANNER.isSeparator(line.charAt(pos))) {
+                    qTokens.enqueue(line.substring(pos, end));
                 }
-                pos += s.length();
+                pos = end;
             }
         }
         qTokens.enqueue(END_OF_INPUT);
@@ -0,0 +1,357 @@
+import components.map.Map;
+
+/**
+ * Map from {@code String} words to {@code int} counts, represented as a hash
+ * table with chained buckets like {@code Map4}, but with the chains kept in
+ * parallel arrays of primitive counts. {@code increment} finds (or adds) a
+ * word and bumps its count with a single hash lookup and no boxing, which is
+ * what word-counting loops need in place of {@code hasKey}, {@code value} and
+ * {@code replaceValue} on a {@code Map<String, Integer>}.
+ *
+ * @convention
+ *
+ *             <pre>
+ * |$this.bucketHeads| > 0  and
+ * |$this.keys| = |$this.counts| = |$this.nextInBucket|  and
+ * 0 <= $this.size <= |$this.keys|  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.bucketHeads|  and
+ * [entries $this.keys[0, $this.size) are distinct and not null]  and
+ * [for each i in [0, $this.size), $this.counts[i] > 0]  and
+ * [for each bucket b, following $this.bucketHeads[b] and then
+ *  $this.nextInBucket until -1 visits exactly the indices i in
+ *  [0, $this.size) with
+ *  [computed result of $this.keys[i].hashCode()] mod |$this.bucketHeads| = b]
+ *             </pre>
+ *
+ * @correspondence
+ *
+ *                 <pre>
+ * this = {($this.keys[i], $this.counts[i]): (string of character, integer)
+ *            where (0 <= i  and  i < $this.size)}
+ *                 </pre>
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class CountingMap {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Maximum average number of words per bucket before the table grows.
+     */
+    private static final int MAX_LOAD_FACTOR = 1;
+
+    /**
+     * Marks the end of a bucket chain.
+     */
+    private static final int NO_ENTRY = -1;
+
+    /**
+     * Index in {@code keys} of the first entry of each bucket.
+     */
+    private int[] bucketHeads;
+
+    /**
+     * Words, in order of first occurrence.
+     */
+    private String[] keys;
+
+    /**
+     * Count of each word, parallel to {@code keys}.
+     */
+    private int[] counts;
+
+    /**
+     * Index of the next entry in the same bucket, parallel to {@code keys}.
+     */
+    private int[] nextInBucket;
+
+    /**
+     * Number of distinct words.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures
+     *
+     *          <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     *          </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int mod = a % b;
+        if (mod < 0) {
+            mod = mod + b;
+        }
+        return mod;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures |$this.bucketHeads| = hashTableSize  and  this = {}
+     */
+    private void createNewRep(int hashTableSize) {
+        this.bucketHeads = new int[hashTableSize];
+        for (int i = 0; i < hashTableSize; i++) {
+            this.bucketHeads[i] = NO_ENTRY;
+        }
+        int capacity = MAX_LOAD_FACTOR * hashTableSize;
+        this.keys = new String[capacity];
+        this.counts = new int[capacity];
+        this.nextInBucket = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Doubles (plus one) the size of the hash table and of the entry arrays,
+     * relinking every entry into its new bucket.
+     *
+     * @updates this
+     * @ensures this = #this
+     */
+    private void grow() {
+        int hashTableSize = 2 * this.bucketHeads.length + 1;
+        int capacity = MAX_LOAD_FACTOR * hashTableSize;
+        String[] oldKeys = this.keys;
+        int[] oldCounts = this.counts;
+        int oldSize = this.size;
+        this.bucketHeads = new int[hashTableSize];
+        for (int i = 0; i < hashTableSize; i++) {
+            this.bucketHeads[i] = NO_ENTRY;
+        }
+        this.keys = new String[capacity];
+        this.counts = new int[capacity];
+        this.nextInBucket = new int[capacity];
+        for (int i = 0; i < oldSize; i++) {
+            int bucket = mod(oldKeys[i].hashCode(), hashTableSize);
+            this.keys[i] = oldKeys[i];
+            this.counts[i] = oldCounts[i];
+            this.nextInBucket[i] = this.bucketHeads[bucket];
+            this.bucketHeads[bucket] = i;
+        }
+    }
+
+    /**
+     * Returns the index in {@code $this.keys} of {@code key}, or
+     * {@code NO_ENTRY} if {@code key} is not in {@code DOMAIN(this)}.
+     *
+     * @param key
+     *            the word to look for
+     * @param bucket
+     *            the bucket of {@code key}
+     * @return the index of {@code key}
+     * @requires
+     *
+     *           <pre>
+     * bucket = [computed result of key.hashCode()] mod |$this.bucketHeads|
+     *           </pre>
+     *
+     * @ensures
+     *
+     *          <pre>
+     * if key is in DOMAIN(this)
+     *  then $this.keys[indexOf] = key
+     *  else indexOf = NO_ENTRY
+     *          </pre>
+     */
+    private int indexOf(String key, int bucket) {
+        int i = this.bucketHeads[bucket];
+        while (i != NO_ENTRY && !this.keys[i].equals(key)) {
+            i = this.nextInBucket[i];
+        }
+        return i;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public CountingMap() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Resets {@code this} to an empty map.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /**
+     * Adds one to the count of {@code key}, adding {@code key} with count 1 if
+     * it is not already in {@code DOMAIN(this)}.
+     *
+     * @param key
+     *            the word to count
+     * @updates this
+     * @requires key is not null
+     * @ensures
+     *
+     *          <pre>
+     * if key is in DOMAIN(#this)
+     *  then this = (#this \ {(key, #this(key))}) union {(key, #this(key) + 1)}
+     *  else this = #this union {(key, 1)}
+     *          </pre>
+     */
+    public void increment(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        this.increment(key, 1);
+    }
+
+    /**
+     * Adds {@code amount} to the count of {@code key}, adding {@code key} with
+     * count {@code amount} if it is not already in {@code DOMAIN(this)}.
+     *
+     * @param key
+     *            the word to count
+     * @param amount
+     *            the number of occurrences to add
+     * @updates this
+     * @requires key is not null  and  amount > 0
+     * @ensures
+     *
+     *          <pre>
+     * if key is in DOMAIN(#this)
+     *  then this = (#this \ {(key, #this(key))}) union
+     *              {(key, #this(key) + amount)}
+     *  else this = #this union {(key, amount)}
+     *          </pre>
+     */
+    public void increment(String key, int amount) {
+        assert key != null : "Violation of: key is not null";
+        assert amount > 0 : "Violation of: amount > 0";
+
+        int hash = key.hashCode();
+        int bucket = mod(hash, this.bucketHeads.length);
+        int i = this.indexOf(key, bucket);
+        if (i != NO_ENTRY) {
+            this.counts[i] += amount;
+        } else {
+            if (this.size == this.keys.length) {
+                this.grow();
+                bucket = mod(hash, this.bucketHeads.length);
+            }
+            i = this.size;
+            this.keys[i] = key;
+            this.counts[i] = amount;
+            this.nextInBucket[i] = this.bucketHeads[bucket];
+            this.bucketHeads[bucket] = i;
+            this.size++;
+        }
+    }
+
+    /**
+     * Reports the count of {@code key}, or 0 if {@code key} has not been
+     * counted.
+     *
+     * @param key
+     *            the word
+     * @return the count of {@code key}
+     * @requires key is not null
+     * @ensures
+     *
+     *          <pre>
+     * if key is in DOMAIN(this)
+     *  then count = this(key)
+     *  else count = 0
+     *          </pre>
+     */
+    public int count(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.indexOf(key,
+                mod(key.hashCode(), this.bucketHeads.length));
+        int count = 0;
+        if (i != NO_ENTRY) {
+            count = this.counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Reports the number of distinct words counted.
+     *
+     * @return the size of {@code this}
+     * @ensures size = |this|
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds the counts of {@code this} to {@code m}, word by word, in the order
+     * in which the words were first counted in {@code this}.
+     *
+     * @param m
+     *            the counting map to add to
+     * @updates m
+     * @requires m is not this
+     * @ensures
+     *
+     *          <pre>
+     * DOMAIN(m) = DOMAIN(#m) union DOMAIN(this)  and
+     * for all key: string of character
+     *     where (key is in DOMAIN(m))
+     *   (m(key) = [#m(key), or 0 if key is not in DOMAIN(#m)] +
+     *             [this(key), or 0 if key is not in DOMAIN(this)])
+     *          </pre>
+     */
+    public void mergeInto(CountingMap m) {
+        assert m != null : "Violation of: m is not null";
+        assert m != this : "Violation of: m is not this";
+
+        for (int i = 0; i < this.size; i++) {
+            m.increment(this.keys[i], this.counts[i]);
+        }
+    }
+
+    /**
+     * Adds every (word, count) pair of {@code this} to {@code m}.
+     *
+     * @param m
+     *            the map to add to
+     * @updates m
+     * @requires DOMAIN(this) intersection DOMAIN(m) = {}
+     * @ensures m = #m union this
+     */
+    public void addAllTo(Map<String, Integer> m) {
+        assert m != null : "Violation of: m is not null";
+
+        for (int i = 0; i < this.size; i++) {
+            m.add(this.keys[i], this.counts[i]);
+        }
+    }
+
+}
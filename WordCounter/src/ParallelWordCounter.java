@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the words of a text file using every core: the file is memory-mapped,
+ * split into chunks that begin and end on separator characters, each chunk is
+ * counted on its own thread into its own {@code CountingMap}, and the chunk
+ * counts are merged in file order. Because words never span a chunk boundary
+ * and merging in file order keeps first-occurrence order, the result equals
+ * counting the file line by line on one thread.
+ *
+ * <p>
+ * Words are split on ASCII separators and line breaks only, so the bytes of a
+ * word are decoded as UTF-8 without any risk of cutting a multi-byte
+ * character.
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class ParallelWordCounter {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ParallelWordCounter() {
+    }
+
+    /**
+     * Largest chunk mapped at once; a single mapping is limited to 2 GB.
+     */
+    private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+    /**
+     * Number of chunks per thread, so faster threads can pick up the slack of
+     * slower ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Size of the buffer used when looking for a chunk boundary.
+     */
+    private static final int BOUNDARY_BUFFER_BYTES = 4096;
+
+    /**
+     * Number of distinct byte values.
+     */
+    private static final int BYTE_VALUES = 256;
+
+    /**
+     * Mask to turn a signed {@code byte} into an index in [0, 256).
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Initial size of the buffer holding the bytes of one word.
+     */
+    private static final int INITIAL_WORD_BYTES = 64;
+
+    /**
+     * Returns a table telling, for each byte value, whether it ends a word:
+     * the characters of {@code separators} plus line breaks.
+     *
+     * @param separators
+     *            the separator characters
+     * @return the separator table
+     * @requires [every character of separators is ASCII]
+     * @ensures
+     *
+     *          <pre>
+     * |separatorTable| = 256  and
+     * for all b: integer where (0 <= b < 256)
+     *   (separatorTable[b] = (b is in entries(separators) or
+     *                         b = '\n' or b = '\r'))
+     *          </pre>
+     */
+    private static boolean[] separatorTable(String separators) {
+        boolean[] isSeparator = new boolean[BYTE_VALUES];
+        for (int i = 0; i < separators.length(); i++) {
+            char c = separators.charAt(i);
+            assert c < BYTE_VALUES / 2 : "Violation of: separators are ASCII";
+            isSeparator[c] = true;
+        }
+        isSeparator['\n'] = true;
+        isSeparator['\r'] = true;
+        return isSeparator;
+    }
+
+    /**
+     * Returns the position of the first separator byte at or after
+     * {@code position}, or {@code fileSize} if there is none.
+     *
+     * @param channel
+     *            the open file
+     * @param fileSize
+     *            the size of the file
+     * @param position
+     *            where to start looking
+     * @param isSeparator
+     *            the separator table
+     * @return the position of the next separator byte
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires 0 <= position <= fileSize
+     * @ensures position <= nextSeparator <= fileSize
+     */
+    private static long nextSeparator(FileChannel channel, long fileSize,
+            long position, boolean[] isSeparator) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_BYTES);
+        long pos = position;
+        while (pos < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            for (int i = 0; i < read; i++) {
+                if (isSeparator[buffer.get(i) & BYTE_MASK]) {
+                    return pos + i;
+                }
+            }
+            pos += read;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Counts the words of the mapped chunk {@code bytes}.
+     *
+     * @param bytes
+     *            the mapped chunk
+     * @param isSeparator
+     *            the separator table
+     * @return the counts of the words in {@code bytes}, in first-occurrence
+     *         order
+     * @requires [bytes does not begin or end in the middle of a word]
+     * @ensures countChunk = [counts of the words of bytes]
+     */
+    private static CountingMap countChunk(MappedByteBuffer bytes,
+            boolean[] isSeparator) {
+        CountingMap counts = new CountingMap();
+        byte[] word = new byte[INITIAL_WORD_BYTES];
+        int wordLength = 0;
+        int limit = bytes.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (isSeparator[b & BYTE_MASK]) {
+                if (wordLength > 0) {
+                    counts.increment(new String(word, 0, wordLength,
+                            StandardCharsets.UTF_8));
+                    wordLength = 0;
+                }
+            } else {
+                if (wordLength == word.length) {
+                    byte[] bigger = new byte[2 * word.length];
+                    System.arraycopy(word, 0, bigger, 0, wordLength);
+                    word = bigger;
+                }
+                word[wordLength] = b;
+                wordLength++;
+            }
+        }
+        if (wordLength > 0) {
+            counts.increment(
+                    new String(word, 0, wordLength, StandardCharsets.UTF_8));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the words (maximal strings of characters that are neither in
+     * {@code separators} nor line breaks) of the file named {@code fileName}
+     * using {@code threads} threads.
+     *
+     * @param fileName
+     *            the name of the file
+     * @param separators
+     *            the separator characters
+     * @param threads
+     *            the number of threads to use
+     * @return the counts of the words of the file, in first-occurrence order
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires [every character of separators is ASCII]  and  threads > 0
+     * @ensures count = [counts of the words of the file named fileName]
+     */
+    public static CountingMap count(String fileName, String separators,
+            int threads) throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert separators != null : "Violation of: separators is not null";
+        assert threads > 0 : "Violation of: threads > 0";
+
+        boolean[] isSeparator = separatorTable(separators);
+        CountingMap total = new CountingMap();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long chunkCount = Math.max((long) threads * CHUNKS_PER_THREAD,
+                    (fileSize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            long targetChunkBytes = Math.max(1,
+                    Math.min(MAX_CHUNK_BYTES / 2, fileSize / chunkCount));
+            /*
+             * Cut the file at the first separator after each target offset,
+             * so no word is split between two chunks.
+             */
+            List<Future<CountingMap>> results = new ArrayList<>();
+            long start = 0;
+            while (start < fileSize) {
+                long end = fileSize;
+                if (fileSize - start > targetChunkBytes) {
+                    end = nextSeparator(channel, fileSize,
+                            start + targetChunkBytes, isSeparator);
+                }
+                if (end - start > MAX_CHUNK_BYTES) {
+                    /*
+                     * A single "word" longer than a mapping allows: cut it;
+                     * this only happens for files that are not text.
+                     */
+                    end = start + MAX_CHUNK_BYTES;
+                }
+                MappedByteBuffer chunk = channel
+                        .map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                results.add(pool.submit(() -> countChunk(chunk, isSeparator)));
+                start = end;
+            }
+            /*
+             * Merge in file order to keep first-occurrence order.
+             */
+            for (Future<CountingMap> result : results) {
+                result.get().mergeInto(total);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while counting words", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error counting words", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+}
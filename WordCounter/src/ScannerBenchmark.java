@@ -0,0 +1,180 @@
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.set.Set1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time to split the lines of a text file into words and
+ * separators with the previous approach ({@code Set<Character>} lookups and a
+ * {@code String} per word and per separator) and with
+ * {@code SeparatorScanner} (table lookups and a {@code String} per word only).
+ *
+ * @author Elijah Bulluck
+ *
+ */
+public final class ScannerBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ScannerBenchmark() {
+    }
+
+    /**
+     * Characters that are considered separators.
+     */
+    private static final String SEPARATORS = " \t~`!@#$%^&*()-_+={}[]|;:'<>,.?/";
+
+    /**
+     * Number of untimed passes over the text, to let the JIT compiler warm up.
+     */
+    private static final int WARMUP_PASSES = 5;
+
+    /**
+     * Number of timed passes over the text.
+     */
+    private static final int TIMED_PASSES = 10;
+
+    /**
+     * Returns the first "word" or "separator string" in the given {@code text}
+     * starting at the given {@code position}, as the code did before
+     * {@code SeparatorScanner}.
+     *
+     * @param text
+     *            the {@code String} from which to get the word or separator
+     *            string
+     * @param pos
+     *            the starting index
+     * @param separators
+     *            the {@code Set} of separator characters
+     * @return the first word or separator string found in {@code text}
+     *         starting at index {@code position}
+     * @requires 0 <= pos < |text|
+     */
+    private static String nextWordOrSeparator(String text, int pos,
+            Set<Character> separators) {
+        boolean isSep = separators.contains(text.charAt(pos));
+        int nextPos = pos + 1;
+        while (nextPos < text.length()
+                && (separators.contains(text.charAt(nextPos)) == isSep)) {
+            nextPos++;
+        }
+        return text.substring(pos, nextPos);
+    }
+
+    /**
+     * Splits every line of {@code lines} with the previous approach.
+     *
+     * @param lines
+     *            the lines of text
+     * @param separators
+     *            the {@code Set} of separator characters
+     * @return the total length of the words found
+     */
+    private static long scanWithSet(Queue<String> lines,
+            Set<Character> separators) {
+        long total = 0;
+        for (String line : lines) {
+            int pos = 0;
+            while (pos < line.length()) {
+                String s = nextWordOrSeparator(line, pos, separators);
+                if (!separators.contains(s.charAt(0))) {
+                    total += s.length();
+                }
+                pos += s.length();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Splits every line of {@code lines} with {@code scanner}, creating a
+     * {@code String} for each word as a counting program would.
+     *
+     * @param lines
+     *            the lines of text
+     * @param scanner
+     *            the separator scanner
+     * @return the total length of the words found
+     */
+    private static long scanWithScanner(Queue<String> lines,
+            SeparatorScanner scanner) {
+        long total = 0;
+        for (String line : lines) {
+            int pos = 0;
+            while (pos < line.length()) {
+                int end = scanner.nextWordOrSeparatorEnd(line, pos);
+                if (!scanner.isSeparator(line.charAt(pos))) {
+                    total += line.substring(pos, end).length();
+                }
+                pos = end;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Text file name: ");
+        String fileName = in.nextLine();
+        Queue<String> lines = new Queue1L<String>();
+        long chars = 0;
+        SimpleReader file = new SimpleReader1L(fileName);
+        while (!file.atEOS()) {
+            String line = file.nextLine();
+            chars += line.length();
+            lines.enqueue(line);
+        }
+        file.close();
+
+        Set<Character> separators = new Set1L<Character>();
+        for (int i = 0; i < SEPARATORS.length(); i++) {
+            if (!separators.contains(SEPARATORS.charAt(i))) {
+                separators.add(SEPARATORS.charAt(i));
+            }
+        }
+        SeparatorScanner scanner = new SeparatorScanner(SEPARATORS);
+
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            scanWithSet(lines, separators);
+            scanWithScanner(lines, scanner);
+        }
+        long setTotal = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_PASSES; i++) {
+            setTotal += scanWithSet(lines, separators);
+        }
+        long setNanos = System.nanoTime() - start;
+        long scannerTotal = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_PASSES; i++) {
+            scannerTotal += scanWithScanner(lines, scanner);
+        }
+        long scannerNanos = System.nanoTime() - start;
+
+        if (setTotal != scannerTotal) {
+            out.println("Error: the two approaches found different words.");
+        }
+        double setPerChar = (double) setNanos / (chars * TIMED_PASSES);
+        double scannerPerChar = (double) scannerNanos / (chars * TIMED_PASSES);
+        out.println("Characters per pass: " + chars);
+        out.println("Set<Character> + String per token: "
+                + String.format("%.2f", setPerChar) + " ns/char");
+        out.println("SeparatorScanner:                  "
+                + String.format("%.2f", scannerPerChar) + " ns/char");
+        in.close();
+        out.close();
+    }
+
+}
@@ -1,11 +1,10 @@
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Comparator;
 
 import components.map.Map;
 import components.map.Map.Pair;
 import components.map.Map1L;
-import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -21,6 +20,11 @@ import components.simplewriter.SimpleWriter1L;
 
 public class WordCounter {
 
+    /**
+     * Characters that are considered separators.
+     */
+    private static final String SEPARATORS = " \t~`!@#$%^&*()-_+={}[]|;:'<>,.?/";
+
     /**
      * Compare {@code String}s in lexicographic order, also ignoring capital
      * letters.
@@ -33,106 +37,6 @@ public class WordCounter {
         }
     }
 
-    //using nextWordOrSeparator from SWI
-    /**
-     * Returns the first "word" (maximal length string of characters not in
-     * {@code separators}) or "separator string" (maximal length string of
-     * characters in {@code separators}) in the given {@code text} starting at
-     * the given {@code position}.
-     *
-     * @param text
-     *            the {@code String} from which to get the word or separator
-     *            string
-     * @param position
-     *            the starting index
-     * @param separators
-     *            the {@code Set} of separator characters
-     * @return the first word or separator string found in {@code text} starting
-     *         at index {@code position}
-     * @requires 0 <= position < |text|
-     * @ensures <pre>
-     * nextWordOrSeparator =
-     *   text[position, position + |nextWordOrSeparator|)  and
-     * if entries(text[position, position + 1)) intersection separators = {}
-     * then
-     *   entries(nextWordOrSeparator) intersection separators = {}  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      intersection separators /= {})
-     * else
-     *   entries(nextWordOrSeparator) is subset of separators  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      is not subset of separators)
-     * </pre>
-     */
-    private static String nextWordOrSeparator(String text, int position,
-            Set<Character> separators) {
-        assert text != null : "Violation of: text is not null";
-        assert separators != null : "Violation of: separators is not null";
-        assert 0 <= position : "Violation of: 0 <= position";
-        assert position < text.length() : "Violation of: position < |text|";
-
-        int counter = 0;
-        String maxWoS = "";
-        char c = 'a';
-        if (separators.contains(text.charAt(position))) {
-            while (counter < text.substring(position, text.length()).length()) {
-                c = text.charAt(counter + position);
-                if (separators.contains(text.charAt(position + counter))) {
-                    maxWoS = maxWoS + c;
-                    counter++;
-                } else {
-                    counter = text.substring(position, text.length()).length();
-                }
-
-            }
-            counter = 0;
-        } else {
-            if (!separators.contains(text.charAt(position))) {
-                while (counter < text.substring(position, text.length())
-                        .length()) {
-                    c = text.charAt(counter + position);
-                    if (!separators.contains(text.charAt(position + counter))) {
-                        maxWoS = maxWoS + c;
-                        counter++;
-                    } else {
-                        counter = text.substring(position, text.length())
-                                .length();
-                    }
-                }
-            }
-            counter = 0;
-        }
-        return maxWoS;
-
-    }
-
-    //generateElements from SWI
-    /**
-     * Generates the set of characters in the given {@code String} into the
-     * given {@code Set}.
-     *
-     * @param str
-     *            the given {@code String}
-     * @param charSet
-     *            the {@code Set} to be replaced
-     * @replaces charSet
-     * @ensures charSet = entries(str)
-     */
-    private static void generateElements(String str, Set<Character> charSet) {
-        assert str != null : "Violation of: str is not null";
-        assert charSet != null : "Violation of: charSet is not null";
-
-        charSet.clear();
-        for (int i = 0; i < str.length(); i++) {
-            if (!charSet.contains(str.charAt(i))) {
-                charSet.add(str.charAt(i));
-            }
-        }
-
-    }
-
     /**
      * Creates an array of the keys from map and sorts them alphabetically.
      *
@@ -192,6 +96,7 @@ public class WordCounter {
      * @param m
      *            an empty map that will end with having all of the words
      * 
+     * @requires m = {}
      * @updates m
      *
      * @ensures <pre>
@@ -201,37 +106,28 @@ public class WordCounter {
     public static void createMap(SimpleReader file, Map<String, Integer> m) {
         assert m != null : "Violation of: m is not null";
         int pos = 0;
-        Set<Character> specialChars = new Set1L<Character>();
-        //Characters that are considering separators
-        String chars = " \t~`!@#$%^&*()-_+={}[]|;:'<>,.?/";
-        //create a set of the special characters
-        generateElements(chars, specialChars);
+        //look up separators in a table instead of a Set<Character>
+        SeparatorScanner scanner = new SeparatorScanner(SEPARATORS);
+        //count into a primitive-valued map, then copy into m at the end
+        CountingMap counts = new CountingMap();
         while (!file.atEOS()) {
             String line = file.nextLine();
             //reset position on line for each line
             pos = 0;
             while (pos < line.length()) {
-                //find the next character or word
-                String charOrWord = nextWordOrSeparator(line, pos,
-                        specialChars);
-                //first we have to check if the string is a word
-                if (!specialChars.contains(charOrWord.charAt(0))) {
-                    //add to map if it's a word that hasnt been seen yet
-                    if (!m.hasKey(charOrWord)) {
-                        m.add(charOrWord, 1);
-                    }
-                    //if it is there, increase the value
-                    else {
-                        int val = m.value(charOrWord);
-                        val++;
-                        //now replace the value that was associated before
-                        m.replaceValue(charOrWord, val);
-                    }
+                //find the end of the next character or word
+                int end = scanner.nextWordOrSeparatorEnd(line, pos);
+                //only words are turned into Strings and counted
+                if (!scanner.isSeparator(line.charAt(pos))) {
+                    //one lookup either adds the word or bumps its count
+                    counts.increment(line.substring(pos, end));
                 }
-                //Increase position to consider the next word or separator in the line.
-                pos = pos + charOrWord.length();
+                //Move on to the next word or separator in the line.
+                pos = end;
             }
         }
+        //box the counts only once per distinct word
+        counts.addAllTo(m);
     }
 
     /**
@@ -294,8 +190,24 @@ public class WordCounter {
         out.println("Enter the name of the output file: ");
         //Creates output file, stored in data folder
         SimpleWriter outFile = new SimpleWriter1L("data/" + in.nextLine());
+        out.println("Count using all cores on a memory-mapped file? (y/n): ");
+        boolean parallel = in.nextLine().trim().equalsIgnoreCase("y");
         Map<String, Integer> wordMap = new Map1L<String, Integer>();
-        createMap(inFile, wordMap);
+        if (parallel) {
+            //split the file into chunks, count each on its own core and merge
+            try {
+                ParallelWordCounter.count("data/" + inName, SEPARATORS,
+                        Runtime.getRuntime().availableProcessors())
+                        .addAllTo(wordMap);
+            } catch (IOException e) {
+                System.err.println("Error reading from file");
+                //fall back to reading the file line by line
+                wordMap.clear();
+                createMap(inFile, wordMap);
+            }
+        } else {
+            createMap(inFile, wordMap);
+        }
         String[] arr = createArr(wordMap);
         updateMapAlphabetically(arr, wordMap);
         createTable(outFile, inFile, wordMap, arr);